@@ -1,15 +1,21 @@
 package edu.uab.cis.probability.ngram;
 
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Iterator;
-import java.util.LinkedList;
-import static com.google.common.collect.Lists.charactersOf;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * A probabilistic n-gram language model.
  * 
+ * {@link #probability(List)} only reads the model, so any number of threads
+ * may call it at once as long as no thread is training the model. Once
+ * training is over, {@link #freeze()} makes the model read-only for good, so
+ * that it can be shared by scoring threads without any locking.
+ * 
  * @param <T>
  *          The type of items in the sequences over which the language model
  *          estimates probabilities.
@@ -61,10 +67,13 @@ public class NgramLanguageModel<T> {
   }
 
   private int n;
-  private Node<T> root = new Node<T>();
+  private Node root = new Node();
   private Representation rep;
   private Smoothing smooth;
-  private LinkedList<T> nodes;
+  // every item seen, interned as an id: its index in tokens
+  private Map<T, Integer> ids = new HashMap<>();
+  private List<T> tokens = new ArrayList<>();
+  private boolean frozen = false;
 
   /**
    * Creates an n-gram language model.
@@ -91,14 +100,19 @@ public class NgramLanguageModel<T> {
    * 
    * @param sequence
    *          The sequence on which the model should be trained.
+   * @throws IllegalStateException
+   *           If the model has been frozen.
    */
   public void train(List<T> sequence)
   {
+	  if(frozen)
+		  throw new IllegalStateException("A frozen model cannot be trained");
+	  int[] ids = intern(sequence);
 	  for(int a = 1; a <= n; ++a)
 	  {
-		  for(int i = a; i <= sequence.size(); ++i)
+		  for(int i = a; i <= ids.length; ++i)
 		  {
-			  root.add(sequence.subList(i-a, i)); 
+			  root.add(ids, i-a, i);
 		  }
 	  }
   }
@@ -120,18 +134,22 @@ public class NgramLanguageModel<T> {
    * The result is in the range [0,1] with {@link Representation#PROBABILITY}
    * and in the range (-∞,0] with {@link Representation#LOG_PROBABILITY}.
    * 
+   * The model is not changed: n-grams never seen in training simply have a
+   * count of 0, and items never seen in training do not count towards V.
+   * 
    * @param sequence
    *          The sequence of items whose probability is to be estimated.
    * @return The estimated probability of the sequence.
    */
   public double probability(List<T> sequence)
   {
-	  int[][] prob = new int[sequence.size()][2];
+	  int[] ids = lookup(sequence);
+	  int[][] prob = new int[ids.length][2];
 	  int start = 0;
-	  for(int i = 1; i <= sequence.size(); ++i)
+	  for(int i = 1; i <= ids.length; ++i)
 	  {
 		  start = (i - n) >= 0 ? i - n : 0;
-		  prob[i-1] = root.getProbabilityData(sequence.subList(start, i));
+		  prob[i-1] = root.getProbabilityData(ids, start, i);
 	  }
 	  
 	  if(smooth == Smoothing.LAPLACE)
@@ -143,7 +161,75 @@ public class NgramLanguageModel<T> {
 		  return calcProbability(prob);
   }
   
+  /**
+   * Makes the model read-only, after which it can no longer be trained. The
+   * children of small trie nodes are packed into sorted arrays, so a frozen
+   * model also takes less memory.
+   * 
+   * A frozen model may be shared by any number of threads calling
+   * {@link #probability(List)} without locking, provided it is handed to them
+   * after this method returns through a safe publication, e.g. a final or
+   * volatile field, a concurrent collection or the start of the threads.
+   */
+  public void freeze()
+  {
+	  if(frozen)
+		  return;
+	  ids = Collections.unmodifiableMap(new HashMap<>(ids));
+	  tokens = Collections.unmodifiableList(new ArrayList<>(tokens));
+	  root.freeze();
+	  frozen = true;
+  }
+  
+  /**
+   * @return True if {@link #freeze()} has been called.
+   */
+  public boolean isFrozen()
+  {
+	  return frozen;
+  }
+  
   // additional methods
+
+  // the id of each item of a sequence, interning items not seen before
+  private int[] intern(List<T> sequence)
+  {
+	  int[] result = new int[sequence.size()];
+	  int i = 0;
+	  for(T token : sequence)
+	  {
+		  Integer id = ids.get(token);
+		  if(id == null)
+		  {
+			  id = tokens.size();
+			  ids.put(token, id);
+			  tokens.add(token);
+		  }
+		  result[i++] = id;
+	  }
+	  return result;
+  }
+
+  // the id of each item of a sequence, or -1 for items not seen before
+  private int[] lookup(List<T> sequence)
+  {
+	  int[] result = new int[sequence.size()];
+	  int i = 0;
+	  for(T token : sequence)
+	  {
+		  Integer id = ids.get(token);
+		  result[i++] = id == null ? Node.EMPTY : id;
+	  }
+	  return result;
+  }
+
+  // spreads token ids, which are assigned in sequence, over a hash table
+  private static int hash(int id)
+  {
+	  int h = id * 0x9E3779B9;
+	  return h ^ (h >>> 16);
+  }
+
   public void applyLaplaceSmoothing(int[][] prob)
   {
 	  int v = root.getV();
@@ -171,23 +257,33 @@ public class NgramLanguageModel<T> {
 	  return p;
   }
   
-  // Node stores data about gram sequences
-  class Node<S>
+  // Node stores data about gram sequences. Its children are kept in an
+  // open-addressing hash table keyed by token id, with linear probing and at
+  // most half of the slots in use, so finding a child takes O(1) probes of an
+  // int array; a node without children has no table at all. When the model is
+  // frozen, nodes with few children pack them into arrays sorted by token id,
+  // told apart from tables by having no free slots.
+  class Node
   {
-    private LinkedList<Node<S>> nodes = new LinkedList<>();
-    private Node<S> parent = null;
+    private static final int EMPTY = -1;
+    // the most children packed into a sorted array by freeze()
+    private static final int PACKED = 16;
+    
+    private Node parent = null;
     private int count = 0;
-    private S value;
+    private int id = EMPTY;
+    // the token id of the child in each slot, or EMPTY
+    private int[] keys;
+    private Node[] children;
+    private int size = 0;
     
     public Node()
     {
-    	nodes = new LinkedList<>();
     }
     
-    public Node(S val, Node<S> par)
+    public Node(int tokenId, Node par)
     {
-    	nodes = new LinkedList<>();
-    	value = val;
+    	id = tokenId;
     	parent = par;
     }
     
@@ -196,9 +292,9 @@ public class NgramLanguageModel<T> {
     	++count;
     }
     
-    public S getValue()
+    public T getValue()
     {
-    	return value;
+    	return id == EMPTY ? null : tokens.get(id);
     }
     
     public int getCount()
@@ -208,82 +304,130 @@ public class NgramLanguageModel<T> {
     
     public int getV()
     {
-    	return nodes.size();
+    	return size;
     }
     
     // returns an int array containing the count and the prefix (base) count
-    public int[] getProbabilityData(List<S> list)
+    // of the gram ids[from..to), without adding any node: grams never seen
+    // have a count of 0
+    public int[] getProbabilityData(int[] ids, int from, int to)
     {
-    	if(list.isEmpty())
-    		return getProbabilityData();
-    	
-    	Node<S> node = search(list.get(0));
-    	if(node != null)
-    		return node.getProbabilityData(list.subList(1,list.size()));
-    	
-    	node = new Node<S>(list.get(0), this);
-		nodes.add(node);
-		return node.getProbabilityData(list.subList(1,list.size()));
+    	Node prefix = null;
+    	Node node = this;
+    	for(int i = from; i < to; ++i)
+    	{
+    		prefix = node;
+    		node = node == null ? null : node.search(ids[i]);
+    	}
+    	return new int[]{node == null ? 0 : node.getCount(), prefix == null ? 0 : prefix.getCount()};
     }
-    
-    private int[] getProbabilityData()
+
+    // counts the gram ids[from..to); the root also counts every 1-gram
+    private void add(int[] ids, int from, int to)
     {
-    	return new int[]{getCount(), parent.getCount()};
+    	if(to - from == 1 && parent == null) inc();
+    	Node node = this;
+    	for(int i = from; i < to; ++i)
+    		node = node.child(ids[i]);
+    	node.inc();
     }
-
-    private void add(List<S> list, boolean inc)
+    
+    // the child for a token id, or null if there is none
+    private Node search(int tokenId)
     {
-    	if(list.size() == 1 && parent == null && inc) inc();
-    	if(list.size() == 0 && inc)
+    	if(keys == null || tokenId == EMPTY)
+    		return null;
+    	if(keys.length == size)
     	{
-    		inc();
+    		int slot = Arrays.binarySearch(keys, tokenId);
+    		return slot < 0 ? null : children[slot];
     	}
-    	else
+    	int mask = keys.length - 1;
+    	for(int slot = hash(tokenId) & mask; ; slot = (slot + 1) & mask)
     	{
-	    	Node<S> node = search(list.get(0));
-	    	if(list.size() == 1 && node == null)
-	    	{
-	    		node = new Node<S>(list.get(0), this);
-	    		nodes.add(node);
-	    		node.add(list.subList(1,list.size()));
-	    	}
-	    	else
-	    		node.add(list.subList(1,list.size()));
+    		if(keys[slot] == tokenId) return children[slot];
+    		if(keys[slot] == EMPTY) return null;
     	}
     }
     
-    private void add(List<S> list)
+    // the child for a token id, added if there is none
+    private Node child(int tokenId)
     {
-    	add(list, true);
+    	Node node = search(tokenId);
+    	if(node != null)
+    		return node;
+    	if(keys == null)
+    		resize(2);
+    	else if(2 * (size + 1) > keys.length)
+    		resize(2 * keys.length);
+    	node = new Node(tokenId, this);
+    	insert(node);
+    	++size;
+    	return node;
+    }
+    
+    private void insert(Node node)
+    {
+    	int mask = keys.length - 1;
+    	int slot = hash(node.id) & mask;
+    	while(keys[slot] != EMPTY)
+    		slot = (slot + 1) & mask;
+    	keys[slot] = node.id;
+    	children[slot] = node;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void resize(int capacity)
+    {
+    	Node[] old = children;
+    	keys = new int[capacity];
+    	Arrays.fill(keys, EMPTY);
+    	children = (Node[]) new NgramLanguageModel<?>.Node[capacity];
+    	if(old != null)
+    		for(Node node : old)
+    			if(node != null) insert(node);
     }
     
-    private Node<S> search(S val)
+    // packs the children of this node and its descendants that have at most
+    // PACKED children into sorted arrays
+    @SuppressWarnings("unchecked")
+    private void freeze()
     {
-    	Iterator<Node<S>> iter = nodes.iterator();
-    	Node<S> node;
-    	while(iter.hasNext())
+    	if(keys == null)
+    		return;
+    	if(size <= PACKED)
     	{
-    		node = iter.next();
-    		if(val.equals(node.getValue())) return node;
+    		int[] packedKeys = new int[size];
+    		Node[] packed = (Node[]) new NgramLanguageModel<?>.Node[size];
+    		int i = 0;
+    		for(Node node : children)
+    			if(node != null) packedKeys[i++] = node.id;
+    		Arrays.sort(packedKeys);
+    		for(Node node : children)
+    			if(node != null) packed[Arrays.binarySearch(packedKeys, node.id)] = node;
+    		keys = packedKeys;
+    		children = packed;
     	}
-    	return null;
+    	for(Node node : children)
+    		if(node != null) node.freeze();
     }
     
-    private Node<S> search(List<S> list)
+    private Node search(List<T> list)
     {
-    	if(list.isEmpty())
-    		return this;
-    	
-    	Node<S> node = search(list.get(0));
-    	if(!list.isEmpty() && node != null)
-    		return node.search(list.subList(1,list.size()));
-    	
-    	return null;
+    	Node node = this;
+    	for(T token : list)
+    	{
+    		Integer tokenId = ids.get(token);
+    		node = tokenId == null ? null : node.search(tokenId);
+    		if(node == null)
+    			return null;
+    	}
+    	return node;
     }
     
-    public String getSequence(List<S> list)
+    public String getSequence(List<T> list)
     {
-    	Node<S> node = search(list);
+    	Node node = search(list);
     	if(node != null)
     		return node.getSequence();
     	return "Not Found";
@@ -302,24 +446,19 @@ public class NgramLanguageModel<T> {
     		System.out.println(getSequence() + ", Count: " + getCount() + 
     				", Parent V: " + parent.getV() + ", V: " + getV());
     	
-    	Iterator<Node<S>> iter = nodes.iterator();
-    	while(iter.hasNext())
-    	{
-    		iter.next().printMap();
-    	}
+    	if(children != null)
+    		for(Node node : children)
+    			if(node != null) node.printMap();
     }
     
     public void printMap(String seq, String data)
     {
-    	if(parent != null) seq = seq + value;
+    	if(parent != null) seq = seq + getValue();
     	if(getV() == 0) System.out.println("Sequence: " + seq);
     	else
     	{
-	    	Iterator<Node<S>> iter = nodes.iterator();
-	    	while(iter.hasNext())
-	    	{
-	    		iter.next().printMap(seq,data);
-	    	}
+    		for(Node node : children)
+    			if(node != null) node.printMap(seq,data);
     	}
     }
     
@@ -4,6 +4,12 @@ import static com.google.common.collect.Lists.charactersOf;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -71,4 +77,88 @@ public class NgramLanguageModelTest {
         (1.0),
         model.probability(Arrays.asList()), 1e-10);
   }
+
+  @Test(timeout = 10000)
+  public void testLargeVocabulary() {
+    NgramLanguageModel<Integer> model =
+        new NgramLanguageModel<>(3, Representation.PROBABILITY, Smoothing.LAPLACE);
+    // 200,000 distinct items, each seen 5 times, always in the same order
+    List<Integer> sequence = new ArrayList<>();
+    for (int i = 0; i < 1000000; ++i) {
+      sequence.add(i % 200000);
+    }
+    model.train(sequence);
+    Assert.assertEquals(
+        (6.0 / 1200000.0) * (6.0 / 200005.0) * (6.0 / 200005.0),
+        model.probability(Arrays.asList(7, 8, 9)), 1e-20);
+    Assert.assertEquals(
+        (6.0 / 1200000.0) * (1.0 / 200005.0),
+        model.probability(Arrays.asList(7, 9)), 1e-20);
+  }
+
+  @Test(timeout = 10000)
+  public void testProbabilityDoesNotChangeModel() {
+    NgramLanguageModel<Character> model =
+        new NgramLanguageModel<>(2, Representation.PROBABILITY, Smoothing.LAPLACE);
+    model.train(charactersOf("babbaaaa"));
+    // 'c' was never seen, so V stays 2 however often it is scored
+    for (int i = 0; i < 3; ++i) {
+      Assert.assertEquals((1.0 / 10.0) * (1.0 / 2.0) * (1.0 / 2.0),
+          model.probability(charactersOf("ccc")), 1e-10);
+      Assert.assertEquals((6.0 / 10.0) * (1.0 / 7.0) * (1.0 / 2.0),
+          model.probability(charactersOf("acb")), 1e-10);
+    }
+    Assert.assertEquals((6.0 / 10.0) * (4.0 / 7.0) * (4.0 / 7.0) * (4.0 / 7.0) * (2.0 / 7.0)
+        * (2.0 / 5.0), model.probability(charactersOf("aaaabb")), 1e-10);
+  }
+
+  @Test(timeout = 10000)
+  public void testFrozenModelSharedByThreads() throws Exception {
+    final NgramLanguageModel<Integer> model =
+        new NgramLanguageModel<>(3, Representation.LOG_PROBABILITY, Smoothing.LAPLACE);
+    Random random = new Random(4);
+    List<Integer> sequence = new ArrayList<>();
+    for (int i = 0; i < 50000; ++i) {
+      sequence.add(random.nextInt(random.nextBoolean() ? 10 : 1000));
+    }
+    model.train(sequence);
+    final List<List<Integer>> queries = new ArrayList<>();
+    List<Double> expected = new ArrayList<>();
+    for (int i = 0; i < 200; ++i) {
+      int start = random.nextInt(sequence.size() - 20);
+      List<Integer> query = new ArrayList<>(sequence.subList(start, start + 20));
+      query.set(random.nextInt(20), 5000 + i);
+      queries.add(query);
+      expected.add(model.probability(query));
+    }
+    model.freeze();
+    Assert.assertTrue(model.isFrozen());
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<List<Double>>> results = new ArrayList<>();
+      for (int thread = 0; thread < 4; ++thread) {
+        results.add(executor.submit(new Callable<List<Double>>() {
+          @Override
+          public List<Double> call() {
+            List<Double> scores = new ArrayList<>();
+            for (List<Integer> query : queries) {
+              scores.add(model.probability(query));
+            }
+            return scores;
+          }
+        }));
+      }
+      for (Future<List<Double>> result : results) {
+        Assert.assertEquals(expected, result.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+    try {
+      model.train(Arrays.asList(1, 2, 3));
+      Assert.fail("Expected a frozen model to refuse training");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+  }
 }
@@ -0,0 +1,63 @@
+package edu.uab.cis.search.maze.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.uab.cis.search.maze.BidirectionalEngine;
+import edu.uab.cis.search.maze.Maze;
+import edu.uab.cis.search.maze.SearchEngine;
+import edu.uab.cis.search.maze.Solver;
+
+/**
+ * Compares unidirectional A* with {@link BidirectionalEngine} on repeated
+ * corner-to-corner searches of one engine, as the maze doubles in size. The
+ * serpentine {@code CORRIDOR} layout is the case where searching from both
+ * ends gains the least.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class BidirectionalBenchmark {
+
+  @Param({ "100", "200", "400", "800", "1600" })
+  public int size;
+
+  @Param({ "0.2" })
+  public double density;
+
+  @Param({ "RANDOM", "CORRIDOR" })
+  public MazeLayout layout;
+
+  @Param({ "A_STAR", "BIDIRECTIONAL" })
+  public Solver.Mode mode;
+
+  private Maze maze;
+  private SearchEngine engine;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    this.maze = this.layout.create(this.size, this.density, 42);
+    this.engine = this.mode.createEngine(this.maze);
+  }
+
+  @Benchmark
+  public int search() {
+    this.engine.search(this.maze.getStart(), this.maze.getGoal());
+    return this.engine.getPathLength();
+  }
+}
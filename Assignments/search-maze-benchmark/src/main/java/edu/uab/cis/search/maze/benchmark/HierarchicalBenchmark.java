@@ -0,0 +1,96 @@
+package edu.uab.cis.search.maze.benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.Lists;
+
+import edu.uab.cis.search.maze.AStarEngine;
+import edu.uab.cis.search.maze.HierarchicalPathfinder;
+import edu.uab.cis.search.maze.Maze;
+import edu.uab.cis.search.maze.PathQuery;
+import edu.uab.cis.search.maze.SearchEngine;
+import edu.uab.cis.search.maze.Square;
+
+/**
+ * Compares {@link HierarchicalPathfinder} with {@link AStarEngine} on random
+ * queries that have a path, and measures the preprocessing the pathfinder
+ * needs to build its abstract graph. Each engine is created once, and
+ * {@code query} answers the next of a fixed set of queries on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class HierarchicalBenchmark {
+
+  private static final int QUERIES = 64;
+
+  @Param({ "250", "500", "1000", "2000" })
+  public int size;
+
+  @Param({ "0.2" })
+  public double density;
+
+  @Param({ "RANDOM" })
+  public MazeLayout layout;
+
+  @Param({ "32" })
+  public int clusterSize;
+
+  @Param({ "A_STAR", "HIERARCHICAL" })
+  public String engine;
+
+  private Maze maze;
+  private SearchEngine search;
+  private PathQuery[] queries;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    this.maze = this.layout.create(this.size, this.density, 42);
+    AStarEngine astar = new AStarEngine(this.maze);
+    Random random = new Random(this.size);
+    List<PathQuery> queries = Lists.newArrayList();
+    while (queries.size() < QUERIES) {
+      Square start = new Square(random.nextInt(this.size), random.nextInt(this.size));
+      Square goal = new Square(random.nextInt(this.size), random.nextInt(this.size));
+      if (astar.search(start, goal)) {
+        queries.add(new PathQuery(start, goal));
+      }
+    }
+    this.queries = queries.toArray(new PathQuery[QUERIES]);
+    this.search = this.engine.equals("HIERARCHICAL") ? new HierarchicalPathfinder(this.maze, this.clusterSize)
+        : astar;
+  }
+
+  @Benchmark
+  public int query() {
+    PathQuery query = this.queries[this.next];
+    this.next = (this.next + 1) % QUERIES;
+    this.search.search(query.getStart(), query.getGoal());
+    return this.search.getPathLength();
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int preprocess() {
+    return new HierarchicalPathfinder(this.maze, this.clusterSize).getAbstractNodeCount();
+  }
+}
@@ -0,0 +1,75 @@
+package edu.uab.cis.search.maze.benchmark;
+
+import edu.uab.cis.search.maze.Maze;
+import edu.uab.cis.search.maze.MazeGenerator;
+
+/**
+ * The kinds of maps the solvers are benchmarked on. Every layout is square,
+ * starts in the top-left corner and ends in the bottom-right corner.
+ */
+public enum MazeLayout {
+
+  /**
+   * No obstacles at all; the obstacle density is ignored.
+   */
+  OPEN {
+    @Override
+    public Maze create(int size, double density, long seed) {
+      return MazeGenerator.random(size, size, 0, seed);
+    }
+  },
+
+  /**
+   * Obstacles scattered uniformly at random with the given density.
+   */
+  RANDOM {
+    @Override
+    public Maze create(int size, double density, long seed) {
+      return MazeGenerator.random(size, size, density, seed);
+    }
+  },
+
+  /**
+   * A single serpentine corridor through the whole maze; the obstacle density
+   * is ignored.
+   */
+  CORRIDOR {
+    @Override
+    public Maze create(int size, double density, long seed) {
+      return MazeGenerator.corridor(size, size);
+    }
+  },
+
+  /**
+   * A floor plan of empty 49 x 49 rooms joined by single doors; the obstacle
+   * density is ignored.
+   */
+  ROOMS {
+    @Override
+    public Maze create(int size, double density, long seed) {
+      return MazeGenerator.rooms(size, size, 49, seed);
+    }
+  },
+
+  /**
+   * Random obstacles with a wall between the start and the goal, so every
+   * search fails after exhausting the start's half of the maze.
+   */
+  NO_PATH {
+    @Override
+    public Maze create(int size, double density, long seed) {
+      return MazeGenerator.noPath(size, size, density, seed);
+    }
+  };
+
+  /**
+   * @param size
+   *          The number of rows and of columns of the maze.
+   * @param density
+   *          The obstacle density, for layouts with random obstacles.
+   * @param seed
+   *          The seed for the random number generator.
+   * @return A new maze with this layout.
+   */
+  public abstract Maze create(int size, double density, long seed);
+}
@@ -0,0 +1,70 @@
+package edu.uab.cis.search.maze.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.uab.cis.search.maze.Maze;
+import edu.uab.cis.search.maze.SmaStarEngine;
+import edu.uab.cis.search.maze.Solver;
+
+/**
+ * Compares the memory-bounded solver modes, {@link Solver.Mode#IDA_STAR} and
+ * {@link Solver.Mode#SMA_STAR}, with {@link Solver.Mode#A_STAR}. Run with
+ * {@code -prof gc}: the allocation per solve is the memory each mode needs,
+ * while the time per solve shows what the memory bound costs. SMA* is given a
+ * node budget of a fraction of the squares of the maze.
+ *
+ * Sizes are kept small because IDA* re-expands squares exponentially often as
+ * obstacles force detours.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MemoryBoundedBenchmark {
+
+  @Param({ "16", "32", "64" })
+  public int size;
+
+  @Param({ "0.1", "0.2" })
+  public double density;
+
+  @Param({ "OPEN", "RANDOM" })
+  public MazeLayout layout;
+
+  @Param({ "A_STAR", "IDA_STAR", "SMA_STAR" })
+  public Solver.Mode mode;
+
+  @Param({ "0.25" })
+  public double budget;
+
+  private Maze maze;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    this.maze = this.layout.create(this.size, this.density, 42);
+  }
+
+  @Benchmark
+  public Solver solve() {
+    if (this.mode == Solver.Mode.SMA_STAR) {
+      int nodes = (int) Math.max(5, this.budget * this.size * this.size);
+      return new Solver(new SmaStarEngine(this.maze, nodes));
+    }
+    return new Solver(this.maze, this.mode);
+  }
+}
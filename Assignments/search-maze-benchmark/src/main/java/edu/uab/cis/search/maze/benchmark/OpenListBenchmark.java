@@ -0,0 +1,72 @@
+package edu.uab.cis.search.maze.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.uab.cis.search.maze.AStarEngine;
+import edu.uab.cis.search.maze.BucketOpenList;
+import edu.uab.cis.search.maze.IndexedMinHeap;
+import edu.uab.cis.search.maze.Maze;
+
+/**
+ * Compares the open lists of {@link AStarEngine}: the binary
+ * {@link IndexedMinHeap} against the {@link BucketOpenList}. Both explore the
+ * same squares in the same order, so the difference is the cost of the open
+ * list alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class OpenListBenchmark {
+
+  /**
+   * The open list used by the engine.
+   */
+  public enum OpenListKind {
+    HEAP, BUCKET
+  }
+
+  @Param({ "1000", "4000" })
+  public int size;
+
+  @Param({ "0.2", "0.3" })
+  public double density;
+
+  @Param({ "OPEN", "RANDOM", "NO_PATH" })
+  public MazeLayout layout;
+
+  @Param({ "HEAP", "BUCKET" })
+  public OpenListKind openList;
+
+  private Maze maze;
+  private AStarEngine engine;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    this.maze = this.layout.create(this.size, this.density, 42);
+    int cells = this.size * this.size;
+    this.engine = new AStarEngine(this.maze, null, this.openList == OpenListKind.HEAP ? new IndexedMinHeap(cells)
+        : new BucketOpenList(cells));
+  }
+
+  @Benchmark
+  public int search() {
+    this.engine.search(this.maze.getStart(), this.maze.getGoal());
+    return this.engine.getPathLength();
+  }
+}
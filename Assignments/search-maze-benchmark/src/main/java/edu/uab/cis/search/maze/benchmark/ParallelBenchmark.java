@@ -0,0 +1,63 @@
+package edu.uab.cis.search.maze.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.uab.cis.search.maze.AStarEngine;
+import edu.uab.cis.search.maze.Maze;
+import edu.uab.cis.search.maze.ParallelAStarEngine;
+import edu.uab.cis.search.maze.SearchEngine;
+
+/**
+ * Measures the speedup of a single query with {@link ParallelAStarEngine} as
+ * the number of worker threads grows. {@code threads=0} runs the sequential
+ * {@link AStarEngine} as the baseline. Each engine is created once, so only
+ * the search itself (including starting the worker threads) is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class ParallelBenchmark {
+
+  @Param({ "4000" })
+  public int size;
+
+  @Param({ "0.2", "0.3" })
+  public double density;
+
+  @Param({ "RANDOM" })
+  public MazeLayout layout;
+
+  @Param({ "0", "1", "2", "4", "8" })
+  public int threads;
+
+  private Maze maze;
+  private SearchEngine engine;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    this.maze = this.layout.create(this.size, this.density, 42);
+    this.engine = this.threads == 0 ? new AStarEngine(this.maze) : new ParallelAStarEngine(this.maze, this.threads);
+  }
+
+  @Benchmark
+  public int search() {
+    this.engine.search(this.maze.getStart(), this.maze.getGoal());
+    return this.engine.getPathLength();
+  }
+}
@@ -0,0 +1,68 @@
+package edu.uab.cis.search.maze.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.uab.cis.search.maze.Maze;
+import edu.uab.cis.search.maze.RectangleDecomposition;
+import edu.uab.cis.search.maze.RsrEngine;
+import edu.uab.cis.search.maze.SearchEngine;
+import edu.uab.cis.search.maze.Solver;
+
+/**
+ * Compares Rectangular Symmetry Reduction ({@link RsrEngine}) with A* and jump
+ * point search on repeated searches of one engine, and measures the
+ * preprocessing it needs, the {@link RectangleDecomposition} of the maze.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class RectangleBenchmark {
+
+  @Param({ "1000", "4000" })
+  public int size;
+
+  @Param({ "0.2" })
+  public double density;
+
+  @Param({ "OPEN", "RANDOM", "ROOMS" })
+  public MazeLayout layout;
+
+  @Param({ "A_STAR", "JUMP_POINT", "RSR" })
+  public Solver.Mode mode;
+
+  private Maze maze;
+  private SearchEngine engine;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    this.maze = this.layout.create(this.size, this.density, 42);
+    this.engine = this.mode.createEngine(this.maze);
+  }
+
+  @Benchmark
+  public int search() {
+    this.engine.search(this.maze.getStart(), this.maze.getGoal());
+    return this.engine.getPathLength();
+  }
+
+  @Benchmark
+  public int decompose() {
+    return RectangleDecomposition.build(this.maze).getRectangleCount();
+  }
+}
@@ -0,0 +1,70 @@
+package edu.uab.cis.search.maze.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.uab.cis.search.maze.Maze;
+import edu.uab.cis.search.maze.SearchEngine;
+import edu.uab.cis.search.maze.Solver;
+
+/**
+ * Measures {@link Solver} over generated mazes of several sizes, obstacle
+ * densities and layouts.
+ *
+ * {@link #solve()} is a complete solve as a caller sees it: a new solver,
+ * with its search state, path and explored squares. {@link #search()} repeats
+ * the search on one engine, isolating the search itself from allocating the
+ * search state. Both are reported as throughput and as sampled latency, whose
+ * percentiles JMH prints; run with {@code -prof gc} for allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class SolverBenchmark {
+
+  @Param({ "100", "1000", "4000" })
+  public int size;
+
+  @Param({ "0.0", "0.2", "0.4" })
+  public double density;
+
+  @Param({ "OPEN", "RANDOM", "CORRIDOR", "NO_PATH" })
+  public MazeLayout layout;
+
+  @Param({ "A_STAR", "JUMP_POINT", "BIDIRECTIONAL" })
+  public Solver.Mode mode;
+
+  private Maze maze;
+  private SearchEngine engine;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    this.maze = this.layout.create(this.size, this.density, 42);
+    this.engine = this.mode.createEngine(this.maze);
+  }
+
+  @Benchmark
+  public Solver solve() {
+    return new Solver(this.maze, this.mode);
+  }
+
+  @Benchmark
+  public boolean search() {
+    return this.engine.search(this.maze.getStart(), this.maze.getGoal());
+  }
+}
@@ -0,0 +1,302 @@
+package edu.uab.cis.search.maze;
+
+import java.util.Arrays;
+
+/**
+ * A reusable A* search over a single maze, using the same L1 heuristic and
+ * ordering of squares as {@link Solver}.
+ *
+ * All search state lives in primitive arrays sized to the maze when the engine
+ * is created. Instead of clearing those arrays, each search stamps the cells
+ * it touches with a new generation number, so that repeated queries against
+ * the same maze create no garbage. An engine is not thread-safe; use one
+ * engine per thread.
+ *
+ * Searches are only counted when a {@link SearchListener} is attached, which
+ * is checked once per search.
+ *
+ * The L1 heuristic may be replaced by another {@link Heuristic}, such as
+ * {@link Landmarks}; squares are then ordered by that heuristic's h(x). The
+ * open list is an {@link IndexedMinHeap} unless another {@link OpenList},
+ * such as a {@link BucketOpenList}, is given; either way squares are explored
+ * in the same order.
+ */
+public class AStarEngine implements SearchEngine {
+
+  private static final int NO_PARENT = -1;
+
+  private Maze maze;
+  private int rows;
+  private int columns;
+  private int[] g;
+  private int[] parent;
+  // generation in which a cell's g and parent were last set
+  private int[] reached;
+  // generation in which a cell was last expanded
+  private int[] closed;
+  private OpenList open;
+  // expanded cells of the last search, in order of expansion
+  private int[] explored;
+  private int exploredCount;
+  private int generation;
+  private int startCell;
+  private int goalCell;
+  private boolean found;
+  // null for the L1 heuristic, which is computed inline
+  private Heuristic heuristic;
+  // null unless unreachable goals are to be rejected without searching
+  private ComponentIndex components;
+  private SearchListener listener = SearchListener.NONE;
+  private SearchCounters counters = new SearchCounters();
+  // whether the current search reports to a listener
+  private boolean counting;
+
+  /**
+   * Creates a search engine for the given maze.
+   *
+   * @param maze
+   *          The maze to be searched. Only its obstacles are used; the start
+   *          and goal are given to each search.
+   */
+  public AStarEngine(Maze maze) {
+    this(maze, null);
+  }
+
+  /**
+   * Creates a search engine for the given maze that uses the given heuristic.
+   *
+   * @param maze
+   *          The maze to be searched. Only its obstacles are used; the start
+   *          and goal are given to each search.
+   * @param heuristic
+   *          The heuristic for the maze, or null for the L1 heuristic.
+   */
+  public AStarEngine(Maze maze, Heuristic heuristic) {
+    this(maze, heuristic, new IndexedMinHeap(maze.getRows() * maze.getColumns()));
+  }
+
+  /**
+   * Creates a search engine for the given maze that uses the given heuristic
+   * and open list.
+   *
+   * @param maze
+   *          The maze to be searched. Only its obstacles are used; the start
+   *          and goal are given to each search.
+   * @param heuristic
+   *          The heuristic for the maze, or null for the L1 heuristic.
+   * @param open
+   *          An empty open list for the cell ids of the maze, which the engine
+   *          takes over.
+   */
+  public AStarEngine(Maze maze, Heuristic heuristic, OpenList open) {
+    this.maze = maze;
+    this.heuristic = heuristic;
+    this.rows = maze.getRows();
+    this.columns = maze.getColumns();
+    int cells = this.rows * this.columns;
+    this.g = new int[cells];
+    this.parent = new int[cells];
+    this.reached = new int[cells];
+    this.closed = new int[cells];
+    this.open = open;
+    this.explored = new int[cells];
+  }
+
+  @Override
+  public Maze getMaze() {
+    return this.maze;
+  }
+
+  @Override
+  public void setSearchListener(SearchListener listener) {
+    this.listener = listener;
+  }
+
+  /**
+   * Makes every later search first check whether the goal is reachable at
+   * all, so that a search for an unreachable goal returns at once rather than
+   * exploring every square reachable from the start.
+   *
+   * @param components
+   *          The components of the maze, or null to stop checking.
+   */
+  public void setComponentIndex(ComponentIndex components) {
+    if (components != null && components.getMaze() != this.maze) {
+      throw new IllegalArgumentException("Component index is for another maze");
+    }
+    this.components = components;
+  }
+
+  @Override
+  public boolean search(Square start, Square goal) {
+    return this.search(start.getRow(), start.getColumn(), goal.getRow(), goal.getColumn());
+  }
+
+  /**
+   * Searches for a path between the given squares.
+   *
+   * @param startRow
+   *          The row of the square where the path begins.
+   * @param startColumn
+   *          The column of the square where the path begins.
+   * @param goalRow
+   *          The row of the square where the path ends.
+   * @param goalColumn
+   *          The column of the square where the path ends.
+   * @return True if a path exists, false if not (including when the start or
+   *         the goal is blocked).
+   */
+  public boolean search(int startRow, int startColumn, int goalRow, int goalColumn) {
+    if (this.listener == SearchListener.NONE) {
+      this.counting = false;
+      return this.run(startRow, startColumn, goalRow, goalColumn);
+    }
+    this.counting = true;
+    this.counters.begin();
+    boolean result = this.run(startRow, startColumn, goalRow, goalColumn);
+    this.listener.searchFinished(this.counters.finish(new Square(startRow, startColumn), new Square(goalRow,
+        goalColumn), result, this.getPathLength(), this.exploredCount));
+    return result;
+  }
+
+  private boolean run(int startRow, int startColumn, int goalRow, int goalColumn) {
+    this.nextGeneration();
+    this.exploredCount = 0;
+    this.found = false;
+    this.startCell = NO_PARENT;
+    this.goalCell = NO_PARENT;
+    if (this.maze.isBlocked(startRow, startColumn) || this.maze.isBlocked(goalRow, goalColumn)) {
+      return false;
+    }
+    this.startCell = this.maze.getCell(startRow, startColumn);
+    this.goalCell = this.maze.getCell(goalRow, goalColumn);
+    if (this.components != null && !this.components.isConnected(this.startCell, this.goalCell)) {
+      return false;
+    }
+
+    int gen = this.generation;
+    int h = this.heuristic == null ? Math.abs(goalRow - startRow) + Math.abs(goalColumn - startColumn)
+        : this.heuristic.estimate(this.startCell, this.goalCell);
+    this.reached[this.startCell] = gen;
+    this.g[this.startCell] = 0;
+    this.parent[this.startCell] = NO_PARENT;
+    this.open.insert(this.startCell, h, h);
+    if (this.counting) {
+      this.counters.generated();
+      this.counters.heuristicEvaluated();
+      this.counters.openSize(1);
+    }
+
+    while (!this.open.isEmpty()) {
+      int cell = this.open.poll();
+      this.closed[cell] = gen;
+      this.explored[this.exploredCount++] = cell;
+      if (cell == this.goalCell) {
+        this.found = true;
+        break;
+      }
+      int row = cell / this.columns;
+      int column = cell - row * this.columns;
+      int cost = this.g[cell] + 1;
+      this.relax(cell, cost, row - 1, column, goalRow, goalColumn);
+      this.relax(cell, cost, row + 1, column, goalRow, goalColumn);
+      this.relax(cell, cost, row, column + 1, goalRow, goalColumn);
+      this.relax(cell, cost, row, column - 1, goalRow, goalColumn);
+    }
+    this.open.clear();
+    return this.found;
+  }
+
+  private void relax(int from, int cost, int row, int column, int goalRow, int goalColumn) {
+    if (this.maze.isBlocked(row, column)) {
+      return;
+    }
+    int cell = row * this.columns + column;
+    int gen = this.generation;
+    if (this.counting) {
+      this.counters.generated();
+    }
+    if (this.closed[cell] == gen) {
+      if (this.counting) {
+        this.counters.duplicateSkipped();
+      }
+      return;
+    }
+    if (this.reached[cell] != gen) {
+      int h = this.estimate(cell, row, column, goalRow, goalColumn);
+      this.reached[cell] = gen;
+      this.g[cell] = cost;
+      this.parent[cell] = from;
+      this.open.insert(cell, cost + h, h);
+      if (this.counting) {
+        this.counters.heuristicEvaluated();
+        this.counters.openSize(this.open.size());
+      }
+    } else if (cost < this.g[cell]) {
+      int h = this.estimate(cell, row, column, goalRow, goalColumn);
+      this.g[cell] = cost;
+      this.parent[cell] = from;
+      this.open.decreaseKey(cell, cost + h, h);
+      if (this.counting) {
+        this.counters.heuristicEvaluated();
+      }
+    } else if (this.counting) {
+      this.counters.duplicateSkipped();
+    }
+  }
+
+  private int estimate(int cell, int row, int column, int goalRow, int goalColumn) {
+    if (this.heuristic == null) {
+      return Math.abs(goalRow - row) + Math.abs(goalColumn - column);
+    }
+    return this.heuristic.estimate(cell, this.goalCell);
+  }
+
+  private void nextGeneration() {
+    if (this.generation == Integer.MAX_VALUE) {
+      Arrays.fill(this.reached, 0);
+      Arrays.fill(this.closed, 0);
+      this.generation = 0;
+    }
+    ++this.generation;
+  }
+
+  /**
+   * @return True if the last search found a path.
+   */
+  public boolean isPathFound() {
+    return this.found;
+  }
+
+  @Override
+  public int getPathLength() {
+    return this.found ? this.g[this.goalCell] + 1 : 0;
+  }
+
+  @Override
+  public int getPath(int[] cells) {
+    int length = this.getPathLength();
+    int cell = this.goalCell;
+    for (int index = length - 1; index >= 0; --index) {
+      cells[index] = cell;
+      cell = this.parent[cell];
+    }
+    return length;
+  }
+
+  @Override
+  public CompactPath getCompactPath() {
+    return CompactPath.fromParents(this.goalCell, this.parent, this.getPathLength(), this.columns);
+  }
+
+  @Override
+  public int getExploredCount() {
+    return this.exploredCount;
+  }
+
+  @Override
+  public int getExplored(int[] cells) {
+    System.arraycopy(this.explored, 0, cells, 0, this.exploredCount);
+    return this.exploredCount;
+  }
+}
@@ -0,0 +1,403 @@
+package edu.uab.cis.search.maze;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An anytime search over a single maze, using Anytime Repairing A* (ARA*).
+ *
+ * The search first finds a path with weighted A*, ordering squares by
+ * f(x) = g(x) + w * h(x) for a weight w &gt; 1, which usually finds a path
+ * much faster than A* at the price of a path up to w times longer than the
+ * shortest. It then lowers w step by step, each time repairing the previous
+ * search rather than starting over (only squares whose g(x) improved since
+ * they were expanded are expanded again), until w reaches 1 and the path is
+ * the shortest, or until the deadline given to
+ * {@link #search(Square, Square, long, TimeUnit)} passes.
+ *
+ * The best path found so far and a bound on its suboptimality are published
+ * after every step, and may be read from any thread at any time, including
+ * while a search is running. Weights are rounded to multiples of 1/16. As for
+ * {@link AStarEngine}, the search state lives in primitive arrays stamped with
+ * a generation number per search, and only one thread may search at a time.
+ */
+public class AnytimeEngine implements SearchEngine {
+
+  private static final int NONE = -1;
+
+  // weights are fixed-point numbers with this denominator
+  private static final int SCALE = 16;
+
+  // expansions between checks of the deadline
+  private static final int CHECK_INTERVAL = 256;
+
+  private static final Solution UNKNOWN = new Solution(new int[0], Double.POSITIVE_INFINITY, Double.NaN, false);
+
+  private static final Solution NO_PATH = new Solution(new int[0], Double.POSITIVE_INFINITY, Double.NaN, true);
+
+  private Maze maze;
+  private int columns;
+  private int initialWeight;
+  private int weightStep;
+  private int[] g;
+  private int[] parent;
+  // generation in which a cell's g and parent were last set
+  private int[] reached;
+  // generation in which a cell was first expanded, for the explored squares
+  private int[] expanded;
+  // step in which a cell was last expanded
+  private int[] closed;
+  // step in which a cell was last added to the inconsistent list
+  private int[] inconsistent;
+  private IndexedMinHeap open;
+  // cells whose g improved after they were expanded in the current step
+  private int[] pending;
+  private int pendingCount;
+  private int[] explored;
+  private int exploredCount;
+  private int generation;
+  private int step;
+  private int goalRow;
+  private int goalColumn;
+  private int goalCell;
+  private volatile Solution solution = UNKNOWN;
+
+  /**
+   * Creates an anytime search engine that starts with a weight of 2.5 and
+   * lowers it by 0.5 at each step.
+   *
+   * @param maze
+   *          The maze to be searched. Only its obstacles are used; the start
+   *          and goal are given to each search.
+   */
+  public AnytimeEngine(Maze maze) {
+    this(maze, 2.5, 0.5);
+  }
+
+  /**
+   * Creates an anytime search engine.
+   *
+   * @param maze
+   *          The maze to be searched. Only its obstacles are used; the start
+   *          and goal are given to each search.
+   * @param initialWeight
+   *          The weight w of the first search, at least 1.
+   * @param weightStep
+   *          The amount by which w is lowered after each step, at least 1/16.
+   */
+  public AnytimeEngine(Maze maze, double initialWeight, double weightStep) {
+    if (initialWeight < 1) {
+      throw new IllegalArgumentException("Initial weight must be at least 1, found " + initialWeight);
+    }
+    if (weightStep * SCALE < 1) {
+      throw new IllegalArgumentException("Weight step must be at least 1/" + SCALE + ", found " + weightStep);
+    }
+    int rows = maze.getRows();
+    this.maze = maze;
+    this.columns = maze.getColumns();
+    this.initialWeight = (int) Math.round(initialWeight * SCALE);
+    this.weightStep = (int) Math.round(weightStep * SCALE);
+    int cells = rows * this.columns;
+    // the largest f(x) must fit the keys of the open list
+    if ((long) (cells + rows + this.columns) * (SCALE + this.initialWeight) > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Maze is too large for an initial weight of " + initialWeight);
+    }
+    this.g = new int[cells];
+    this.parent = new int[cells];
+    this.reached = new int[cells];
+    this.expanded = new int[cells];
+    this.closed = new int[cells];
+    this.inconsistent = new int[cells];
+    this.open = new IndexedMinHeap(cells);
+    this.pending = new int[16];
+    this.explored = new int[cells];
+  }
+
+  @Override
+  public Maze getMaze() {
+    return this.maze;
+  }
+
+  /**
+   * Searches for a path between the given squares without a deadline, i.e.
+   * until the shortest path is found.
+   */
+  @Override
+  public boolean search(Square start, Square goal) {
+    return this.search(start, goal, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Searches for a path between the given squares, improving it until it is
+   * the shortest path or until the timeout expires, whichever comes first.
+   * The deadline is checked every few hundred expansions, so the search may
+   * overrun it slightly.
+   *
+   * @param start
+   *          The square where the path begins.
+   * @param goal
+   *          The square where the path ends.
+   * @param timeout
+   *          The longest time to search.
+   * @param unit
+   *          The unit of the timeout.
+   * @return True if a path was found in time, false if not (including when no
+   *         path exists; see {@link #isOptimal()} to tell the two apart).
+   */
+  public boolean search(Square start, Square goal, long timeout, TimeUnit unit) {
+    long begin = System.nanoTime();
+    long budget = unit.toNanos(timeout);
+    this.nextGeneration();
+    this.exploredCount = 0;
+    this.pendingCount = 0;
+    this.solution = UNKNOWN;
+    if (this.maze.isBlocked(start) || this.maze.isBlocked(goal)) {
+      this.solution = NO_PATH;
+      return false;
+    }
+    this.goalRow = goal.getRow();
+    this.goalColumn = goal.getColumn();
+    this.goalCell = this.maze.getCell(this.goalRow, this.goalColumn);
+    int startCell = this.maze.getCell(start.getRow(), start.getColumn());
+    int weight = this.initialWeight;
+    int gen = this.generation;
+    this.reached[startCell] = gen;
+    this.g[startCell] = 0;
+    this.parent[startCell] = NONE;
+    int h = this.heuristic(startCell);
+    this.open.insert(startCell, weight * h, h);
+
+    while (this.improvePath(weight, begin, budget)) {
+      if (this.reached[this.goalCell] != gen) {
+        // the open list ran dry without reaching the goal
+        this.solution = NO_PATH;
+        break;
+      }
+      // every square in the open or inconsistent lists bounds the optimal cost
+      while (!this.open.isEmpty()) {
+        this.addPending(this.open.poll());
+      }
+      int[] path = this.tracePath();
+      int cost = path.length - 1;
+      int lowerBound = this.g[this.goalCell];
+      for (int index = 0; index < this.pendingCount; ++index) {
+        int cell = this.pending[index];
+        lowerBound = Math.min(lowerBound, this.g[cell] + this.heuristic(cell));
+      }
+      double bound = Math.min((double) weight / SCALE, lowerBound == 0 ? 1 : (double) cost / lowerBound);
+      boolean optimal = weight == SCALE || bound <= 1;
+      this.solution = new Solution(path, Math.max(1, bound), (double) weight / SCALE, optimal);
+      if (optimal || System.nanoTime() - begin >= budget) {
+        break;
+      }
+
+      // lower the weight, then repair the search from the inconsistent squares
+      weight = Math.max(SCALE, weight - this.weightStep);
+      this.nextStep();
+      for (int index = 0; index < this.pendingCount; ++index) {
+        int cell = this.pending[index];
+        int cellH = this.heuristic(cell);
+        this.open.insert(cell, this.g[cell] * SCALE + weight * cellH, cellH);
+      }
+      this.pendingCount = 0;
+    }
+    this.open.clear();
+    this.pendingCount = 0;
+    return this.solution.cells.length > 0;
+  }
+
+  // expands squares until the goal's f(x) is the lowest; false if out of time
+  private boolean improvePath(int weight, long begin, long budget) {
+    int gen = this.generation;
+    int step = this.step;
+    int expansions = 0;
+    while (!this.open.isEmpty()) {
+      int cell = this.open.peek();
+      if (this.reached[this.goalCell] == gen && (long) this.g[this.goalCell] * SCALE <= this.open.getF(cell)) {
+        return true;
+      }
+      this.open.poll();
+      this.closed[cell] = step;
+      if (this.expanded[cell] != gen) {
+        this.expanded[cell] = gen;
+        this.explored[this.exploredCount++] = cell;
+      }
+      if (++expansions % CHECK_INTERVAL == 0 && System.nanoTime() - begin >= budget) {
+        return false;
+      }
+      int row = cell / this.columns;
+      int column = cell - row * this.columns;
+      int cost = this.g[cell] + 1;
+      this.relax(cell, cost, row - 1, column, weight);
+      this.relax(cell, cost, row + 1, column, weight);
+      this.relax(cell, cost, row, column + 1, weight);
+      this.relax(cell, cost, row, column - 1, weight);
+    }
+    return true;
+  }
+
+  private void relax(int from, int cost, int row, int column, int weight) {
+    if (this.maze.isBlocked(row, column)) {
+      return;
+    }
+    int cell = row * this.columns + column;
+    int gen = this.generation;
+    if (this.reached[cell] == gen && cost >= this.g[cell]) {
+      return;
+    }
+    this.reached[cell] = gen;
+    this.g[cell] = cost;
+    this.parent[cell] = from;
+    if (this.closed[cell] == this.step) {
+      // not expanded again in this step, but queued for the next one
+      if (this.inconsistent[cell] != this.step) {
+        this.inconsistent[cell] = this.step;
+        this.addPending(cell);
+      }
+    } else {
+      int h = this.heuristic(cell);
+      int f = cost * SCALE + weight * h;
+      if (this.open.contains(cell)) {
+        this.open.decreaseKey(cell, f, h);
+      } else {
+        this.open.insert(cell, f, h);
+      }
+    }
+  }
+
+  private int heuristic(int cell) {
+    int row = cell / this.columns;
+    return Math.abs(this.goalRow - row) + Math.abs(this.goalColumn - (cell - row * this.columns));
+  }
+
+  private void addPending(int cell) {
+    if (this.pendingCount == this.pending.length) {
+      this.pending = Arrays.copyOf(this.pending, this.pending.length * 2);
+    }
+    this.pending[this.pendingCount++] = cell;
+  }
+
+  // squares improved after expansion keep stale g(x) in their descendants, so
+  // the path may be shorter than g(goal) + 1
+  private int[] tracePath() {
+    int length = 0;
+    for (int cell = this.goalCell; cell != NONE; cell = this.parent[cell]) {
+      ++length;
+    }
+    int[] cells = new int[length];
+    int cell = this.goalCell;
+    for (int index = cells.length - 1; index >= 0; --index) {
+      cells[index] = cell;
+      cell = this.parent[cell];
+    }
+    return cells;
+  }
+
+  private void nextGeneration() {
+    if (this.generation == Integer.MAX_VALUE) {
+      Arrays.fill(this.reached, 0);
+      Arrays.fill(this.expanded, 0);
+      this.generation = 0;
+    }
+    ++this.generation;
+    this.nextStep();
+  }
+
+  private void nextStep() {
+    if (this.step == Integer.MAX_VALUE) {
+      Arrays.fill(this.closed, 0);
+      Arrays.fill(this.inconsistent, 0);
+      this.step = 0;
+    }
+    ++this.step;
+  }
+
+  /**
+   * @return An upper bound on the ratio between the cost of the best path
+   *         found so far and the cost of the shortest path, or infinity if no
+   *         path has been found yet.
+   */
+  public double getSuboptimalityBound() {
+    return this.solution.bound;
+  }
+
+  /**
+   * @return The weight w of the step that found the best path so far, or NaN
+   *         if no path has been found yet.
+   */
+  public double getWeight() {
+    return this.solution.weight;
+  }
+
+  /**
+   * @return True if the best path so far is known to be the shortest, or if no
+   *         path is known to exist.
+   */
+  public boolean isOptimal() {
+    return this.solution.optimal;
+  }
+
+  /**
+   * @return The number of squares on the best path found so far, including
+   *         the start and the goal, or 0 if no path has been found.
+   */
+  @Override
+  public int getPathLength() {
+    return this.solution.cells.length;
+  }
+
+  @Override
+  public int getPath(int[] cells) {
+    int[] path = this.solution.cells;
+    System.arraycopy(path, 0, cells, 0, path.length);
+    return path.length;
+  }
+
+  /**
+   * @return The squares along the best path found so far, from the start to
+   *         the goal, or an empty list if no path has been found.
+   */
+  @Override
+  public List<Square> getPathFromStartToGoal() {
+    int[] cells = this.solution.cells;
+    List<Square> path = new ArrayList<Square>(cells.length);
+    for (int cell : cells) {
+      path.add(new Square(cell / this.columns, cell % this.columns));
+    }
+    return Collections.unmodifiableList(path);
+  }
+
+  /**
+   * @return The number of distinct squares expanded by the last search, over
+   *         all of its steps.
+   */
+  @Override
+  public int getExploredCount() {
+    return this.exploredCount;
+  }
+
+  @Override
+  public int getExplored(int[] cells) {
+    System.arraycopy(this.explored, 0, cells, 0, this.exploredCount);
+    return this.exploredCount;
+  }
+
+  // an immutable result, so that readers on other threads see a consistent one
+  private static class Solution {
+
+    private int[] cells;
+    private double bound;
+    private double weight;
+    private boolean optimal;
+
+    Solution(int[] cells, double bound, double weight, boolean optimal) {
+      this.cells = cells;
+      this.bound = bound;
+      this.weight = weight;
+      this.optimal = optimal;
+    }
+  }
+}
@@ -0,0 +1,165 @@
+package edu.uab.cis.search.maze;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Solves many independent path queries against one maze in parallel.
+ *
+ * Queries run on a {@link ForkJoinPool} with a fixed bound on parallelism.
+ * Every worker thread lazily creates its own {@link SearchEngine}, so the
+ * search state is allocated once per worker and reused for all the queries it
+ * handles, while the maze itself is shared read-only between workers. The
+ * maze must therefore not be modified while a batch is being solved.
+ */
+public class BatchSolver {
+
+  // queries per task below which a range is no longer split
+  private static final int SPLIT_THRESHOLD = 8;
+
+  private Maze maze;
+  private ForkJoinPool pool;
+  private ThreadLocal<SearchEngine> engines;
+
+  /**
+   * Creates a batch solver using A* search.
+   *
+   * @param maze
+   *          The maze to be searched.
+   * @param parallelism
+   *          The maximum number of queries solved at the same time.
+   */
+  public BatchSolver(Maze maze, int parallelism) {
+    this(maze, Solver.Mode.A_STAR, parallelism);
+  }
+
+  /**
+   * Creates a batch solver.
+   *
+   * @param maze
+   *          The maze to be searched.
+   * @param mode
+   *          The search algorithm to use.
+   * @param parallelism
+   *          The maximum number of queries solved at the same time.
+   */
+  public BatchSolver(Maze maze, Solver.Mode mode, int parallelism) {
+    this(maze, mode, parallelism, SearchListener.NONE);
+  }
+
+  /**
+   * Creates a batch solver whose engines report every search to a listener.
+   *
+   * @param maze
+   *          The maze to be searched.
+   * @param mode
+   *          The search algorithm to use.
+   * @param parallelism
+   *          The maximum number of queries solved at the same time.
+   * @param listener
+   *          The listener told the statistics of every search. It is called
+   *          from all worker threads, so it must be thread-safe, like
+   *          {@link SearchMetrics}.
+   */
+  public BatchSolver(final Maze maze, final Solver.Mode mode, int parallelism, final SearchListener listener) {
+    this.maze = maze;
+    this.pool = new ForkJoinPool(parallelism);
+    this.engines = new ThreadLocal<SearchEngine>() {
+      @Override
+      protected SearchEngine initialValue() {
+        SearchEngine engine = mode.createEngine(maze);
+        if (listener != SearchListener.NONE) {
+          engine.setSearchListener(listener);
+        }
+        return engine;
+      }
+    };
+  }
+
+  /**
+   * @return The maze searched by this solver.
+   */
+  public Maze getMaze() {
+    return this.maze;
+  }
+
+  /**
+   * @return The maximum number of queries solved at the same time.
+   */
+  public int getParallelism() {
+    return this.pool.getParallelism();
+  }
+
+  /**
+   * Solves the given queries, blocking until all of them are done.
+   *
+   * @param queries
+   *          The start and goal squares of each path.
+   * @return The path for each query, in the same order as the queries. Each
+   *         path is as described by {@link Solver#getPathFromStartToGoal()},
+   *         and is empty if no path exists. The path of a query whose search
+   *         gave up (see {@link Solver#isSearchAbandoned()}) is null instead,
+   *         since a path may exist.
+   * @throws RuntimeException
+   *           If a search fails, e.g. with an
+   *           {@link java.io.UncheckedIOException} from a {@link TiledMaze}.
+   *           The solver can still be used, and the engine that failed is
+   *           replaced.
+   */
+  public List<List<Square>> solve(List<PathQuery> queries) {
+    PathQuery[] input = queries.toArray(new PathQuery[queries.size()]);
+    // filled in by index from the worker threads
+    List<List<Square>> paths = new ArrayList<List<Square>>(Collections.<List<Square>> nCopies(input.length, null));
+    this.pool.invoke(new SolveRange(input, paths, 0, input.length));
+    return paths;
+  }
+
+  /**
+   * Stops the worker threads. The solver cannot be used afterwards.
+   */
+  public void shutdown() {
+    this.pool.shutdown();
+  }
+
+  private class SolveRange extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private PathQuery[] queries;
+    private List<List<Square>> paths;
+    private int from;
+    private int to;
+
+    SolveRange(PathQuery[] queries, List<List<Square>> paths, int from, int to) {
+      this.queries = queries;
+      this.paths = paths;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (this.to - this.from <= SPLIT_THRESHOLD) {
+        SearchEngine engine = BatchSolver.this.engines.get();
+        try {
+          for (int index = this.from; index < this.to; ++index) {
+            PathQuery query = this.queries[index];
+            engine.search(query.getStart(), query.getGoal());
+            this.paths.set(index, engine.isAbandoned() ? null : engine.getPathFromStartToGoal());
+          }
+        } catch (RuntimeException | Error e) {
+          // the search state may be left half updated, so start afresh
+          BatchSolver.this.engines.remove();
+          throw e;
+        }
+      } else {
+        int middle = (this.from + this.to) >>> 1;
+        invokeAll(new SolveRange(this.queries, this.paths, this.from, middle),
+            new SolveRange(this.queries, this.paths, middle, this.to));
+      }
+    }
+  }
+}
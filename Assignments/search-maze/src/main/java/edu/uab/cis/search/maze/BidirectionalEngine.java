@@ -0,0 +1,324 @@
+package edu.uab.cis.search.maze;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import com.google.common.collect.Sets;
+
+/**
+ * A reusable bidirectional A* search over a single maze.
+ *
+ * One A* search runs forward from the start, using the L1 distance to the goal
+ * as its heuristic, and another runs backward from the goal, using the L1
+ * distance to the start. Each step expands a square from whichever search has
+ * the smaller open list. Whenever a square reached by one search has also been
+ * reached by the other, the two partial paths form a complete path, and the
+ * shortest one seen so far is kept. Since both heuristics are consistent, the
+ * search stops as soon as either open list has no square with an f(x) score
+ * below the length of that path, which is then the shortest path.
+ *
+ * Like {@link AStarEngine}, the search state lives in primitive arrays stamped
+ * with a generation number per search. An engine is not thread-safe.
+ */
+public class BidirectionalEngine implements SearchEngine {
+
+  private static final int NONE = -1;
+
+  private static final int FORWARD = 0;
+
+  private static final int BACKWARD = 1;
+
+  private Maze maze;
+  private int columns;
+  // all per-direction state is indexed first by FORWARD or BACKWARD
+  private int[][] g;
+  private int[][] parent;
+  private int[][] reached;
+  private int[][] closed;
+  private IndexedMinHeap[] open;
+  private int[][] explored;
+  private int[] exploredCount;
+  private int[] targetRow;
+  private int[] targetColumn;
+  private int generation;
+  private int meetCell;
+  private int bestCost;
+  private SearchListener listener = SearchListener.NONE;
+  private SearchCounters counters = new SearchCounters();
+  private boolean counting;
+
+  /**
+   * Creates a search engine for the given maze.
+   *
+   * @param maze
+   *          The maze to be searched. Only its obstacles are used; the start
+   *          and goal are given to each search.
+   */
+  public BidirectionalEngine(Maze maze) {
+    this.maze = maze;
+    this.columns = maze.getColumns();
+    int cells = maze.getRows() * this.columns;
+    this.g = new int[2][cells];
+    this.parent = new int[2][cells];
+    this.reached = new int[2][cells];
+    this.closed = new int[2][cells];
+    this.open = new IndexedMinHeap[] { new IndexedMinHeap(cells), new IndexedMinHeap(cells) };
+    this.explored = new int[2][cells];
+    this.exploredCount = new int[2];
+    this.targetRow = new int[2];
+    this.targetColumn = new int[2];
+  }
+
+  @Override
+  public Maze getMaze() {
+    return this.maze;
+  }
+
+  @Override
+  public void setSearchListener(SearchListener listener) {
+    this.listener = listener;
+  }
+
+  @Override
+  public boolean search(Square start, Square goal) {
+    if (this.listener == SearchListener.NONE) {
+      this.counting = false;
+      return this.run(start, goal);
+    }
+    this.counting = true;
+    this.counters.begin();
+    boolean result = this.run(start, goal);
+    this.listener.searchFinished(this.counters.finish(start, goal, result, this.getPathLength(),
+        this.getExploredCount()));
+    return result;
+  }
+
+  private boolean run(Square start, Square goal) {
+    if (this.generation == Integer.MAX_VALUE) {
+      for (int direction = FORWARD; direction <= BACKWARD; ++direction) {
+        Arrays.fill(this.reached[direction], 0);
+        Arrays.fill(this.closed[direction], 0);
+      }
+      this.generation = 0;
+    }
+    ++this.generation;
+    this.exploredCount[FORWARD] = 0;
+    this.exploredCount[BACKWARD] = 0;
+    this.meetCell = NONE;
+    this.bestCost = Integer.MAX_VALUE;
+    if (this.maze.isBlocked(start) || this.maze.isBlocked(goal)) {
+      return false;
+    }
+    this.targetRow[FORWARD] = goal.getRow();
+    this.targetColumn[FORWARD] = goal.getColumn();
+    this.targetRow[BACKWARD] = start.getRow();
+    this.targetColumn[BACKWARD] = start.getColumn();
+    this.begin(FORWARD, start);
+    this.begin(BACKWARD, goal);
+
+    IndexedMinHeap forward = this.open[FORWARD];
+    IndexedMinHeap backward = this.open[BACKWARD];
+    while (!forward.isEmpty() && !backward.isEmpty()) {
+      if (forward.getF(forward.peek()) >= this.bestCost
+          || backward.getF(backward.peek()) >= this.bestCost) {
+        break;
+      }
+      this.expand(forward.size() <= backward.size() ? FORWARD : BACKWARD);
+    }
+    forward.clear();
+    backward.clear();
+    return this.meetCell != NONE;
+  }
+
+  private void begin(int direction, Square square) {
+    int cell = this.maze.getCell(square.getRow(), square.getColumn());
+    int h = this.heuristic(direction, square.getRow(), square.getColumn());
+    this.reached[direction][cell] = this.generation;
+    this.g[direction][cell] = 0;
+    this.parent[direction][cell] = NONE;
+    this.open[direction].insert(cell, h, h);
+    if (this.counting) {
+      this.counters.generated();
+      this.counters.heuristicEvaluated();
+      this.counters.openSize(this.open[FORWARD].size() + this.open[BACKWARD].size());
+    }
+    this.meet(cell);
+  }
+
+  private void expand(int direction) {
+    int cell = this.open[direction].poll();
+    this.closed[direction][cell] = this.generation;
+    this.explored[direction][this.exploredCount[direction]++] = cell;
+    int row = cell / this.columns;
+    int column = cell - row * this.columns;
+    int cost = this.g[direction][cell] + 1;
+    this.relax(direction, cell, cost, row - 1, column);
+    this.relax(direction, cell, cost, row + 1, column);
+    this.relax(direction, cell, cost, row, column + 1);
+    this.relax(direction, cell, cost, row, column - 1);
+  }
+
+  private void relax(int direction, int from, int cost, int row, int column) {
+    if (this.maze.isBlocked(row, column)) {
+      return;
+    }
+    int cell = row * this.columns + column;
+    int gen = this.generation;
+    if (this.counting) {
+      this.counters.generated();
+    }
+    if (this.closed[direction][cell] == gen) {
+      if (this.counting) {
+        this.counters.duplicateSkipped();
+      }
+      return;
+    }
+    int[] g = this.g[direction];
+    if (this.reached[direction][cell] != gen) {
+      int h = this.heuristic(direction, row, column);
+      this.reached[direction][cell] = gen;
+      g[cell] = cost;
+      this.parent[direction][cell] = from;
+      this.open[direction].insert(cell, cost + h, h);
+      if (this.counting) {
+        this.counters.heuristicEvaluated();
+        this.counters.openSize(this.open[FORWARD].size() + this.open[BACKWARD].size());
+      }
+    } else if (cost < g[cell]) {
+      int h = this.heuristic(direction, row, column);
+      g[cell] = cost;
+      this.parent[direction][cell] = from;
+      this.open[direction].decreaseKey(cell, cost + h, h);
+      if (this.counting) {
+        this.counters.heuristicEvaluated();
+      }
+    } else {
+      if (this.counting) {
+        this.counters.duplicateSkipped();
+      }
+      return;
+    }
+    this.meet(cell);
+  }
+
+  // records a complete path through the cell if both searches have reached it
+  private void meet(int cell) {
+    if (this.reached[FORWARD][cell] == this.generation && this.reached[BACKWARD][cell] == this.generation) {
+      int cost = this.g[FORWARD][cell] + this.g[BACKWARD][cell];
+      if (cost < this.bestCost) {
+        this.bestCost = cost;
+        this.meetCell = cell;
+      }
+    }
+  }
+
+  private int heuristic(int direction, int row, int column) {
+    return Math.abs(this.targetRow[direction] - row) + Math.abs(this.targetColumn[direction] - column);
+  }
+
+  @Override
+  public int getPathLength() {
+    return this.meetCell == NONE ? 0 : this.bestCost + 1;
+  }
+
+  @Override
+  public int getPath(int[] cells) {
+    if (this.meetCell == NONE) {
+      return 0;
+    }
+    int index = this.g[FORWARD][this.meetCell];
+    for (int cell = this.meetCell; cell != NONE; cell = this.parent[FORWARD][cell]) {
+      cells[index--] = cell;
+    }
+    index = this.g[FORWARD][this.meetCell] + 1;
+    for (int cell = this.parent[BACKWARD][this.meetCell]; cell != NONE; cell = this.parent[BACKWARD][cell]) {
+      cells[index++] = cell;
+    }
+    return this.bestCost + 1;
+  }
+
+  /**
+   * @return The number of expansions made by both searches together. A square
+   *         expanded by both searches is counted twice.
+   */
+  @Override
+  public int getExploredCount() {
+    return this.exploredCount[FORWARD] + this.exploredCount[BACKWARD];
+  }
+
+  /**
+   * Copies the cell ids of the squares explored by the forward search, followed
+   * by those explored by the backward search, into the given array.
+   */
+  @Override
+  public int getExplored(int[] cells) {
+    int forward = this.getForwardExplored(cells);
+    System.arraycopy(this.explored[BACKWARD], 0, cells, forward, this.exploredCount[BACKWARD]);
+    return forward + this.exploredCount[BACKWARD];
+  }
+
+  /**
+   * @return The number of squares explored by the search from the start.
+   */
+  public int getForwardExploredCount() {
+    return this.exploredCount[FORWARD];
+  }
+
+  /**
+   * @return The number of squares explored by the search from the goal.
+   */
+  public int getBackwardExploredCount() {
+    return this.exploredCount[BACKWARD];
+  }
+
+  /**
+   * Copies the cell ids of the squares explored by the search from the start
+   * into the given array, in the order they were explored.
+   *
+   * @param cells
+   *          An array with room for at least
+   *          {@link #getForwardExploredCount()} ids.
+   * @return The number of ids copied.
+   */
+  public int getForwardExplored(int[] cells) {
+    System.arraycopy(this.explored[FORWARD], 0, cells, 0, this.exploredCount[FORWARD]);
+    return this.exploredCount[FORWARD];
+  }
+
+  /**
+   * Copies the cell ids of the squares explored by the search from the goal
+   * into the given array, in the order they were explored.
+   *
+   * @param cells
+   *          An array with room for at least
+   *          {@link #getBackwardExploredCount()} ids.
+   * @return The number of ids copied.
+   */
+  public int getBackwardExplored(int[] cells) {
+    System.arraycopy(this.explored[BACKWARD], 0, cells, 0, this.exploredCount[BACKWARD]);
+    return this.exploredCount[BACKWARD];
+  }
+
+  /**
+   * @return The squares explored by the search from the start.
+   */
+  public Set<Square> getForwardExploredSquares() {
+    return this.toSquares(FORWARD);
+  }
+
+  /**
+   * @return The squares explored by the search from the goal.
+   */
+  public Set<Square> getBackwardExploredSquares() {
+    return this.toSquares(BACKWARD);
+  }
+
+  private Set<Square> toSquares(int direction) {
+    Set<Square> squares = Sets.newHashSetWithExpectedSize(this.exploredCount[direction]);
+    for (int index = 0; index < this.exploredCount[direction]; ++index) {
+      int cell = this.explored[direction][index];
+      squares.add(new Square(cell / this.columns, cell % this.columns));
+    }
+    return squares;
+  }
+}
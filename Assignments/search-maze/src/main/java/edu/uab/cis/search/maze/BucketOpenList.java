@@ -0,0 +1,348 @@
+package edu.uab.cis.search.maze;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A two-level bucket queue of cell ids, for integer f-scores and h-scores
+ * that fall within a narrow range at any one time.
+ *
+ * Cells are kept in one bucket per f-score, and within that in one list per
+ * h-score, sorted by id, so they are removed in the same order as from an
+ * {@link IndexedMinHeap}. The lists are linked through arrays indexed by cell
+ * id, which also makes decrease-key and removal O(1). The f-buckets form a
+ * ring that grows to hold the range of f-scores queued together, up to 2^16
+ * f-scores, and the lists of each f-score to hold the range of its h-scores,
+ * up to 2^22 h-scores. In A* with a consistent heuristic and unit steps, such
+ * as the L1 heuristic or {@link Landmarks}, at most three f-scores are queued
+ * together, and the h-scores range over less than the size of the maze.
+ *
+ * The lowest f-score and h-score are found by scanning forward from the last
+ * minimum, and both scans are amortized against insertions, so every
+ * operation is O(1) amortized as long as the queued scores stay within a
+ * narrow range. Insertion into a list walks back from its largest id, which is
+ * immediate when cells arrive in row-major order, and otherwise proportional
+ * to the few cells that share both scores.
+ */
+public class BucketOpenList implements OpenList {
+
+  private static final int ABSENT = -1;
+
+  private static final int NONE = -1;
+
+  private static final int INITIAL_BUCKETS = 8;
+
+  // the widest range of f-scores that may be queued together
+  private static final int MAX_BUCKETS = 1 << 16;
+
+  private static final int INITIAL_SCORES = 16;
+
+  // the widest range of h-scores that may be queued with one f-score
+  private static final int MAX_SCORES = 1 << 22;
+
+  // the scores of each queued cell, or ABSENT
+  private int[] f;
+  private int[] h;
+  // the neighbors of each queued cell in the list for its scores
+  private int[] next;
+  private int[] previous;
+  // the bucket of f-score x is at index x & (buckets.length - 1)
+  private Bucket[] buckets;
+  // bounds on the f-scores in the list
+  private int lowestF;
+  private int highestF;
+  private int size;
+
+  /**
+   * Creates an empty list.
+   *
+   * @param cells
+   *          The number of distinct cell ids, i.e. all ids must be in the
+   *          range [0, cells).
+   */
+  public BucketOpenList(int cells) {
+    this.f = new int[cells];
+    Arrays.fill(this.f, ABSENT);
+    this.h = new int[cells];
+    this.next = new int[cells];
+    this.previous = new int[cells];
+    this.buckets = new Bucket[INITIAL_BUCKETS];
+    for (int index = 0; index < this.buckets.length; ++index) {
+      this.buckets[index] = new Bucket();
+    }
+  }
+
+  @Override
+  public int size() {
+    return this.size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  @Override
+  public boolean contains(int id) {
+    return this.f[id] != ABSENT;
+  }
+
+  @Override
+  public int getF(int id) {
+    this.check(id);
+    return this.f[id];
+  }
+
+  @Override
+  public int getH(int id) {
+    this.check(id);
+    return this.h[id];
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws IllegalArgumentException
+   *           If the cell is already queued, or its scores are too far from
+   *           those of the queued cells.
+   */
+  @Override
+  public void insert(int id, int f, int h) {
+    if (this.contains(id)) {
+      throw new IllegalArgumentException("Cell " + id + " is already in the list");
+    }
+    if (f < 0 || h < 0) {
+      throw new IllegalArgumentException("Scores must be non-negative: " + f + ", " + h);
+    }
+    if (this.size == 0) {
+      this.lowestF = f;
+      this.highestF = f;
+    } else if (f < this.lowestF || f > this.highestF) {
+      int lowest = Math.min(this.lowestF, f);
+      int highest = Math.max(this.highestF, f);
+      if ((long) highest - lowest >= this.buckets.length) {
+        this.grow(lowest, highest);
+      }
+      this.lowestF = lowest;
+      this.highestF = highest;
+    }
+    Bucket bucket = this.buckets[f & (this.buckets.length - 1)];
+    if (bucket.count == 0) {
+      bucket.f = f;
+    }
+    bucket.add(id, h);
+    this.f[id] = f;
+    this.h[id] = h;
+    ++this.size;
+  }
+
+  // spreads the f-buckets over a ring that can hold the given range
+  private void grow(int lowest, int highest) {
+    if ((long) highest - lowest >= MAX_BUCKETS) {
+      throw new IllegalArgumentException("F-scores from " + lowest + " to " + highest + " are too far apart");
+    }
+    int length = this.buckets.length;
+    while ((long) highest - lowest >= length) {
+      length *= 2;
+    }
+    Bucket[] buckets = new Bucket[length];
+    for (Bucket bucket : this.buckets) {
+      if (bucket.count > 0) {
+        buckets[bucket.f & (length - 1)] = bucket;
+      }
+    }
+    for (int index = 0; index < length; ++index) {
+      if (buckets[index] == null) {
+        buckets[index] = new Bucket();
+      }
+    }
+    this.buckets = buckets;
+  }
+
+  @Override
+  public void decreaseKey(int id, int f, int h) {
+    this.check(id);
+    if (f > this.f[id] || (f == this.f[id] && h > this.h[id])) {
+      throw new IllegalArgumentException("Cannot increase the key of cell " + id);
+    }
+    this.unlink(id);
+    this.insert(id, f, h);
+  }
+
+  @Override
+  public void update(int id, int f, int h) {
+    this.check(id);
+    this.unlink(id);
+    this.insert(id, f, h);
+  }
+
+  @Override
+  public void remove(int id) {
+    this.check(id);
+    this.unlink(id);
+  }
+
+  @Override
+  public int peek() {
+    if (this.size == 0) {
+      throw new NoSuchElementException();
+    }
+    int mask = this.buckets.length - 1;
+    Bucket bucket = this.buckets[this.lowestF & mask];
+    while (bucket.count == 0) {
+      bucket = this.buckets[++this.lowestF & mask];
+    }
+    return bucket.first();
+  }
+
+  @Override
+  public int poll() {
+    int id = this.peek();
+    this.unlink(id);
+    return id;
+  }
+
+  @Override
+  public void clear() {
+    int mask = this.buckets.length - 1;
+    for (int f = this.lowestF; this.size > 0 && f <= this.highestF; ++f) {
+      Bucket bucket = this.buckets[f & mask];
+      if (bucket.count > 0) {
+        this.size -= bucket.count;
+        bucket.clear();
+      }
+    }
+  }
+
+  private void check(int id) {
+    if (this.f[id] == ABSENT) {
+      throw new NoSuchElementException("Cell " + id + " is not in the list");
+    }
+  }
+
+  private void unlink(int id) {
+    this.buckets[this.f[id] & (this.buckets.length - 1)].unlink(id, this.h[id]);
+    this.f[id] = ABSENT;
+    --this.size;
+  }
+
+  /**
+   * The cells with one f-score, in a list per h-score.
+   */
+  private class Bucket {
+
+    private int f;
+    private int count;
+    // the first and last cell of the list for h-score hBase + index
+    private int[] head = new int[0];
+    private int[] tail = new int[0];
+    private int hBase;
+    // bounds on the h-scores in the bucket
+    private int lowestH = Integer.MAX_VALUE;
+    private int highestH = Integer.MIN_VALUE;
+
+    void add(int id, int h) {
+      this.ensure(h);
+      int index = h - this.hBase;
+      int[] next = BucketOpenList.this.next;
+      int[] previous = BucketOpenList.this.previous;
+      int before = this.tail[index];
+      while (before != NONE && before > id) {
+        before = previous[before];
+      }
+      int after = before == NONE ? this.head[index] : next[before];
+      previous[id] = before;
+      next[id] = after;
+      if (before == NONE) {
+        this.head[index] = id;
+      } else {
+        next[before] = id;
+      }
+      if (after == NONE) {
+        this.tail[index] = id;
+      } else {
+        previous[after] = id;
+      }
+      ++this.count;
+      this.lowestH = Math.min(this.lowestH, h);
+      this.highestH = Math.max(this.highestH, h);
+    }
+
+    // makes room for the list of the given h-score
+    private void ensure(int h) {
+      int length = this.head.length;
+      if (h >= this.hBase && h - this.hBase < length) {
+        return;
+      }
+      if (this.count == 0) {
+        // nothing to keep, so move the range rather than widening it
+        length = Math.max(length, INITIAL_SCORES);
+        this.hBase = Math.max(0, h - length / 2);
+        if (this.head.length < length) {
+          this.head = new int[length];
+          this.tail = new int[length];
+          Arrays.fill(this.head, NONE);
+          Arrays.fill(this.tail, NONE);
+        }
+        return;
+      }
+      int lowest = Math.min(this.hBase, h);
+      int highest = Math.max(this.hBase + length - 1, h);
+      if ((long) highest - lowest >= MAX_SCORES) {
+        throw new IllegalArgumentException("H-scores from " + lowest + " to " + highest + " are too far apart");
+      }
+      int grown = Math.max(2 * length, highest - lowest + 1);
+      int base = h < this.hBase ? Math.max(0, highest - grown + 1) : lowest;
+      int[] head = new int[grown];
+      int[] tail = new int[grown];
+      Arrays.fill(head, NONE);
+      Arrays.fill(tail, NONE);
+      System.arraycopy(this.head, 0, head, this.hBase - base, length);
+      System.arraycopy(this.tail, 0, tail, this.hBase - base, length);
+      this.head = head;
+      this.tail = tail;
+      this.hBase = base;
+    }
+
+    int first() {
+      while (this.head[this.lowestH - this.hBase] == NONE) {
+        ++this.lowestH;
+      }
+      return this.head[this.lowestH - this.hBase];
+    }
+
+    void unlink(int id, int h) {
+      int index = h - this.hBase;
+      int before = BucketOpenList.this.previous[id];
+      int after = BucketOpenList.this.next[id];
+      if (before == NONE) {
+        this.head[index] = after;
+      } else {
+        BucketOpenList.this.next[before] = after;
+      }
+      if (after == NONE) {
+        this.tail[index] = before;
+      } else {
+        BucketOpenList.this.previous[after] = before;
+      }
+      if (--this.count == 0) {
+        this.lowestH = Integer.MAX_VALUE;
+        this.highestH = Integer.MIN_VALUE;
+      }
+    }
+
+    void clear() {
+      for (int h = this.lowestH; h <= this.highestH; ++h) {
+        int index = h - this.hBase;
+        for (int id = this.head[index]; id != NONE; id = BucketOpenList.this.next[id]) {
+          BucketOpenList.this.f[id] = ABSENT;
+        }
+        this.head[index] = NONE;
+        this.tail[index] = NONE;
+      }
+      this.count = 0;
+      this.lowestH = Integer.MAX_VALUE;
+      this.highestH = Integer.MIN_VALUE;
+    }
+  }
+}
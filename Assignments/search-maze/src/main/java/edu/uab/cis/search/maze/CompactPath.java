@@ -0,0 +1,274 @@
+package edu.uab.cis.search.maze;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * An immutable path through a maze, stored as its first square and 2 bits per
+ * step, rather than as a list of {@link Square}s.
+ *
+ * Steps are packed 32 to a long, and the cell id (see
+ * {@link Maze#getCell(int, int)}) where each long's steps begin is kept as a
+ * checkpoint, so a path of n steps takes about 0.375 bytes per step, e.g. 37
+ * KB for 100,000 steps, and any square along it can be found in O(1) by
+ * counting the moves in one long. Squares are only created when they are
+ * asked for, by {@link #get(int)}, by the iterator or through the
+ * {@link #asList()} view.
+ */
+public final class CompactPath implements Iterable<Square> {
+
+  private static final int UP = 0;
+  private static final int DOWN = 1;
+  private static final int RIGHT = 2;
+  private static final int LEFT = 3;
+
+  // the low bit of every step in a long
+  private static final long LOW_BITS = 0x5555555555555555L;
+
+  private int columns;
+  private int size;
+  // step i is in bits 2 * (i % 32) and up of moves[i / 32]
+  private long[] moves;
+  // the cell before step 32 * i
+  private int[] checkpoints;
+  private int goal;
+
+  private CompactPath(int columns, int size) {
+    this.columns = columns;
+    this.size = size;
+    int words = size < 2 ? 0 : ((size - 1) + 31) >>> 5;
+    this.moves = new long[words];
+    this.checkpoints = new int[words];
+  }
+
+  /**
+   * Packs a path given as cell ids.
+   *
+   * @param cells
+   *          The cell ids of the squares along the path, from the start to the
+   *          goal, each next to the one before.
+   * @param length
+   *          The number of cell ids to use.
+   * @param columns
+   *          The number of columns of the maze.
+   * @return The packed path.
+   * @throws IllegalArgumentException
+   *           If two consecutive cells are not next to each other.
+   */
+  public static CompactPath fromCells(int[] cells, int length, int columns) {
+    CompactPath path = new CompactPath(columns, length);
+    if (length == 0) {
+      return path;
+    }
+    for (int step = 0; step < length - 1; ++step) {
+      path.setMove(step, cells[step], cells[step + 1]);
+    }
+    path.goal = cells[length - 1];
+    return path;
+  }
+
+  /**
+   * Packs a path by following parent pointers back from its goal, in time
+   * proportional to its length and without reversing it.
+   *
+   * @param goal
+   *          The cell id of the square where the path ends.
+   * @param parents
+   *          The cell id of the square before each square on the path,
+   *          indexed by cell id.
+   * @param length
+   *          The number of squares on the path, including the start and the
+   *          goal, or 0 for an empty path.
+   * @param columns
+   *          The number of columns of the maze.
+   * @return The packed path.
+   * @throws IllegalArgumentException
+   *           If a square is not next to its parent.
+   */
+  public static CompactPath fromParents(int goal, int[] parents, int length, int columns) {
+    CompactPath path = new CompactPath(columns, length);
+    path.goal = goal;
+    int cell = goal;
+    for (int step = length - 2; step >= 0; --step) {
+      int parent = parents[cell];
+      path.setMove(step, parent, cell);
+      cell = parent;
+    }
+    return path;
+  }
+
+  private void setMove(int step, int from, int to) {
+    int move;
+    if (to == from - this.columns) {
+      move = UP;
+    } else if (to == from + this.columns) {
+      move = DOWN;
+    } else if (to == from + 1 && to % this.columns != 0) {
+      move = RIGHT;
+    } else if (to == from - 1 && from % this.columns != 0) {
+      move = LEFT;
+    } else {
+      throw new IllegalArgumentException("Cells " + from + " and " + to + " are not next to each other");
+    }
+    this.moves[step >>> 5] |= (long) move << ((step & 31) << 1);
+    if ((step & 31) == 0) {
+      this.checkpoints[step >>> 5] = from;
+    }
+  }
+
+  /**
+   * @return The number of squares on the path, including the start and the
+   *         goal.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * @return True if the path has no squares, i.e. no path was found.
+   */
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  /**
+   * @param index
+   *          The position of a square along the path, from 0 for the start.
+   * @return The cell id of the square.
+   */
+  public int getCell(int index) {
+    if (index < 0 || index >= this.size) {
+      throw new IndexOutOfBoundsException("Index " + index + " of a path of " + this.size + " squares");
+    }
+    if (index == this.size - 1) {
+      return this.goal;
+    }
+    int word = index >>> 5;
+    int steps = index & 31;
+    if (steps == 0) {
+      return this.checkpoints[word];
+    }
+    long mask = LOW_BITS & ((1L << (steps << 1)) - 1);
+    long low = this.moves[word] & mask;
+    long high = (this.moves[word] >>> 1) & mask;
+    int horizontal = Long.bitCount(high);
+    int left = Long.bitCount(high & low);
+    int down = Long.bitCount(low) - left;
+    int up = steps - horizontal - down;
+    return this.checkpoints[word] + (down - up) * this.columns + (horizontal - 2 * left);
+  }
+
+  /**
+   * @param index
+   *          The position of a square along the path, from 0 for the start.
+   * @return The square.
+   */
+  public Square get(int index) {
+    int cell = this.getCell(index);
+    return new Square(cell / this.columns, cell % this.columns);
+  }
+
+  /**
+   * Copies the cell ids of the squares along the path into the given array,
+   * from the start to the goal.
+   *
+   * @param cells
+   *          An array with room for at least {@link #size()} ids.
+   * @return The number of ids copied.
+   */
+  public int getCells(int[] cells) {
+    if (this.size == 0) {
+      return 0;
+    }
+    int cell = this.size == 1 ? this.goal : this.checkpoints[0];
+    cells[0] = cell;
+    for (int step = 0; step < this.size - 1; ++step) {
+      cell = this.next(cell, step);
+      cells[step + 1] = cell;
+    }
+    return this.size;
+  }
+
+  // the cell after the given step from the given cell
+  private int next(int cell, int step) {
+    switch ((int) (this.moves[step >>> 5] >>> ((step & 31) << 1)) & 3) {
+    case UP:
+      return cell - this.columns;
+    case DOWN:
+      return cell + this.columns;
+    case RIGHT:
+      return cell + 1;
+    default:
+      return cell - 1;
+    }
+  }
+
+  /**
+   * @return An iterator that creates the squares along the path one at a
+   *         time, from the start to the goal.
+   */
+  @Override
+  public Iterator<Square> iterator() {
+    return new Iterator<Square>() {
+      private int index;
+      private int cell = CompactPath.this.size > 0 ? CompactPath.this.getCell(0) : 0;
+
+      @Override
+      public boolean hasNext() {
+        return this.index < CompactPath.this.size;
+      }
+
+      @Override
+      public Square next() {
+        if (this.index >= CompactPath.this.size) {
+          throw new NoSuchElementException();
+        }
+        if (this.index > 0) {
+          this.cell = CompactPath.this.next(this.cell, this.index - 1);
+        }
+        ++this.index;
+        int columns = CompactPath.this.columns;
+        return new Square(this.cell / columns, this.cell % columns);
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  /**
+   * @return An unmodifiable list view of the squares along the path, which
+   *         creates each square when it is asked for.
+   */
+  public List<Square> asList() {
+    return new SquareList();
+  }
+
+  @Override
+  public String toString() {
+    return this.asList().toString();
+  }
+
+  private class SquareList extends AbstractList<Square> implements RandomAccess {
+
+    @Override
+    public Square get(int index) {
+      return CompactPath.this.get(index);
+    }
+
+    @Override
+    public int size() {
+      return CompactPath.this.size;
+    }
+
+    @Override
+    public Iterator<Square> iterator() {
+      return CompactPath.this.iterator();
+    }
+  }
+}
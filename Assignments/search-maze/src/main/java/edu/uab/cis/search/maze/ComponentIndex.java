@@ -0,0 +1,450 @@
+package edu.uab.cis.search.maze;
+
+import java.util.Arrays;
+
+/**
+ * Labels every open square of a maze with the connected component it belongs
+ * to, so that whether a path exists between two squares is known in O(1),
+ * without searching.
+ *
+ * The labels are computed once with a two-pass union-find scan, and then kept
+ * up to date as the maze changes, since the index listens to its maze.
+ * Opening a square joins the components around it, relabeling all but the
+ * largest of them. Blocking a square can only split its own component: if its
+ * open neighbors are still connected through the eight squares around it,
+ * nothing changes; otherwise a breadth-first search from each neighbor runs in
+ * lockstep, and every search that runs out of squares before meeting the
+ * others has found a new component, so the work done is proportional to the
+ * smaller pieces rather than the whole component.
+ *
+ * An index is not thread-safe, and must not be used while its maze is being
+ * changed. Call {@link #close()} to stop listening to the maze once the index
+ * is no longer needed.
+ */
+public class ComponentIndex implements MazeListener {
+
+  /**
+   * The component of blocked squares.
+   */
+  public static final int BLOCKED = -1;
+
+  // a square has at most four open neighbors, so at most four searches
+  private static final int SEARCHES = 4;
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  private Maze maze;
+  private int rows;
+  private int columns;
+  // the component of each square, or BLOCKED
+  private int[] labels;
+  // the number of squares in each component, indexed by label
+  private int[] sizes;
+  // labels of merged or emptied components, to be used again
+  private int[] freeLabels;
+  private int freeCount;
+  private int nextLabel;
+  private int componentCount;
+  // searches that visited each square, as epoch * SEARCHES + search
+  private int[] visits;
+  private int epoch;
+  private int[][] queues = new int[SEARCHES][INITIAL_CAPACITY];
+
+  /**
+   * Labels the components of the given maze and registers the index as a
+   * listener of the maze.
+   *
+   * @param maze
+   *          The maze to be labeled.
+   */
+  public ComponentIndex(Maze maze) {
+    this.maze = maze;
+    this.rows = maze.getRows();
+    this.columns = maze.getColumns();
+    this.labels = new int[this.rows * this.columns];
+    this.sizes = new int[INITIAL_CAPACITY];
+    this.freeLabels = new int[INITIAL_CAPACITY];
+    this.label();
+    maze.addListener(this);
+  }
+
+  private void label() {
+    // union-find over cells, in which every root is the first cell of its tree
+    int[] parent = new int[this.labels.length];
+    for (int row = 0, cell = 0; row < this.rows; ++row) {
+      for (int column = 0; column < this.columns; ++column, ++cell) {
+        if (this.maze.isBlocked(row, column)) {
+          parent[cell] = BLOCKED;
+          continue;
+        }
+        parent[cell] = cell;
+        if (column > 0 && parent[cell - 1] != BLOCKED) {
+          union(parent, cell - 1, cell);
+        }
+        if (row > 0 && parent[cell - this.columns] != BLOCKED) {
+          union(parent, cell - this.columns, cell);
+        }
+      }
+    }
+    for (int cell = 0; cell < parent.length; ++cell) {
+      if (parent[cell] == BLOCKED) {
+        this.labels[cell] = BLOCKED;
+        continue;
+      }
+      int root = find(parent, cell);
+      int label = root == cell ? this.allocate() : this.labels[root];
+      this.labels[cell] = label;
+      ++this.sizes[label];
+    }
+  }
+
+  private static int find(int[] parent, int cell) {
+    while (parent[cell] != cell) {
+      parent[cell] = parent[parent[cell]];
+      cell = parent[cell];
+    }
+    return cell;
+  }
+
+  private static void union(int[] parent, int a, int b) {
+    int rootA = find(parent, a);
+    int rootB = find(parent, b);
+    if (rootA < rootB) {
+      parent[rootB] = rootA;
+    } else {
+      parent[rootA] = rootB;
+    }
+  }
+
+  private int allocate() {
+    ++this.componentCount;
+    if (this.freeCount > 0) {
+      return this.freeLabels[--this.freeCount];
+    }
+    if (this.nextLabel == this.sizes.length) {
+      this.sizes = Arrays.copyOf(this.sizes, this.sizes.length * 2);
+    }
+    return this.nextLabel++;
+  }
+
+  private void release(int label) {
+    --this.componentCount;
+    this.sizes[label] = 0;
+    if (this.freeCount == this.freeLabels.length) {
+      this.freeLabels = Arrays.copyOf(this.freeLabels, this.freeCount * 2);
+    }
+    this.freeLabels[this.freeCount++] = label;
+  }
+
+  /**
+   * @return The maze labeled by this index.
+   */
+  public Maze getMaze() {
+    return this.maze;
+  }
+
+  /**
+   * @return The number of connected components of open squares.
+   */
+  public int getComponentCount() {
+    return this.componentCount;
+  }
+
+  /**
+   * @param square
+   *          A square of the maze.
+   * @return A label shared by all squares in the same component, or
+   *         {@link #BLOCKED} if the square is blocked or outside the maze.
+   *         Labels may be reused once the maze changes.
+   */
+  public int getComponent(Square square) {
+    if (this.maze.isBlocked(square)) {
+      return BLOCKED;
+    }
+    return this.labels[this.maze.getCell(square.getRow(), square.getColumn())];
+  }
+
+  /**
+   * @param square
+   *          A square of the maze.
+   * @return The number of open squares reachable from the square, including
+   *         itself, or 0 if it is blocked.
+   */
+  public int getComponentSize(Square square) {
+    int label = this.getComponent(square);
+    return label == BLOCKED ? 0 : this.sizes[label];
+  }
+
+  /**
+   * @param start
+   *          The square where a path would begin.
+   * @param goal
+   *          The square where a path would end.
+   * @return True if a path exists between the squares, false if not
+   *         (including when either is blocked or outside the maze).
+   */
+  public boolean isConnected(Square start, Square goal) {
+    int label = this.getComponent(start);
+    return label != BLOCKED && label == this.getComponent(goal);
+  }
+
+  /**
+   * @param start
+   *          The cell id of the square where a path would begin (see
+   *          {@link Maze#getCell(int, int)}).
+   * @param goal
+   *          The cell id of the square where a path would end.
+   * @return True if a path exists between the squares, false if not
+   *         (including when either is blocked).
+   */
+  public boolean isConnected(int start, int goal) {
+    int label = this.labels[start];
+    return label != BLOCKED && label == this.labels[goal];
+  }
+
+  @Override
+  public void squareChanged(Maze changed, int row, int column, boolean blocked) {
+    if (blocked) {
+      this.split(row, column);
+    } else {
+      this.join(row, column);
+    }
+  }
+
+  /**
+   * Stops listening to changes of the maze. The labels are no longer kept up
+   * to date afterwards.
+   */
+  public void close() {
+    this.maze.removeListener(this);
+  }
+
+  // the open neighbors of a square, in a fixed order, and how many there are
+  private int neighbors(int row, int column, int[] neighbors) {
+    int count = 0;
+    int cell = row * this.columns + column;
+    if (!this.maze.isBlocked(row - 1, column)) {
+      neighbors[count++] = cell - this.columns;
+    }
+    if (!this.maze.isBlocked(row, column + 1)) {
+      neighbors[count++] = cell + 1;
+    }
+    if (!this.maze.isBlocked(row + 1, column)) {
+      neighbors[count++] = cell + this.columns;
+    }
+    if (!this.maze.isBlocked(row, column - 1)) {
+      neighbors[count++] = cell - 1;
+    }
+    return count;
+  }
+
+  private void join(int row, int column) {
+    int cell = row * this.columns + column;
+    int[] neighbors = new int[SEARCHES];
+    int count = this.neighbors(row, column, neighbors);
+    int largest = BLOCKED;
+    for (int index = 0; index < count; ++index) {
+      int label = this.labels[neighbors[index]];
+      if (largest == BLOCKED || this.sizes[label] > this.sizes[largest]) {
+        largest = label;
+      }
+    }
+    if (largest == BLOCKED) {
+      largest = this.allocate();
+    }
+    this.labels[cell] = largest;
+    ++this.sizes[largest];
+    for (int index = 0; index < count; ++index) {
+      int label = this.labels[neighbors[index]];
+      if (label != largest) {
+        this.sizes[largest] += this.sizes[label];
+        this.release(label);
+        this.relabel(neighbors[index], label, largest);
+      }
+    }
+  }
+
+  // relabels the component with the given label that contains the cell
+  private void relabel(int cell, int from, int to) {
+    int[] queue = this.queues[0];
+    int tail = 0;
+    this.labels[cell] = to;
+    queue[tail++] = cell;
+    for (int head = 0; head < tail; ++head) {
+      int current = queue[head];
+      int row = current / this.columns;
+      int column = current - row * this.columns;
+      for (int direction = 0; direction < 4; ++direction) {
+        int next = this.step(row, column, direction);
+        if (next >= 0 && this.labels[next] == from) {
+          this.labels[next] = to;
+          if (tail == queue.length) {
+            queue = this.queues[0] = Arrays.copyOf(queue, tail * 2);
+          }
+          queue[tail++] = next;
+        }
+      }
+    }
+  }
+
+  // the cell one step away in a direction, or -1 if that is outside the maze
+  private int step(int row, int column, int direction) {
+    switch (direction) {
+    case 0:
+      return row > 0 ? (row - 1) * this.columns + column : -1;
+    case 1:
+      return column < this.columns - 1 ? row * this.columns + column + 1 : -1;
+    case 2:
+      return row < this.rows - 1 ? (row + 1) * this.columns + column : -1;
+    default:
+      return column > 0 ? row * this.columns + column - 1 : -1;
+    }
+  }
+
+  private void split(int row, int column) {
+    int cell = row * this.columns + column;
+    int label = this.labels[cell];
+    this.labels[cell] = BLOCKED;
+    if (--this.sizes[label] == 0) {
+      this.release(label);
+      return;
+    }
+    int[] neighbors = new int[SEARCHES];
+    int count = this.neighbors(row, column, neighbors);
+    if (count < 2 || this.isLocallyConnected(row, column)) {
+      return;
+    }
+    this.separate(label, neighbors, count);
+  }
+
+  // whether the open neighbors of a square are connected through the eight
+  // squares around it, which are each next to the one before, in a ring
+  private boolean isLocallyConnected(int row, int column) {
+    int[] rowOffsets = { -1, -1, 0, 1, 1, 1, 0, -1 };
+    int[] columnOffsets = { 0, 1, 1, 1, 0, -1, -1, -1 };
+    boolean[] open = new boolean[8];
+    int first = -1;
+    for (int index = 0; index < 8; ++index) {
+      open[index] = !this.maze.isBlocked(row + rowOffsets[index], column + columnOffsets[index]);
+      if (!open[index] && first < 0) {
+        first = index;
+      }
+    }
+    // count the runs of open squares that hold one of the four neighbors,
+    // which are at the even positions of the ring
+    int runs = 0;
+    boolean inRun = false;
+    boolean counted = false;
+    for (int offset = 1; offset <= 8; ++offset) {
+      int index = (first + offset) & 7;
+      if (!open[index]) {
+        inRun = false;
+        continue;
+      }
+      if (!inRun) {
+        inRun = true;
+        counted = false;
+      }
+      if ((index & 1) == 0 && !counted) {
+        counted = true;
+        ++runs;
+      }
+    }
+    return runs <= 1;
+  }
+
+  // splits off every part of the component that the searches from the
+  // neighbors of a newly blocked square exhaust before they all meet
+  private void separate(int label, int[] neighbors, int count) {
+    if (this.visits == null) {
+      this.visits = new int[this.labels.length];
+    }
+    if (this.epoch == Integer.MAX_VALUE / SEARCHES) {
+      Arrays.fill(this.visits, 0);
+      this.epoch = 0;
+    }
+    int base = ++this.epoch * SEARCHES;
+    // the searches that have met form groups, joined through group[]
+    int[] group = new int[count];
+    int[] heads = new int[count];
+    int[] tails = new int[count];
+    boolean[] done = new boolean[count];
+    for (int search = 0; search < count; ++search) {
+      group[search] = search;
+      this.visits[neighbors[search]] = base + search;
+      this.queues[search][tails[search]++] = neighbors[search];
+    }
+    int remaining = count;
+    while (remaining > 1) {
+      for (int search = 0; search < count; ++search) {
+        if (heads[search] == tails[search]) {
+          continue;
+        }
+        int current = this.queues[search][heads[search]++];
+        int row = current / this.columns;
+        int column = current - row * this.columns;
+        for (int direction = 0; direction < 4; ++direction) {
+          int next = this.step(row, column, direction);
+          if (next < 0 || this.labels[next] != label) {
+            continue;
+          }
+          int visit = this.visits[next];
+          if (visit >= base) {
+            int mine = root(group, search);
+            int theirs = root(group, visit - base);
+            if (mine != theirs) {
+              group[theirs] = mine;
+              --remaining;
+            }
+            continue;
+          }
+          this.visits[next] = base + search;
+          if (tails[search] == this.queues[search].length) {
+            this.queues[search] = Arrays.copyOf(this.queues[search], tails[search] * 2);
+          }
+          this.queues[search][tails[search]++] = next;
+        }
+      }
+      // a group whose searches are all out of squares is a component
+      for (int search = 0; search < count && remaining > 1; ++search) {
+        if (group[search] != search || done[search]) {
+          continue;
+        }
+        boolean exhausted = true;
+        for (int other = 0; other < count; ++other) {
+          if (root(group, other) == search && heads[other] < tails[other]) {
+            exhausted = false;
+          }
+        }
+        if (exhausted) {
+          done[search] = true;
+          --remaining;
+          this.splitOff(label, group, tails, search, count);
+        }
+      }
+    }
+  }
+
+  private static int root(int[] group, int search) {
+    while (group[search] != search) {
+      search = group[search];
+    }
+    return search;
+  }
+
+  // gives the squares visited by a group of searches a new label
+  private void splitOff(int label, int[] group, int[] tails, int root, int count) {
+    int split = this.allocate();
+    for (int search = 0; search < count; ++search) {
+      if (root(group, search) != root) {
+        continue;
+      }
+      int[] queue = this.queues[search];
+      for (int index = 0; index < tails[search]; ++index) {
+        this.labels[queue[index]] = split;
+      }
+      this.sizes[split] += tails[search];
+      this.sizes[label] -= tails[search];
+    }
+  }
+}
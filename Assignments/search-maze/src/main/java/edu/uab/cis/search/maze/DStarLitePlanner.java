@@ -0,0 +1,265 @@
+package edu.uab.cis.search.maze;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Incremental replanning with D* Lite between a start and a goal square of a
+ * maze whose obstacles change over time.
+ *
+ * The planner searches backward from the goal and keeps its search state (g(x)
+ * and the one-step lookahead rhs(x) for every square) between plans. It
+ * listens to its maze, so whenever a square is blocked or unblocked only that
+ * square and its neighbors are marked inconsistent; the next plan then repairs
+ * just the part of the search tree affected by the change, rather than
+ * searching from scratch. The start may also move along the path (see
+ * {@link #moveStart(Square)}) without invalidating the search state.
+ *
+ * A planner is not thread-safe. Call {@link #close()} to stop listening to the
+ * maze once the planner is no longer needed.
+ */
+public class DStarLitePlanner implements MazeListener {
+
+  private static final int INFINITY = Integer.MAX_VALUE / 4;
+
+  private Maze maze;
+  private int columns;
+  private int[] g;
+  private int[] rhs;
+  private IndexedMinHeap open;
+  private int startCell;
+  private int goalCell;
+  // the start when the key modifier was last updated
+  private int lastCell;
+  private int keyModifier;
+  private int lastExpansions;
+  private long totalExpansions;
+
+  /**
+   * Creates a planner and registers it as a listener of the maze. No search is
+   * done until the first plan is requested.
+   *
+   * @param maze
+   *          The maze to be searched.
+   * @param start
+   *          The square where the path begins.
+   * @param goal
+   *          The square where the path ends.
+   */
+  public DStarLitePlanner(Maze maze, Square start, Square goal) {
+    this.maze = maze;
+    this.columns = maze.getColumns();
+    int cells = maze.getRows() * this.columns;
+    this.startCell = this.toCell(start);
+    this.goalCell = this.toCell(goal);
+    this.lastCell = this.startCell;
+    this.g = new int[cells];
+    this.rhs = new int[cells];
+    Arrays.fill(this.g, INFINITY);
+    Arrays.fill(this.rhs, INFINITY);
+    this.open = new IndexedMinHeap(cells);
+    this.updateVertex(this.goalCell);
+    maze.addListener(this);
+  }
+
+  private int toCell(Square square) {
+    if (square.getRow() < 0 || square.getRow() >= this.maze.getRows() || square.getColumn() < 0
+        || square.getColumn() >= this.columns) {
+      throw new IllegalArgumentException("Square " + square + " is outside the maze");
+    }
+    return this.maze.getCell(square.getRow(), square.getColumn());
+  }
+
+  /**
+   * @return The maze searched by this planner.
+   */
+  public Maze getMaze() {
+    return this.maze;
+  }
+
+  /**
+   * Moves the start of the path, for example as an agent walks along it.
+   *
+   * @param start
+   *          The new square where the path begins.
+   */
+  public void moveStart(Square start) {
+    int cell = this.toCell(start);
+    this.keyModifier += this.heuristic(this.lastCell, cell);
+    this.lastCell = cell;
+    this.startCell = cell;
+  }
+
+  @Override
+  public void squareChanged(Maze changed, int row, int column, boolean blocked) {
+    int cell = changed.getCell(row, column);
+    this.updateVertex(cell);
+    this.updateNeighbors(cell);
+  }
+
+  /**
+   * Stops listening to changes of the maze.
+   */
+  public void close() {
+    this.maze.removeListener(this);
+  }
+
+  /**
+   * Brings the plan up to date with all changes made since the last plan.
+   *
+   * @return True if a path from the start to the goal exists.
+   */
+  public boolean replan() {
+    int expansions = 0;
+    int start = this.startCell;
+    while (!this.open.isEmpty()) {
+      int top = this.open.peek();
+      int topK1 = this.open.getF(top);
+      int topK2 = this.open.getH(top);
+      int startK2 = Math.min(this.g[start], this.rhs[start]);
+      int startK1 = startK2 + this.keyModifier;
+      boolean topFirst = topK1 < startK1 || (topK1 == startK1 && topK2 < startK2);
+      if (!topFirst && this.rhs[start] == this.g[start]) {
+        break;
+      }
+      ++expansions;
+      int k2 = Math.min(this.g[top], this.rhs[top]);
+      int k1 = k2 + this.heuristic(start, top) + this.keyModifier;
+      if (topK1 < k1 || (topK1 == k1 && topK2 < k2)) {
+        this.open.update(top, k1, k2);
+      } else if (this.g[top] > this.rhs[top]) {
+        this.g[top] = this.rhs[top];
+        this.open.remove(top);
+        this.updateNeighbors(top);
+      } else {
+        this.g[top] = INFINITY;
+        this.updateVertex(top);
+        this.updateNeighbors(top);
+      }
+    }
+    this.lastExpansions = expansions;
+    this.totalExpansions += expansions;
+    return this.g[start] < INFINITY;
+  }
+
+  private void updateNeighbors(int cell) {
+    int row = cell / this.columns;
+    int column = cell - row * this.columns;
+    if (row > 0) {
+      this.updateVertex(cell - this.columns);
+    }
+    if (row < this.maze.getRows() - 1) {
+      this.updateVertex(cell + this.columns);
+    }
+    if (column < this.columns - 1) {
+      this.updateVertex(cell + 1);
+    }
+    if (column > 0) {
+      this.updateVertex(cell - 1);
+    }
+  }
+
+  // recomputes rhs(x) of the square and queues it if it is inconsistent
+  private void updateVertex(int cell) {
+    int row = cell / this.columns;
+    int column = cell - row * this.columns;
+    if (this.maze.isBlocked(row, column)) {
+      this.rhs[cell] = INFINITY;
+    } else if (cell == this.goalCell) {
+      this.rhs[cell] = 0;
+    } else {
+      int best = INFINITY;
+      best = this.stepThrough(best, row - 1, column);
+      best = this.stepThrough(best, row + 1, column);
+      best = this.stepThrough(best, row, column + 1);
+      best = this.stepThrough(best, row, column - 1);
+      this.rhs[cell] = best;
+    }
+    if (this.g[cell] != this.rhs[cell]) {
+      int k2 = Math.min(this.g[cell], this.rhs[cell]);
+      int k1 = k2 + this.heuristic(this.startCell, cell) + this.keyModifier;
+      if (this.open.contains(cell)) {
+        this.open.update(cell, k1, k2);
+      } else {
+        this.open.insert(cell, k1, k2);
+      }
+    } else if (this.open.contains(cell)) {
+      this.open.remove(cell);
+    }
+  }
+
+  // the cost of reaching the goal by a step to the given neighbor, if lower
+  private int stepThrough(int best, int row, int column) {
+    if (this.maze.isBlocked(row, column)) {
+      return best;
+    }
+    int cost = this.g[row * this.columns + column];
+    return cost < best - 1 ? cost + 1 : best;
+  }
+
+  private int heuristic(int from, int to) {
+    return Math.abs(from / this.columns - to / this.columns) + Math.abs(from % this.columns - to % this.columns);
+  }
+
+  /**
+   * Brings the plan up to date (see {@link #replan()}) and follows it.
+   *
+   * @return The squares along the path from the start to the goal, including
+   *         both the start square and the goal square if a path exists, empty
+   *         otherwise.
+   */
+  public List<Square> getPathFromStartToGoal() {
+    List<Square> path = new ArrayList<Square>();
+    if (!this.replan()) {
+      return path;
+    }
+    int cell = this.startCell;
+    path.add(new Square(cell / this.columns, cell % this.columns));
+    while (cell != this.goalCell) {
+      int row = cell / this.columns;
+      int column = cell - row * this.columns;
+      int next = -1;
+      int best = INFINITY;
+      for (int direction = 0; direction < 4; ++direction) {
+        int nextRow = row + (direction == 0 ? -1 : direction == 1 ? 1 : 0);
+        int nextColumn = column + (direction == 2 ? 1 : direction == 3 ? -1 : 0);
+        if (!this.maze.isBlocked(nextRow, nextColumn)) {
+          int neighbor = nextRow * this.columns + nextColumn;
+          if (this.g[neighbor] < best) {
+            best = this.g[neighbor];
+            next = neighbor;
+          }
+        }
+      }
+      cell = next;
+      path.add(new Square(cell / this.columns, cell % this.columns));
+    }
+    return path;
+  }
+
+  /**
+   * @return The number of squares on the current path, including the start and
+   *         the goal, or 0 if no path exists. The plan is brought up to date
+   *         first.
+   */
+  public int getPathLength() {
+    return this.replan() ? this.g[this.startCell] + 1 : 0;
+  }
+
+  /**
+   * @return The number of squares expanded by the last call to
+   *         {@link #replan()}, which measures the work done to repair the
+   *         plan.
+   */
+  public int getLastExpansions() {
+    return this.lastExpansions;
+  }
+
+  /**
+   * @return The number of squares expanded by all plans so far.
+   */
+  public long getTotalExpansions() {
+    return this.totalExpansions;
+  }
+}
@@ -0,0 +1,104 @@
+package edu.uab.cis.search.maze;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A {@link TileStore} that keeps each tile in its own file of a local
+ * directory.
+ *
+ * A tile whose squares are all open has no file at all, so a sparse world
+ * takes disk space only where it has obstacles. A tile whose squares are all
+ * blocked is a file of a single flag byte, and any other tile is a flag byte
+ * followed by its bitset.
+ */
+public class DirectoryTileStore implements TileStore {
+
+  private static final byte MIXED = 0;
+  private static final byte FULL = 1;
+
+  private Path directory;
+
+  /**
+   * @param directory
+   *          The directory of the tile files, which is created if it does not
+   *          exist.
+   * @throws IOException
+   *           If the directory cannot be created.
+   */
+  public DirectoryTileStore(Path directory) throws IOException {
+    this.directory = Files.createDirectories(directory);
+  }
+
+  /**
+   * @return The directory of the tile files.
+   */
+  public Path getDirectory() {
+    return this.directory;
+  }
+
+  private Path file(int tileRow, int tileColumn) {
+    return this.directory.resolve("tile-" + tileRow + "-" + tileColumn + ".bin");
+  }
+
+  @Override
+  public long[] load(int tileRow, int tileColumn, int words) throws IOException {
+    Path path = this.file(tileRow, tileColumn);
+    if (!Files.exists(path)) {
+      return null;
+    }
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(channel.size(), 1 + 8L * words));
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer) < 0) {
+          break;
+        }
+      }
+      buffer.flip();
+      long[] bits = new long[words];
+      if (buffer.remaining() == 1 && buffer.get(0) == FULL) {
+        Arrays.fill(bits, -1L);
+        return bits;
+      }
+      if (buffer.remaining() != 1 + 8 * words || buffer.get() != MIXED || channel.size() != buffer.limit()) {
+        throw new IOException("Not a tile of " + words + " words: " + path);
+      }
+      buffer.asLongBuffer().get(bits);
+      return bits;
+    }
+  }
+
+  @Override
+  public void save(int tileRow, int tileColumn, long[] bits) throws IOException {
+    Path path = this.file(tileRow, tileColumn);
+    boolean free = true;
+    boolean full = true;
+    for (long word : bits) {
+      free &= word == 0;
+      full &= word == -1L;
+    }
+    if (free) {
+      Files.deleteIfExists(path);
+      return;
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(full ? 1 : 1 + 8 * bits.length);
+    if (full) {
+      buffer.put(FULL);
+    } else {
+      buffer.put(MIXED);
+      buffer.asLongBuffer().put(bits);
+    }
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      buffer.rewind();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+  }
+}
@@ -0,0 +1,301 @@
+package edu.uab.cis.search.maze;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The distance from every square of a maze to one goal square, found by a
+ * single breadth-first search backward from the goal, so that any number of
+ * agents heading for the same goal share one search.
+ *
+ * Distances are kept in an int per square. From any square, the next step
+ * towards the goal is a neighbor one step closer, found in O(1), and the whole
+ * path in time proportional to its length; paths are shortest paths, the same
+ * length as those found by {@link AStarEngine}. When several neighbors are one
+ * step closer, the first of up, down, left and right is taken.
+ *
+ * The search may run as a parallel wavefront on a {@link ForkJoinPool}, which
+ * expands each level of the search in parallel once it is wide enough. A field
+ * is immutable and thread-safe, but describes the maze as it was when the
+ * field was built (see {@link #isCurrent()}).
+ */
+public class FlowField {
+
+  /**
+   * The distance of squares from which the goal cannot be reached.
+   */
+  public static final int UNREACHABLE = -1;
+
+  // squares of a level expanded by one task of a parallel wavefront
+  private static final int CHUNK = 1 << 10;
+
+  private Maze maze;
+  private int rows;
+  private int columns;
+  private long version;
+  private Square goal;
+  private int[] distances;
+
+  private FlowField(Maze maze, Square goal, long version, int[] distances) {
+    this.maze = maze;
+    this.rows = maze.getRows();
+    this.columns = maze.getColumns();
+    this.version = version;
+    this.goal = goal;
+    this.distances = distances;
+  }
+
+  /**
+   * Builds the field of a goal with a single thread.
+   *
+   * @param maze
+   *          The maze.
+   * @param goal
+   *          The square that every path leads to, e.g. {@link Maze#getGoal()}.
+   * @return The field.
+   */
+  public static FlowField build(Maze maze, Square goal) {
+    return build(maze, goal, null);
+  }
+
+  /**
+   * Builds the field of a goal, expanding wide levels of the search in
+   * parallel.
+   *
+   * @param maze
+   *          The maze, which must not change while the field is built.
+   * @param goal
+   *          The square that every path leads to, e.g. {@link Maze#getGoal()}.
+   * @param pool
+   *          The pool that expands the levels of the search, or null to build
+   *          the field with the calling thread alone.
+   * @return The field.
+   */
+  public static FlowField build(Maze maze, Square goal, ForkJoinPool pool) {
+    int rows = maze.getRows();
+    int columns = maze.getColumns();
+    if (goal.getRow() < 0 || goal.getRow() >= rows || goal.getColumn() < 0 || goal.getColumn() >= columns) {
+      throw new IllegalArgumentException("Goal " + goal + " is outside the maze");
+    }
+    long version = maze.getVersion();
+    int[] distances = new int[rows * columns];
+    Arrays.fill(distances, UNREACHABLE);
+    if (!maze.isBlocked(goal)) {
+      int cell = maze.getCell(goal.getRow(), goal.getColumn());
+      distances[cell] = 0;
+      if (pool == null) {
+        search(maze, distances, cell);
+      } else {
+        int[] level = { cell };
+        for (int distance = 1; level.length > 0; ++distance) {
+          level = pool.invoke(new Wave(maze, distances, level, 0, level.length, distance));
+        }
+      }
+    }
+    return new FlowField(maze, goal, version, distances);
+  }
+
+  private static void search(Maze maze, int[] distances, int goal) {
+    int columns = maze.getColumns();
+    int[] queue = new int[distances.length];
+    int tail = 0;
+    queue[tail++] = goal;
+    for (int head = 0; head < tail; ++head) {
+      int cell = queue[head];
+      int row = cell / columns;
+      int column = cell - row * columns;
+      int distance = distances[cell] + 1;
+      tail = visit(maze, distances, row - 1, column, distance, queue, tail);
+      tail = visit(maze, distances, row + 1, column, distance, queue, tail);
+      tail = visit(maze, distances, row, column - 1, distance, queue, tail);
+      tail = visit(maze, distances, row, column + 1, distance, queue, tail);
+    }
+  }
+
+  // records the distance of an open square not yet reached, and queues it
+  private static int visit(Maze maze, int[] distances, int row, int column, int distance, int[] queue, int tail) {
+    if (maze.isBlocked(row, column)) {
+      return tail;
+    }
+    int cell = row * maze.getColumns() + column;
+    if (distances[cell] != UNREACHABLE) {
+      return tail;
+    }
+    distances[cell] = distance;
+    queue[tail] = cell;
+    return tail + 1;
+  }
+
+  /**
+   * Expands a range of one level of the wavefront into the next level. Tasks
+   * may race to reach the same square, but they all write the same distance,
+   * so the worst outcome is that a square is queued twice in the next level.
+   */
+  private static class Wave extends RecursiveTask<int[]> {
+
+    private static final long serialVersionUID = 1L;
+
+    private Maze maze;
+    private int[] distances;
+    private int[] level;
+    private int from;
+    private int to;
+    private int distance;
+
+    Wave(Maze maze, int[] distances, int[] level, int from, int to, int distance) {
+      this.maze = maze;
+      this.distances = distances;
+      this.level = level;
+      this.from = from;
+      this.to = to;
+      this.distance = distance;
+    }
+
+    @Override
+    protected int[] compute() {
+      if (this.to - this.from > CHUNK) {
+        int middle = (this.from + this.to) >>> 1;
+        Wave first = new Wave(this.maze, this.distances, this.level, this.from, middle, this.distance);
+        first.fork();
+        int[] second = new Wave(this.maze, this.distances, this.level, middle, this.to, this.distance).compute();
+        int[] next = first.join();
+        int[] both = Arrays.copyOf(next, next.length + second.length);
+        System.arraycopy(second, 0, both, next.length, second.length);
+        return both;
+      }
+      int columns = this.maze.getColumns();
+      int[] next = new int[4 * (this.to - this.from)];
+      int count = 0;
+      for (int index = this.from; index < this.to; ++index) {
+        int cell = this.level[index];
+        int row = cell / columns;
+        int column = cell - row * columns;
+        count = visit(this.maze, this.distances, row - 1, column, this.distance, next, count);
+        count = visit(this.maze, this.distances, row + 1, column, this.distance, next, count);
+        count = visit(this.maze, this.distances, row, column - 1, this.distance, next, count);
+        count = visit(this.maze, this.distances, row, column + 1, this.distance, next, count);
+      }
+      return Arrays.copyOf(next, count);
+    }
+  }
+
+  /**
+   * @return The maze of this field.
+   */
+  public Maze getMaze() {
+    return this.maze;
+  }
+
+  /**
+   * @return The square that every path leads to.
+   */
+  public Square getGoal() {
+    return this.goal;
+  }
+
+  /**
+   * @return True if the maze has not changed since the field was built.
+   */
+  public boolean isCurrent() {
+    return this.maze.getVersion() == this.version;
+  }
+
+  /**
+   * @return The memory taken by the distances of the field, in bytes.
+   */
+  public long getMemoryBytes() {
+    return 4L * this.distances.length;
+  }
+
+  /**
+   * @param square
+   *          A square of the maze.
+   * @return The number of steps from the square to the goal, or
+   *         {@link #UNREACHABLE} if there is no path or the square is blocked
+   *         or outside the maze.
+   */
+  public int getDistance(Square square) {
+    if (this.maze.isBlocked(square)) {
+      return UNREACHABLE;
+    }
+    return this.distances[square.getRow() * this.columns + square.getColumn()];
+  }
+
+  /**
+   * @param cell
+   *          The cell id of a square of the maze (see
+   *          {@link Maze#getCell(int, int)}).
+   * @return The number of steps from the square to the goal, or
+   *         {@link #UNREACHABLE}.
+   */
+  public int getDistance(int cell) {
+    return this.distances[cell];
+  }
+
+  /**
+   * @param cell
+   *          The cell id of a square from which the goal can be reached.
+   * @return The cell id of the next square on a shortest path to the goal, or
+   *         the cell itself if it is the goal.
+   */
+  public int getNextCell(int cell) {
+    int distance = this.distances[cell];
+    if (distance == UNREACHABLE) {
+      throw new IllegalArgumentException("Cell " + cell + " cannot reach the goal");
+    }
+    if (distance == 0) {
+      return cell;
+    }
+    int row = cell / this.columns;
+    int column = cell - row * this.columns;
+    if (row > 0 && this.distances[cell - this.columns] == distance - 1) {
+      return cell - this.columns;
+    }
+    if (row < this.rows - 1 && this.distances[cell + this.columns] == distance - 1) {
+      return cell + this.columns;
+    }
+    if (column > 0 && this.distances[cell - 1] == distance - 1) {
+      return cell - 1;
+    }
+    return cell + 1;
+  }
+
+  /**
+   * @param square
+   *          A square of the maze.
+   * @return The next square on a shortest path from the square to the goal,
+   *         the square itself if it is the goal, or null if the goal cannot be
+   *         reached from it.
+   */
+  public Square getNextStep(Square square) {
+    if (this.getDistance(square) == UNREACHABLE) {
+      return null;
+    }
+    int next = this.getNextCell(square.getRow() * this.columns + square.getColumn());
+    return new Square(next / this.columns, next % this.columns);
+  }
+
+  /**
+   * Follows the field from a square to the goal, in time proportional to the
+   * length of the path.
+   *
+   * @param start
+   *          The square where the path begins.
+   * @return The path from the start to the goal, which is empty if the goal
+   *         cannot be reached.
+   */
+  public CompactPath getPath(Square start) {
+    int distance = this.getDistance(start);
+    int[] cells = new int[distance + 1];
+    if (distance != UNREACHABLE) {
+      int cell = start.getRow() * this.columns + start.getColumn();
+      cells[0] = cell;
+      for (int index = 1; index <= distance; ++index) {
+        cell = this.getNextCell(cell);
+        cells[index] = cell;
+      }
+    }
+    return CompactPath.fromCells(cells, distance + 1, this.columns);
+  }
+}
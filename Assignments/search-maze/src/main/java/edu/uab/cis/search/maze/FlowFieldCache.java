@@ -0,0 +1,155 @@
+package edu.uab.cis.search.maze;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A cache of {@link FlowField}s, one per goal square, within a budget of
+ * memory.
+ *
+ * Every field takes four bytes per square of the maze, so the budget bounds
+ * the number of fields kept; when a new field does not fit, the least recently
+ * used fields are evicted until it does. A field larger than the whole budget
+ * is built and returned, but not kept. Like {@link PathCache}, the cache is
+ * emptied whenever the maze changes, since every field describes the maze as
+ * it was when the field was built.
+ *
+ * A cache is thread-safe, but builds one field at a time. The fields it
+ * returns are immutable, so any number of agents may follow them at once.
+ */
+public class FlowFieldCache {
+
+  private Maze maze;
+  private long budget;
+  private ForkJoinPool pool;
+  // fields in order of use, the least recently used first
+  private Map<Square, FlowField> fields = new LinkedHashMap<Square, FlowField>(16, 0.75f, true);
+  private long version;
+  private long memoryBytes;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  /**
+   * Creates a cache whose fields are built with a single thread.
+   *
+   * @param maze
+   *          The maze.
+   * @param budget
+   *          The most memory the cached fields may take, in bytes.
+   */
+  public FlowFieldCache(Maze maze, long budget) {
+    this(maze, budget, null);
+  }
+
+  /**
+   * Creates a cache whose fields are built as parallel wavefronts.
+   *
+   * @param maze
+   *          The maze.
+   * @param budget
+   *          The most memory the cached fields may take, in bytes.
+   * @param pool
+   *          The pool that builds the fields, or null to build them with the
+   *          calling thread alone.
+   */
+  public FlowFieldCache(Maze maze, long budget, ForkJoinPool pool) {
+    if (budget < 1) {
+      throw new IllegalArgumentException("Budget must be positive");
+    }
+    this.maze = maze;
+    this.budget = budget;
+    this.pool = pool;
+    this.version = maze.getVersion();
+  }
+
+  /**
+   * Returns the field of the given goal, building it only if it is not
+   * already cached for the current version of the maze.
+   *
+   * @param goal
+   *          The square that every path leads to.
+   * @return The field.
+   */
+  public synchronized FlowField getField(Square goal) {
+    long current = this.maze.getVersion();
+    if (current != this.version) {
+      this.fields.clear();
+      this.memoryBytes = 0;
+      this.version = current;
+    }
+    FlowField field = this.fields.get(goal);
+    if (field != null) {
+      ++this.hits;
+      return field;
+    }
+    ++this.misses;
+    field = FlowField.build(this.maze, goal, this.pool);
+    long bytes = field.getMemoryBytes();
+    if (bytes > this.budget) {
+      return field;
+    }
+    Iterator<FlowField> eldest = this.fields.values().iterator();
+    while (this.memoryBytes + bytes > this.budget) {
+      this.memoryBytes -= eldest.next().getMemoryBytes();
+      eldest.remove();
+      ++this.evictions;
+    }
+    this.fields.put(goal, field);
+    this.memoryBytes += bytes;
+    return field;
+  }
+
+  /**
+   * @return The most memory the cached fields may take, in bytes.
+   */
+  public long getBudget() {
+    return this.budget;
+  }
+
+  /**
+   * @return The memory taken by the cached fields, in bytes.
+   */
+  public synchronized long getMemoryBytes() {
+    return this.memoryBytes;
+  }
+
+  /**
+   * @return The number of fields currently cached.
+   */
+  public synchronized int size() {
+    return this.fields.size();
+  }
+
+  /**
+   * @return The number of requests answered from the cache.
+   */
+  public synchronized long getHits() {
+    return this.hits;
+  }
+
+  /**
+   * @return The number of requests that required building a field.
+   */
+  public synchronized long getMisses() {
+    return this.misses;
+  }
+
+  /**
+   * @return The number of fields evicted to keep the cache within its budget.
+   *         Fields dropped because the maze changed are not counted.
+   */
+  public synchronized long getEvictions() {
+    return this.evictions;
+  }
+
+  /**
+   * Removes all cached fields. The counters are not reset.
+   */
+  public synchronized void clear() {
+    this.fields.clear();
+    this.memoryBytes = 0;
+  }
+}
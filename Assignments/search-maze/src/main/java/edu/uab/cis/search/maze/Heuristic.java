@@ -0,0 +1,22 @@
+package edu.uab.cis.search.maze;
+
+/**
+ * An estimate h(x) of the length of the shortest path between two squares,
+ * used by {@link AStarEngine} in place of the L1 distance.
+ *
+ * For the paths found to be shortest paths, estimates must never exceed the
+ * true distance (admissible), and must not drop by more than 1 across a step
+ * (consistent). Implementations must be thread-safe if shared between engines
+ * on different threads.
+ */
+public interface Heuristic {
+
+  /**
+   * @param cell
+   *          The cell id (see {@link Maze#getCell(int, int)}) of a square.
+   * @param goal
+   *          The cell id of the goal square.
+   * @return A lower bound on the number of steps from the square to the goal.
+   */
+  int estimate(int cell, int goal);
+}
@@ -0,0 +1,582 @@
+package edu.uab.cis.search.maze;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hierarchical path-finding (HPA*) over a single maze.
+ *
+ * When created, the pathfinder splits the maze into square clusters of a fixed
+ * size. Wherever two neighboring clusters share a run of open squares along
+ * their border, it places entrances: one pair of squares facing each other in
+ * the middle of the run, or one pair at each end of runs of
+ * {@value #WIDE_ENTRANCE} or more squares. The entrance squares are the nodes
+ * of an abstract graph, linked by single steps across borders and by the
+ * exact within-cluster distances between entrances of the same cluster.
+ *
+ * A query links the start and the goal to the entrances of their clusters,
+ * runs A* on the abstract graph, and then refines only the clusters along the
+ * chosen abstract path into a full path of squares. Since crossings are
+ * restricted to entrances, paths may be slightly longer than the shortest
+ * path; compare {@link #getPathLength()} against an {@link AStarEngine} to
+ * measure by how much.
+ *
+ * The pathfinder reports its preprocessing time, the size and memory of the
+ * abstract graph, and the latency of the last query. It is not thread-safe.
+ */
+public class HierarchicalPathfinder implements SearchEngine {
+
+  /**
+   * Entrances at least this many squares wide get a transition at each end
+   * rather than a single one in the middle.
+   */
+  public static final int WIDE_ENTRANCE = 6;
+
+  private static final int NONE = -1;
+
+  private Maze maze;
+  private int rows;
+  private int columns;
+  private int clusterSize;
+  private int clusterRows;
+  private int clusterColumns;
+
+  // abstract graph: node squares, and edges in compressed row form
+  private int nodeCount;
+  private int[] nodeCell;
+  private int[] edgeStart;
+  private int[] edgeTarget;
+  private int[] edgeCost;
+  // abstract nodes of each cluster, in compressed row form
+  private int[] clusterNodeStart;
+  private int[] clusterNodes;
+
+  // per-query state of the abstract search; the last two nodes are the start
+  // and the goal
+  private int[] g;
+  private int[] parent;
+  private int[] reached;
+  private int[] closed;
+  private IndexedMinHeap open;
+  private int generation;
+  private int[] startLinkNode;
+  private int[] startLinkCost;
+  private int startLinkCount;
+  private int[] goalLinkCost;
+  private int[] goalLinked;
+  private int[] exploredNodes;
+  private int exploredCount;
+
+  // scratch space for breadth-first searches within one cluster
+  private int[] localDistance;
+  private int[] localParent;
+  private int[] localQueue;
+  private int[] localReached;
+  private int localGeneration;
+
+  private IntList path = new IntList();
+  private long preprocessingNanos;
+  private long lastQueryNanos;
+
+  /**
+   * Preprocesses the given maze into clusters and an abstract graph.
+   *
+   * @param maze
+   *          The maze to be searched. Only its obstacles are used; the start
+   *          and goal are given to each search.
+   * @param clusterSize
+   *          The number of rows and columns of squares in each cluster.
+   */
+  public HierarchicalPathfinder(Maze maze, int clusterSize) {
+    if (clusterSize < 1) {
+      throw new IllegalArgumentException("Cluster size must be positive");
+    }
+    long begin = System.nanoTime();
+    this.maze = maze;
+    this.rows = maze.getRows();
+    this.columns = maze.getColumns();
+    this.clusterSize = clusterSize;
+    this.clusterRows = (this.rows + clusterSize - 1) / clusterSize;
+    this.clusterColumns = (this.columns + clusterSize - 1) / clusterSize;
+    int localCells = clusterSize * clusterSize;
+    this.localDistance = new int[localCells];
+    this.localParent = new int[localCells];
+    this.localQueue = new int[localCells];
+    this.localReached = new int[localCells];
+    this.buildGraph();
+    int searchNodes = this.nodeCount + 2;
+    this.g = new int[searchNodes];
+    this.parent = new int[searchNodes];
+    this.reached = new int[searchNodes];
+    this.closed = new int[searchNodes];
+    this.open = new IndexedMinHeap(searchNodes);
+    this.goalLinkCost = new int[searchNodes];
+    this.goalLinked = new int[searchNodes];
+    this.exploredNodes = new int[searchNodes];
+    int maxClusterNodes = 0;
+    for (int cluster = 0; cluster < this.clusterRows * this.clusterColumns; ++cluster) {
+      maxClusterNodes = Math.max(maxClusterNodes,
+          this.clusterNodeStart[cluster + 1] - this.clusterNodeStart[cluster]);
+    }
+    this.startLinkNode = new int[maxClusterNodes + 1];
+    this.startLinkCost = new int[maxClusterNodes + 1];
+    this.preprocessingNanos = System.nanoTime() - begin;
+  }
+
+  private void buildGraph() {
+    Map<Integer, Integer> cellToNode = new HashMap<Integer, Integer>();
+    IntList cells = new IntList();
+    IntList from = new IntList();
+    IntList to = new IntList();
+    IntList cost = new IntList();
+
+    // entrances and the single-step edges across cluster borders
+    for (int clusterRow = 0; clusterRow < this.clusterRows; ++clusterRow) {
+      for (int clusterColumn = 0; clusterColumn < this.clusterColumns; ++clusterColumn) {
+        int top = clusterRow * this.clusterSize;
+        int left = clusterColumn * this.clusterSize;
+        int bottom = Math.min(this.rows, top + this.clusterSize);
+        int right = Math.min(this.columns, left + this.clusterSize);
+        if (right < this.columns) {
+          int run = 0;
+          for (int row = top; row <= bottom; ++row) {
+            if (row < bottom && !this.maze.isBlocked(row, right - 1) && !this.maze.isBlocked(row, right)) {
+              ++run;
+            } else if (run > 0) {
+              for (int entrance : entrances(row - run, run)) {
+                this.addTransition(this.maze.getCell(entrance, right - 1), this.maze.getCell(entrance, right),
+                    cellToNode, cells, from, to, cost);
+              }
+              run = 0;
+            }
+          }
+        }
+        if (bottom < this.rows) {
+          int run = 0;
+          for (int column = left; column <= right; ++column) {
+            if (column < right && !this.maze.isBlocked(bottom - 1, column) && !this.maze.isBlocked(bottom, column)) {
+              ++run;
+            } else if (run > 0) {
+              for (int entrance : entrances(column - run, run)) {
+                this.addTransition(this.maze.getCell(bottom - 1, entrance), this.maze.getCell(bottom, entrance),
+                    cellToNode, cells, from, to, cost);
+              }
+              run = 0;
+            }
+          }
+        }
+      }
+    }
+    this.nodeCount = cells.size();
+    this.nodeCell = Arrays.copyOf(cells.toArray(), this.nodeCount + 2);
+
+    // group the nodes by cluster
+    int clusters = this.clusterRows * this.clusterColumns;
+    this.clusterNodeStart = new int[clusters + 1];
+    for (int node = 0; node < this.nodeCount; ++node) {
+      ++this.clusterNodeStart[this.clusterOf(this.nodeCell[node]) + 1];
+    }
+    for (int cluster = 0; cluster < clusters; ++cluster) {
+      this.clusterNodeStart[cluster + 1] += this.clusterNodeStart[cluster];
+    }
+    this.clusterNodes = new int[this.nodeCount];
+    int[] fill = Arrays.copyOf(this.clusterNodeStart, clusters);
+    for (int node = 0; node < this.nodeCount; ++node) {
+      this.clusterNodes[fill[this.clusterOf(this.nodeCell[node])]++] = node;
+    }
+
+    // exact distances between the entrances of each cluster
+    for (int cluster = 0; cluster < clusters; ++cluster) {
+      for (int i = this.clusterNodeStart[cluster]; i < this.clusterNodeStart[cluster + 1]; ++i) {
+        int source = this.clusterNodes[i];
+        this.searchCluster(cluster, this.nodeCell[source]);
+        for (int j = this.clusterNodeStart[cluster]; j < this.clusterNodeStart[cluster + 1]; ++j) {
+          int target = this.clusterNodes[j];
+          int distance = this.localDistanceTo(cluster, this.nodeCell[target]);
+          if (target != source && distance != NONE) {
+            from.add(source);
+            to.add(target);
+            cost.add(distance);
+          }
+        }
+      }
+    }
+
+    // compress the edges by source node
+    int edges = from.size();
+    this.edgeStart = new int[this.nodeCount + 1];
+    for (int edge = 0; edge < edges; ++edge) {
+      ++this.edgeStart[from.get(edge) + 1];
+    }
+    for (int node = 0; node < this.nodeCount; ++node) {
+      this.edgeStart[node + 1] += this.edgeStart[node];
+    }
+    this.edgeTarget = new int[edges];
+    this.edgeCost = new int[edges];
+    fill = Arrays.copyOf(this.edgeStart, this.nodeCount);
+    for (int edge = 0; edge < edges; ++edge) {
+      int index = fill[from.get(edge)]++;
+      this.edgeTarget[index] = to.get(edge);
+      this.edgeCost[index] = cost.get(edge);
+    }
+  }
+
+  // the positions of the transitions along a run of open border squares
+  private static int[] entrances(int first, int length) {
+    if (length < WIDE_ENTRANCE) {
+      return new int[] { first + length / 2 };
+    }
+    return new int[] { first, first + length - 1 };
+  }
+
+  private void addTransition(int cellA, int cellB, Map<Integer, Integer> cellToNode, IntList cells, IntList from,
+      IntList to, IntList cost) {
+    int nodeA = nodeFor(cellA, cellToNode, cells);
+    int nodeB = nodeFor(cellB, cellToNode, cells);
+    from.add(nodeA);
+    to.add(nodeB);
+    cost.add(1);
+    from.add(nodeB);
+    to.add(nodeA);
+    cost.add(1);
+  }
+
+  private static int nodeFor(int cell, Map<Integer, Integer> cellToNode, IntList cells) {
+    Integer node = cellToNode.get(cell);
+    if (node == null) {
+      node = cells.size();
+      cellToNode.put(cell, node);
+      cells.add(cell);
+    }
+    return node;
+  }
+
+  private int clusterOf(int cell) {
+    int row = cell / this.columns;
+    int column = cell - row * this.columns;
+    return (row / this.clusterSize) * this.clusterColumns + column / this.clusterSize;
+  }
+
+  // breadth-first search from the source square, without leaving its cluster
+  private void searchCluster(int cluster, int source) {
+    if (this.localGeneration == Integer.MAX_VALUE) {
+      Arrays.fill(this.localReached, 0);
+      this.localGeneration = 0;
+    }
+    int gen = ++this.localGeneration;
+    int top = (cluster / this.clusterColumns) * this.clusterSize;
+    int left = (cluster % this.clusterColumns) * this.clusterSize;
+    int bottom = Math.min(this.rows, top + this.clusterSize);
+    int right = Math.min(this.columns, left + this.clusterSize);
+    int size = this.clusterSize;
+    int sourceLocal = (source / this.columns - top) * size + source % this.columns - left;
+    this.localReached[sourceLocal] = gen;
+    this.localDistance[sourceLocal] = 0;
+    this.localParent[sourceLocal] = NONE;
+    this.localQueue[0] = sourceLocal;
+    int head = 0;
+    int tail = 1;
+    while (head < tail) {
+      int local = this.localQueue[head++];
+      int row = top + local / size;
+      int column = left + local % size;
+      for (int direction = 0; direction < 4; ++direction) {
+        int nextRow = row + (direction == 0 ? -1 : direction == 1 ? 1 : 0);
+        int nextColumn = column + (direction == 2 ? 1 : direction == 3 ? -1 : 0);
+        if (nextRow < top || nextRow >= bottom || nextColumn < left || nextColumn >= right
+            || this.maze.isBlocked(nextRow, nextColumn)) {
+          continue;
+        }
+        int next = (nextRow - top) * size + nextColumn - left;
+        if (this.localReached[next] != gen) {
+          this.localReached[next] = gen;
+          this.localDistance[next] = this.localDistance[local] + 1;
+          this.localParent[next] = local;
+          this.localQueue[tail++] = next;
+        }
+      }
+    }
+  }
+
+  // the distance found by the last cluster search, or NONE if unreachable
+  private int localDistanceTo(int cluster, int cell) {
+    int local = this.toLocal(cluster, cell);
+    return this.localReached[local] == this.localGeneration ? this.localDistance[local] : NONE;
+  }
+
+  private int toLocal(int cluster, int cell) {
+    int top = (cluster / this.clusterColumns) * this.clusterSize;
+    int left = (cluster % this.clusterColumns) * this.clusterSize;
+    return (cell / this.columns - top) * this.clusterSize + cell % this.columns - left;
+  }
+
+  @Override
+  public Maze getMaze() {
+    return this.maze;
+  }
+
+  @Override
+  public boolean search(Square start, Square goal) {
+    long begin = System.nanoTime();
+    this.path.clear();
+    this.exploredCount = 0;
+    if (this.generation == Integer.MAX_VALUE) {
+      Arrays.fill(this.reached, 0);
+      Arrays.fill(this.closed, 0);
+      Arrays.fill(this.goalLinked, 0);
+      this.generation = 0;
+    }
+    int gen = ++this.generation;
+    boolean found = !this.maze.isBlocked(start) && !this.maze.isBlocked(goal)
+        && this.searchAbstract(gen, this.maze.getCell(start.getRow(), start.getColumn()),
+            this.maze.getCell(goal.getRow(), goal.getColumn()));
+    if (found) {
+      this.refine();
+    }
+    this.open.clear();
+    this.lastQueryNanos = System.nanoTime() - begin;
+    return found;
+  }
+
+  private boolean searchAbstract(int gen, int startCell, int goalCell) {
+    int startNode = this.nodeCount;
+    int goalNode = this.nodeCount + 1;
+    this.nodeCell[startNode] = startCell;
+    this.nodeCell[goalNode] = goalCell;
+    int startCluster = this.clusterOf(startCell);
+    int goalCluster = this.clusterOf(goalCell);
+
+    // link the goal to the entrances of its cluster
+    this.searchCluster(goalCluster, goalCell);
+    for (int i = this.clusterNodeStart[goalCluster]; i < this.clusterNodeStart[goalCluster + 1]; ++i) {
+      int node = this.clusterNodes[i];
+      int distance = this.localDistanceTo(goalCluster, this.nodeCell[node]);
+      if (distance != NONE) {
+        this.goalLinked[node] = gen;
+        this.goalLinkCost[node] = distance;
+      }
+    }
+    // link the start to the entrances of its cluster, and to the goal if both
+    // are in the same cluster
+    this.searchCluster(startCluster, startCell);
+    this.startLinkCount = 0;
+    if (startCluster == goalCluster && this.localDistanceTo(startCluster, goalCell) != NONE) {
+      this.startLinkNode[this.startLinkCount] = goalNode;
+      this.startLinkCost[this.startLinkCount++] = this.localDistanceTo(startCluster, goalCell);
+    }
+    for (int i = this.clusterNodeStart[startCluster]; i < this.clusterNodeStart[startCluster + 1]; ++i) {
+      int node = this.clusterNodes[i];
+      int distance = this.localDistanceTo(startCluster, this.nodeCell[node]);
+      if (distance != NONE) {
+        this.startLinkNode[this.startLinkCount] = node;
+        this.startLinkCost[this.startLinkCount++] = distance;
+      }
+    }
+
+    this.reached[startNode] = gen;
+    this.g[startNode] = 0;
+    this.parent[startNode] = NONE;
+    int h = this.heuristic(startCell, goalCell);
+    this.open.insert(startNode, h, h);
+    while (!this.open.isEmpty()) {
+      int node = this.open.poll();
+      this.closed[node] = gen;
+      this.exploredNodes[this.exploredCount++] = node;
+      if (node == goalNode) {
+        return true;
+      }
+      if (node == startNode) {
+        for (int link = 0; link < this.startLinkCount; ++link) {
+          this.relax(gen, node, this.startLinkNode[link], this.startLinkCost[link], goalCell);
+        }
+        continue;
+      }
+      for (int edge = this.edgeStart[node]; edge < this.edgeStart[node + 1]; ++edge) {
+        this.relax(gen, node, this.edgeTarget[edge], this.edgeCost[edge], goalCell);
+      }
+      if (this.goalLinked[node] == gen) {
+        this.relax(gen, node, goalNode, this.goalLinkCost[node], goalCell);
+      }
+    }
+    return false;
+  }
+
+  private void relax(int gen, int from, int node, int cost, int goalCell) {
+    if (this.closed[node] == gen) {
+      return;
+    }
+    int g = this.g[from] + cost;
+    if (this.reached[node] != gen) {
+      int h = this.heuristic(this.nodeCell[node], goalCell);
+      this.reached[node] = gen;
+      this.g[node] = g;
+      this.parent[node] = from;
+      this.open.insert(node, g + h, h);
+    } else if (g < this.g[node]) {
+      int h = this.heuristic(this.nodeCell[node], goalCell);
+      this.g[node] = g;
+      this.parent[node] = from;
+      this.open.decreaseKey(node, g + h, h);
+    }
+  }
+
+  private int heuristic(int cell, int goalCell) {
+    return Math.abs(cell / this.columns - goalCell / this.columns)
+        + Math.abs(cell % this.columns - goalCell % this.columns);
+  }
+
+  // expands the abstract path from the start node to the goal node into squares
+  private void refine() {
+    IntList abstractPath = new IntList();
+    for (int node = this.nodeCount + 1; node != NONE; node = this.parent[node]) {
+      abstractPath.add(this.nodeCell[node]);
+    }
+    int previous = abstractPath.get(abstractPath.size() - 1);
+    this.path.add(previous);
+    for (int index = abstractPath.size() - 2; index >= 0; --index) {
+      int cell = abstractPath.get(index);
+      if (cell == previous) {
+        continue;
+      }
+      int cluster = this.clusterOf(cell);
+      if (cluster != this.clusterOf(previous)) {
+        // a single step across a cluster border
+        this.path.add(cell);
+      } else {
+        this.searchCluster(cluster, previous);
+        int mark = this.path.size();
+        for (int local = this.toLocal(cluster, cell); this.localParent[local] != NONE; local = this.localParent[local]) {
+          this.path.add(this.fromLocal(cluster, local));
+        }
+        this.path.reverse(mark, this.path.size());
+      }
+      previous = cell;
+    }
+  }
+
+  private int fromLocal(int cluster, int local) {
+    int top = (cluster / this.clusterColumns) * this.clusterSize;
+    int left = (cluster % this.clusterColumns) * this.clusterSize;
+    return this.maze.getCell(top + local / this.clusterSize, left + local % this.clusterSize);
+  }
+
+  @Override
+  public int getPathLength() {
+    return this.path.size();
+  }
+
+  @Override
+  public int getPath(int[] cells) {
+    System.arraycopy(this.path.elements, 0, cells, 0, this.path.size());
+    return this.path.size();
+  }
+
+  /**
+   * @return The number of abstract nodes explored by the last search,
+   *         including the start and the goal.
+   */
+  @Override
+  public int getExploredCount() {
+    return this.exploredCount;
+  }
+
+  /**
+   * Copies the cell ids of the abstract nodes explored by the last search into
+   * the given array, in the order they were explored.
+   */
+  @Override
+  public int getExplored(int[] cells) {
+    for (int index = 0; index < this.exploredCount; ++index) {
+      cells[index] = this.nodeCell[this.exploredNodes[index]];
+    }
+    return this.exploredCount;
+  }
+
+  /**
+   * @return The number of rows and columns of squares in each cluster.
+   */
+  public int getClusterSize() {
+    return this.clusterSize;
+  }
+
+  /**
+   * @return The time spent building the clusters and the abstract graph, in
+   *         nanoseconds.
+   */
+  public long getPreprocessingNanos() {
+    return this.preprocessingNanos;
+  }
+
+  /**
+   * @return The time spent by the last search, including refinement, in
+   *         nanoseconds.
+   */
+  public long getLastQueryNanos() {
+    return this.lastQueryNanos;
+  }
+
+  /**
+   * @return The number of entrance squares in the abstract graph.
+   */
+  public int getAbstractNodeCount() {
+    return this.nodeCount;
+  }
+
+  /**
+   * @return The number of (directed) edges in the abstract graph.
+   */
+  public int getAbstractEdgeCount() {
+    return this.edgeTarget.length;
+  }
+
+  /**
+   * @return The approximate number of bytes held by the abstract graph and the
+   *         scratch space for searching it, not counting the maze.
+   */
+  public long getAbstractGraphBytes() {
+    long ints = (long) this.nodeCell.length + this.edgeStart.length + this.edgeTarget.length
+        + this.edgeCost.length + this.clusterNodeStart.length + this.clusterNodes.length;
+    ints += (long) this.g.length * 7 + this.startLinkNode.length * 2;
+    ints += this.localDistance.length * 4L;
+    return ints * 4;
+  }
+
+  // a growable list of primitive ints
+  private static class IntList {
+
+    private int[] elements = new int[16];
+    private int size;
+
+    void add(int element) {
+      if (this.size == this.elements.length) {
+        this.elements = Arrays.copyOf(this.elements, this.size * 2);
+      }
+      this.elements[this.size++] = element;
+    }
+
+    int get(int index) {
+      return this.elements[index];
+    }
+
+    int size() {
+      return this.size;
+    }
+
+    void clear() {
+      this.size = 0;
+    }
+
+    void reverse(int from, int to) {
+      for (int i = from, j = to - 1; i < j; ++i, --j) {
+        int element = this.elements[i];
+        this.elements[i] = this.elements[j];
+        this.elements[j] = element;
+      }
+    }
+
+    int[] toArray() {
+      return Arrays.copyOf(this.elements, this.size);
+    }
+  }
+}
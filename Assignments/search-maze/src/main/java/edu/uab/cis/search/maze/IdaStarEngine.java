@@ -0,0 +1,312 @@
+package edu.uab.cis.search.maze;
+
+import java.util.Arrays;
+
+/**
+ * A reusable Iterative Deepening A* (IDA*) search over a single maze.
+ *
+ * Each iteration is a depth-first search that abandons every path whose
+ * f(x) = g(x) + h(x), with the L1 heuristic, exceeds a threshold; the next
+ * iteration raises the threshold to the smallest f(x) that exceeded it. The
+ * first path found is therefore a shortest path. The only search state is an
+ * explicit stack as deep as the current path and a bitset of the squares on
+ * it (one bit per square, the same as the maze itself), so memory does not
+ * grow with the number of squares explored.
+ *
+ * The price is time: without a closed list, squares are re-expanded once for
+ * every path that reaches them within the threshold, and again in every
+ * iteration, which grows exponentially with the number of detours the shortest
+ * path makes around obstacles. Even small mazes can take longer than any
+ * caller would wait, so every search is bounded: a flood fill over another bit
+ * per square first checks that the goal can be reached at all, since proving
+ * that no path exists would otherwise mean trying every simple path, and a
+ * search that expands more than {@link #getMaxExpansions()} squares gives up
+ * without a path and is marked as abandoned (see {@link #isAbandoned()}).
+ * IDA* suits mazes too large for {@link AStarEngine}'s per-square arrays,
+ * where the shortest path is close to the L1 distance.
+ *
+ * To keep memory bounded, the engine does not record the squares it explores:
+ * {@link #getExploredCount()} is always 0, and {@link #getExpansions()} counts
+ * expansions instead. For the same reason the statistics given to a
+ * {@link SearchListener} count every re-expansion, count a square skipped
+ * because it is already on the current path as a duplicate, and report the
+ * deepest path held as the peak open size. An engine is not thread-safe.
+ */
+public class IdaStarEngine implements SearchEngine {
+
+  /**
+   * The default number of expansions after which a search gives up, enough
+   * for about two seconds of searching.
+   */
+  public static final long DEFAULT_MAX_EXPANSIONS = 1L << 25;
+
+  private static final int NOT_FOUND = Integer.MAX_VALUE;
+
+  private static final int INITIAL_DEPTH = 64;
+
+  private Maze maze;
+  private int columns;
+  private long[] onPath;
+  private Reachability reachability;
+  // the squares of the current path, and the next direction to try from each
+  private int[] stack;
+  private byte[] nextDirection;
+  private int[] path = new int[0];
+  private long expansions;
+  private long maxExpansions = DEFAULT_MAX_EXPANSIONS;
+  private boolean expansionLimitReached;
+  private int iterations;
+  private int goalRow;
+  private int goalColumn;
+  private SearchListener listener = SearchListener.NONE;
+  private SearchCounters counters = new SearchCounters();
+  private boolean counting;
+
+  /**
+   * Creates a search engine for the given maze.
+   *
+   * @param maze
+   *          The maze to be searched. Only its obstacles are used; the start
+   *          and goal are given to each search.
+   */
+  public IdaStarEngine(Maze maze) {
+    this.maze = maze;
+    this.columns = maze.getColumns();
+    this.onPath = new long[(int) (((long) maze.getRows() * this.columns + 63) >>> 6)];
+    this.reachability = new Reachability(maze);
+    this.stack = new int[INITIAL_DEPTH];
+    this.nextDirection = new byte[INITIAL_DEPTH];
+  }
+
+  @Override
+  public Maze getMaze() {
+    return this.maze;
+  }
+
+  /**
+   * @return The number of expansions after which a search gives up.
+   */
+  public long getMaxExpansions() {
+    return this.maxExpansions;
+  }
+
+  /**
+   * @param maxExpansions
+   *          The number of expansions after which a search gives up, at least
+   *          1.
+   */
+  public void setMaxExpansions(long maxExpansions) {
+    if (maxExpansions < 1) {
+      throw new IllegalArgumentException("Expansion limit must be at least 1, found " + maxExpansions);
+    }
+    this.maxExpansions = maxExpansions;
+  }
+
+  @Override
+  public void setSearchListener(SearchListener listener) {
+    this.listener = listener;
+  }
+
+  @Override
+  public boolean search(Square start, Square goal) {
+    if (this.listener == SearchListener.NONE) {
+      this.counting = false;
+      return this.run(start, goal);
+    }
+    this.counting = true;
+    this.counters.begin();
+    boolean result = this.run(start, goal);
+    this.listener.searchFinished(this.counters.finish(start, goal, result, this.getPathLength(),
+        (int) Math.min(this.expansions, Integer.MAX_VALUE)));
+    return result;
+  }
+
+  private boolean run(Square start, Square goal) {
+    this.path = new int[0];
+    this.expansions = 0;
+    this.expansionLimitReached = false;
+    this.iterations = 0;
+    if (this.maze.isBlocked(start) || this.maze.isBlocked(goal)) {
+      return false;
+    }
+    this.goalRow = goal.getRow();
+    this.goalColumn = goal.getColumn();
+    int startCell = this.maze.getCell(start.getRow(), start.getColumn());
+    int goalCell = this.maze.getCell(this.goalRow, this.goalColumn);
+    if (!this.reachability.isReachable(startCell, goalCell)) {
+      return false;
+    }
+    int threshold = this.heuristic(startCell);
+    if (this.counting) {
+      this.counters.generated();
+      this.counters.heuristicEvaluated();
+    }
+    while (threshold != NOT_FOUND) {
+      ++this.iterations;
+      threshold = this.iterate(startCell, goalCell, threshold);
+      if (this.path.length > 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // one depth-first search; returns the next threshold, or NOT_FOUND
+  private int iterate(int startCell, int goalCell, int threshold) {
+    int next = NOT_FOUND;
+    int depth = 0;
+    this.stack[0] = startCell;
+    this.nextDirection[0] = 0;
+    this.mark(startCell);
+    ++this.expansions;
+    if (this.counting) {
+      this.counters.openSize(1);
+    }
+    if (startCell == goalCell) {
+      this.path = new int[] { startCell };
+      this.unmark(startCell);
+      return threshold;
+    }
+    while (depth >= 0) {
+      int cell = this.stack[depth];
+      int direction = this.nextDirection[depth];
+      if (direction == 4) {
+        this.unmark(cell);
+        --depth;
+        continue;
+      }
+      this.nextDirection[depth] = (byte) (direction + 1);
+      int row = cell / this.columns;
+      int column = cell - row * this.columns;
+      int move = this.order(direction, row, column);
+      int nextRow = row + (move == 0 ? -1 : move == 1 ? 1 : 0);
+      int nextColumn = column + (move == 2 ? 1 : move == 3 ? -1 : 0);
+      if (this.maze.isBlocked(nextRow, nextColumn)) {
+        continue;
+      }
+      int child = nextRow * this.columns + nextColumn;
+      if (this.counting) {
+        this.counters.generated();
+      }
+      if (this.isMarked(child)) {
+        if (this.counting) {
+          this.counters.duplicateSkipped();
+        }
+        continue;
+      }
+      int f = depth + 1 + this.heuristic(child);
+      if (this.counting) {
+        this.counters.heuristicEvaluated();
+      }
+      if (f > threshold) {
+        next = Math.min(next, f);
+        continue;
+      }
+      if (this.expansions >= this.maxExpansions) {
+        this.expansionLimitReached = true;
+        for (int index = 0; index <= depth; ++index) {
+          this.unmark(this.stack[index]);
+        }
+        return NOT_FOUND;
+      }
+      ++this.expansions;
+      if (child == goalCell) {
+        this.path = Arrays.copyOf(this.stack, depth + 2);
+        this.path[depth + 1] = child;
+        for (int index = 0; index <= depth; ++index) {
+          this.unmark(this.stack[index]);
+        }
+        return threshold;
+      }
+      if (++depth == this.stack.length) {
+        this.stack = Arrays.copyOf(this.stack, depth * 2);
+        this.nextDirection = Arrays.copyOf(this.nextDirection, depth * 2);
+      }
+      this.stack[depth] = child;
+      this.nextDirection[depth] = 0;
+      this.mark(child);
+      if (this.counting) {
+        this.counters.openSize(depth + 1);
+      }
+    }
+    return next;
+  }
+
+  // tries the moves towards the goal first: 0 up, 1 down, 2 right, 3 left
+  private int order(int direction, int row, int column) {
+    int vertical = this.goalRow < row ? 0 : 1;
+    int horizontal = this.goalColumn < column ? 3 : 2;
+    switch (direction) {
+    case 0:
+      return vertical;
+    case 1:
+      return horizontal;
+    case 2:
+      return horizontal ^ 1;
+    default:
+      return vertical ^ 1;
+    }
+  }
+
+  private int heuristic(int cell) {
+    int row = cell / this.columns;
+    return Math.abs(this.goalRow - row) + Math.abs(this.goalColumn - (cell - row * this.columns));
+  }
+
+  private void mark(int cell) {
+    this.onPath[cell >>> 6] |= 1L << cell;
+  }
+
+  private void unmark(int cell) {
+    this.onPath[cell >>> 6] &= ~(1L << cell);
+  }
+
+  private boolean isMarked(int cell) {
+    return (this.onPath[cell >>> 6] & (1L << cell)) != 0;
+  }
+
+  /**
+   * @return The number of squares expanded by the last search, counting
+   *         every re-expansion.
+   */
+  public long getExpansions() {
+    return this.expansions;
+  }
+
+  /**
+   * @return True if the last search gave up after
+   *         {@link #getMaxExpansions()} expansions without finding a path.
+   */
+  @Override
+  public boolean isAbandoned() {
+    return this.expansionLimitReached;
+  }
+
+  /**
+   * @return The number of depth-first iterations of the last search.
+   */
+  public int getIterations() {
+    return this.iterations;
+  }
+
+  @Override
+  public int getPathLength() {
+    return this.path.length;
+  }
+
+  @Override
+  public int getPath(int[] cells) {
+    System.arraycopy(this.path, 0, cells, 0, this.path.length);
+    return this.path.length;
+  }
+
+  @Override
+  public int getExploredCount() {
+    return 0;
+  }
+
+  @Override
+  public int getExplored(int[] cells) {
+    return 0;
+  }
+}
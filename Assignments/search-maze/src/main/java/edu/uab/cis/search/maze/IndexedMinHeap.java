@@ -0,0 +1,279 @@
+package edu.uab.cis.search.maze;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A binary min-heap of cell ids with a position map, supporting insertion,
+ * removal of the minimum, decrease-key and arbitrary updates and removals in
+ * O(log n), and membership tests in O(1).
+ *
+ * Cells are ordered by their f-score, then by their h-score, then by their id.
+ * Cell ids are assigned in row-major order (see {@link Maze#getCell(int, int)}),
+ * so ordering by id is the same as ordering by row and then by column. Unlike
+ * {@link BucketOpenList}, any scores may be queued together.
+ */
+public class IndexedMinHeap implements OpenList {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private static final int ABSENT = -1;
+
+  private int[] position;
+  private int[] ids;
+  private long[] keys;
+  private int size;
+
+  /**
+   * Creates an empty heap.
+   *
+   * @param cells
+   *          The number of distinct cell ids, i.e. all ids must be in the
+   *          range [0, cells).
+   */
+  public IndexedMinHeap(int cells) {
+    this.position = new int[cells];
+    Arrays.fill(this.position, ABSENT);
+    int capacity = Math.max(1, Math.min(cells, INITIAL_CAPACITY));
+    this.ids = new int[capacity];
+    this.keys = new long[capacity];
+  }
+
+  /**
+   * @return The number of cells in the heap.
+   */
+  @Override
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * @return True if there are no cells in the heap.
+   */
+  @Override
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  /**
+   * @param id
+   *          A cell id.
+   * @return True if the cell is currently in the heap.
+   */
+  @Override
+  public boolean contains(int id) {
+    return this.position[id] != ABSENT;
+  }
+
+  /**
+   * @param id
+   *          A cell id currently in the heap.
+   * @return The f-score with which the cell was queued.
+   */
+  @Override
+  public int getF(int id) {
+    return (int) (this.keys[this.indexOf(id)] >>> 32);
+  }
+
+  /**
+   * @param id
+   *          A cell id currently in the heap.
+   * @return The h-score with which the cell was queued.
+   */
+  @Override
+  public int getH(int id) {
+    return (int) this.keys[this.indexOf(id)];
+  }
+
+  /**
+   * Adds a cell to the heap.
+   *
+   * @param id
+   *          A cell id that is not currently in the heap.
+   * @param f
+   *          The (non-negative) f-score of the cell.
+   * @param h
+   *          The (non-negative) h-score of the cell.
+   */
+  @Override
+  public void insert(int id, int f, int h) {
+    if (this.contains(id)) {
+      throw new IllegalArgumentException("Cell " + id + " is already in the heap");
+    }
+    if (this.size == this.ids.length) {
+      int capacity = (int) Math.min((long) this.ids.length * 2, this.position.length);
+      this.ids = Arrays.copyOf(this.ids, capacity);
+      this.keys = Arrays.copyOf(this.keys, capacity);
+    }
+    int index = this.size++;
+    this.ids[index] = id;
+    this.keys[index] = key(f, h);
+    this.position[id] = index;
+    this.siftUp(index);
+  }
+
+  /**
+   * Lowers the scores of a cell already in the heap.
+   *
+   * @param id
+   *          A cell id currently in the heap.
+   * @param f
+   *          The new f-score, which must not order after the current one.
+   * @param h
+   *          The new h-score.
+   */
+  @Override
+  public void decreaseKey(int id, int f, int h) {
+    int index = this.indexOf(id);
+    long key = key(f, h);
+    if (key > this.keys[index]) {
+      throw new IllegalArgumentException("Cannot increase the key of cell " + id);
+    }
+    this.keys[index] = key;
+    this.siftUp(index);
+  }
+
+  /**
+   * Changes the scores of a cell already in the heap, in either direction.
+   *
+   * @param id
+   *          A cell id currently in the heap.
+   * @param f
+   *          The new f-score.
+   * @param h
+   *          The new h-score.
+   */
+  @Override
+  public void update(int id, int f, int h) {
+    int index = this.indexOf(id);
+    long key = key(f, h);
+    long old = this.keys[index];
+    this.keys[index] = key;
+    if (key < old) {
+      this.siftUp(index);
+    } else {
+      this.siftDown(index);
+    }
+  }
+
+  /**
+   * Removes a cell from the heap.
+   *
+   * @param id
+   *          A cell id currently in the heap.
+   */
+  @Override
+  public void remove(int id) {
+    int index = this.indexOf(id);
+    this.position[id] = ABSENT;
+    int last = --this.size;
+    if (index != last) {
+      this.move(last, index);
+      this.siftDown(index);
+      this.siftUp(index);
+    }
+  }
+
+  /**
+   * @return The id of the minimum cell, without removing it.
+   */
+  @Override
+  public int peek() {
+    if (this.size == 0) {
+      throw new NoSuchElementException();
+    }
+    return this.ids[0];
+  }
+
+  /**
+   * Removes the minimum cell from the heap.
+   *
+   * @return The id of the removed cell.
+   */
+  @Override
+  public int poll() {
+    int id = this.peek();
+    this.position[id] = ABSENT;
+    int last = --this.size;
+    if (last > 0) {
+      this.move(last, 0);
+      this.siftDown(0);
+    }
+    return id;
+  }
+
+  /**
+   * Removes all cells from the heap, in time proportional to the number of
+   * cells in it.
+   */
+  @Override
+  public void clear() {
+    for (int index = 0; index < this.size; ++index) {
+      this.position[this.ids[index]] = ABSENT;
+    }
+    this.size = 0;
+  }
+
+  private int indexOf(int id) {
+    int index = this.position[id];
+    if (index == ABSENT) {
+      throw new NoSuchElementException("Cell " + id + " is not in the heap");
+    }
+    return index;
+  }
+
+  private static long key(int f, int h) {
+    return ((long) f << 32) | (h & 0xFFFFFFFFL);
+  }
+
+  private boolean less(int i, int j) {
+    long ki = this.keys[i];
+    long kj = this.keys[j];
+    return ki < kj || (ki == kj && this.ids[i] < this.ids[j]);
+  }
+
+  private void move(int from, int to) {
+    this.ids[to] = this.ids[from];
+    this.keys[to] = this.keys[from];
+    this.position[this.ids[to]] = to;
+  }
+
+  private void swap(int i, int j) {
+    int id = this.ids[i];
+    long key = this.keys[i];
+    this.ids[i] = this.ids[j];
+    this.keys[i] = this.keys[j];
+    this.ids[j] = id;
+    this.keys[j] = key;
+    this.position[this.ids[i]] = i;
+    this.position[id] = j;
+  }
+
+  private void siftUp(int index) {
+    while (index > 0) {
+      int parent = (index - 1) >>> 1;
+      if (!this.less(index, parent)) {
+        break;
+      }
+      this.swap(index, parent);
+      index = parent;
+    }
+  }
+
+  private void siftDown(int index) {
+    while (true) {
+      int child = 2 * index + 1;
+      if (child >= this.size) {
+        break;
+      }
+      if (child + 1 < this.size && this.less(child + 1, child)) {
+        ++child;
+      }
+      if (!this.less(child, index)) {
+        break;
+      }
+      this.swap(index, child);
+      index = child;
+    }
+  }
+}
@@ -0,0 +1,291 @@
+package edu.uab.cis.search.maze;
+
+import java.util.Arrays;
+
+/**
+ * A reusable Jump Point Search over a single 4-connected maze with uniform step
+ * costs.
+ *
+ * Instead of queuing every open neighbor of a square, the search moves in
+ * straight lines until it reaches a jump point: the goal, a square with a
+ * forced neighbor (a side opening that was blocked one step back), or, when
+ * moving vertically, a square from which a horizontal scan finds a jump point.
+ * Only jump points are queued and explored, which removes the many symmetric
+ * paths through open areas, while the paths found are just as short as those
+ * of {@link AStarEngine}. Jump points are ordered like the squares of
+ * {@link Solver}, by f(x), then h(x), then row, then column.
+ *
+ * Like {@link AStarEngine}, the search state lives in primitive arrays stamped
+ * with a generation number per search. An engine is not thread-safe.
+ */
+public class JumpPointEngine implements SearchEngine {
+
+  private static final int NONE = -1;
+
+  private Maze maze;
+  private int columns;
+  private int[] g;
+  // the previous jump point on the best path to each jump point
+  private int[] parent;
+  private int[] reached;
+  private int[] closed;
+  private IndexedMinHeap open;
+  private int[] explored;
+  private int exploredCount;
+  private int generation;
+  private int goalRow;
+  private int goalColumn;
+  private int goalCell;
+  private boolean found;
+  private SearchListener listener = SearchListener.NONE;
+  private SearchCounters counters = new SearchCounters();
+  private boolean counting;
+
+  /**
+   * Creates a search engine for the given maze.
+   *
+   * @param maze
+   *          The maze to be searched. Only its obstacles are used; the start
+   *          and goal are given to each search.
+   */
+  public JumpPointEngine(Maze maze) {
+    this.maze = maze;
+    this.columns = maze.getColumns();
+    int cells = maze.getRows() * this.columns;
+    this.g = new int[cells];
+    this.parent = new int[cells];
+    this.reached = new int[cells];
+    this.closed = new int[cells];
+    this.open = new IndexedMinHeap(cells);
+    this.explored = new int[cells];
+  }
+
+  @Override
+  public Maze getMaze() {
+    return this.maze;
+  }
+
+  @Override
+  public void setSearchListener(SearchListener listener) {
+    this.listener = listener;
+  }
+
+  @Override
+  public boolean search(Square start, Square goal) {
+    if (this.listener == SearchListener.NONE) {
+      this.counting = false;
+      return this.run(start, goal);
+    }
+    this.counting = true;
+    this.counters.begin();
+    boolean result = this.run(start, goal);
+    this.listener.searchFinished(this.counters.finish(start, goal, result, this.getPathLength(),
+        this.exploredCount));
+    return result;
+  }
+
+  private boolean run(Square start, Square goal) {
+    if (this.generation == Integer.MAX_VALUE) {
+      Arrays.fill(this.reached, 0);
+      Arrays.fill(this.closed, 0);
+      this.generation = 0;
+    }
+    int gen = ++this.generation;
+    this.exploredCount = 0;
+    this.found = false;
+    this.goalCell = NONE;
+    if (this.maze.isBlocked(start) || this.maze.isBlocked(goal)) {
+      return false;
+    }
+    this.goalRow = goal.getRow();
+    this.goalColumn = goal.getColumn();
+    this.goalCell = this.maze.getCell(this.goalRow, this.goalColumn);
+    int startCell = this.maze.getCell(start.getRow(), start.getColumn());
+    int h = this.heuristic(start.getRow(), start.getColumn());
+    this.reached[startCell] = gen;
+    this.g[startCell] = 0;
+    this.parent[startCell] = NONE;
+    this.open.insert(startCell, h, h);
+    if (this.counting) {
+      this.counters.generated();
+      this.counters.heuristicEvaluated();
+      this.counters.openSize(1);
+    }
+
+    while (!this.open.isEmpty()) {
+      int cell = this.open.poll();
+      this.closed[cell] = gen;
+      this.explored[this.exploredCount++] = cell;
+      if (cell == this.goalCell) {
+        this.found = true;
+        break;
+      }
+      int row = cell / this.columns;
+      int column = cell - row * this.columns;
+      int from = this.parent[cell];
+      if (from == NONE) {
+        this.jumpVertically(cell, row, column, -1);
+        this.jumpVertically(cell, row, column, 1);
+        this.jumpHorizontally(cell, row, column, 1);
+        this.jumpHorizontally(cell, row, column, -1);
+      } else if (from / this.columns == row) {
+        // arrived horizontally: turn either way or keep going
+        this.jumpVertically(cell, row, column, -1);
+        this.jumpVertically(cell, row, column, 1);
+        this.jumpHorizontally(cell, row, column, column > from % this.columns ? 1 : -1);
+      } else {
+        // arrived vertically: turn either way or keep going
+        this.jumpVertically(cell, row, column, row > from / this.columns ? 1 : -1);
+        this.jumpHorizontally(cell, row, column, 1);
+        this.jumpHorizontally(cell, row, column, -1);
+      }
+    }
+    this.open.clear();
+    return this.found;
+  }
+
+  private int heuristic(int row, int column) {
+    return Math.abs(this.goalRow - row) + Math.abs(this.goalColumn - column);
+  }
+
+  private void jumpHorizontally(int from, int row, int column, int direction) {
+    int end = this.scanHorizontally(row, column, direction);
+    if (end != NONE) {
+      this.relax(from, row, end, Math.abs(end - column));
+    }
+  }
+
+  private void jumpVertically(int from, int row, int column, int direction) {
+    int end = this.scanVertically(row, column, direction);
+    if (end != NONE) {
+      this.relax(from, end, column, Math.abs(end - row));
+    }
+  }
+
+  // the column of the next horizontal jump point, or NONE if a wall comes first
+  private int scanHorizontally(int row, int column, int direction) {
+    Maze maze = this.maze;
+    int behind = column;
+    column += direction;
+    while (!maze.isBlocked(row, column)) {
+      if (row == this.goalRow && column == this.goalColumn) {
+        return column;
+      }
+      if ((!maze.isBlocked(row - 1, column) && maze.isBlocked(row - 1, behind))
+          || (!maze.isBlocked(row + 1, column) && maze.isBlocked(row + 1, behind))) {
+        return column;
+      }
+      behind = column;
+      column += direction;
+    }
+    return NONE;
+  }
+
+  // the row of the next vertical jump point, or NONE if a wall comes first
+  private int scanVertically(int row, int column, int direction) {
+    Maze maze = this.maze;
+    int behind = row;
+    row += direction;
+    while (!maze.isBlocked(row, column)) {
+      if (row == this.goalRow && column == this.goalColumn) {
+        return row;
+      }
+      if ((!maze.isBlocked(row, column - 1) && maze.isBlocked(behind, column - 1))
+          || (!maze.isBlocked(row, column + 1) && maze.isBlocked(behind, column + 1))) {
+        return row;
+      }
+      if (this.scanHorizontally(row, column, 1) != NONE
+          || this.scanHorizontally(row, column, -1) != NONE) {
+        return row;
+      }
+      behind = row;
+      row += direction;
+    }
+    return NONE;
+  }
+
+  private void relax(int from, int row, int column, int distance) {
+    int cell = row * this.columns + column;
+    int gen = this.generation;
+    if (this.counting) {
+      this.counters.generated();
+    }
+    if (this.closed[cell] == gen) {
+      if (this.counting) {
+        this.counters.duplicateSkipped();
+      }
+      return;
+    }
+    int cost = this.g[from] + distance;
+    if (this.reached[cell] != gen) {
+      int h = this.heuristic(row, column);
+      this.reached[cell] = gen;
+      this.g[cell] = cost;
+      this.parent[cell] = from;
+      this.open.insert(cell, cost + h, h);
+      if (this.counting) {
+        this.counters.heuristicEvaluated();
+        this.counters.openSize(this.open.size());
+      }
+    } else if (cost < this.g[cell]) {
+      int h = this.heuristic(row, column);
+      this.g[cell] = cost;
+      this.parent[cell] = from;
+      this.open.decreaseKey(cell, cost + h, h);
+      if (this.counting) {
+        this.counters.heuristicEvaluated();
+      }
+    } else if (this.counting) {
+      this.counters.duplicateSkipped();
+    }
+  }
+
+  @Override
+  public int getPathLength() {
+    return this.found ? this.g[this.goalCell] + 1 : 0;
+  }
+
+  /**
+   * Copies the cell ids of the path found by the last search into the given
+   * array, from the start to the goal. The straight runs between consecutive
+   * jump points are filled in, so the result lists every square of the path.
+   */
+  @Override
+  public int getPath(int[] cells) {
+    int length = this.getPathLength();
+    int index = length - 1;
+    int cell = this.goalCell;
+    while (index >= 0) {
+      cells[index--] = cell;
+      int previous = this.parent[cell];
+      if (previous == NONE) {
+        break;
+      }
+      int step = previous / this.columns == cell / this.columns ? 1 : this.columns;
+      step = previous < cell ? -step : step;
+      for (int between = cell + step; between != previous; between += step) {
+        cells[index--] = between;
+      }
+      cell = previous;
+    }
+    return length;
+  }
+
+  /**
+   * @return The number of jump points explored by the last search.
+   */
+  @Override
+  public int getExploredCount() {
+    return this.exploredCount;
+  }
+
+  /**
+   * Copies the cell ids of the jump points explored by the last search into the
+   * given array, in the order they were explored.
+   */
+  @Override
+  public int getExplored(int[] cells) {
+    System.arraycopy(this.explored, 0, cells, 0, this.exploredCount);
+    return this.exploredCount;
+  }
+}
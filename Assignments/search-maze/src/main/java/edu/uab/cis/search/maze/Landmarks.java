@@ -0,0 +1,376 @@
+package edu.uab.cis.search.maze;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * A landmark (ALT) heuristic: exact distances from a few landmark squares to
+ * every square of a maze, which bound the distance between any two squares by
+ * the triangle inequality.
+ *
+ * For a landmark L, the distance from x to the goal is at least
+ * |d(L, goal) - d(L, x)|. The estimate is the largest of these bounds over all
+ * landmarks and the L1 distance, so it is admissible and consistent, and never
+ * weaker than L1. It is much stronger in mazes with long walls, where the
+ * landmark distances already account for the detours.
+ *
+ * Landmarks are spread evenly around the border of the maze, and the distances
+ * from each are found by a breadth-first search, with the searches for
+ * different landmarks running in parallel. The tables hold one int per square
+ * per landmark, and can be saved to a file and loaded again for the same maze.
+ * The tables describe the maze as it was when they were built; after squares
+ * are unblocked, estimates may no longer be admissible, so the tables must be
+ * rebuilt (see {@link #isCurrent()}).
+ */
+public class Landmarks implements Heuristic {
+
+  /**
+   * The distance of squares not reachable from a landmark.
+   */
+  public static final int UNREACHABLE = -1;
+
+  // the estimate for squares that cannot reach the goal, low enough that
+  // adding a path length never overflows
+  private static final int DISCONNECTED = Integer.MAX_VALUE / 4;
+
+  private static final int MAGIC = 0x4D5A4C4D;
+
+  // ints per buffer when reading and writing files
+  private static final int CHUNK = 1 << 16;
+
+  private Maze maze;
+  private int columns;
+  private long version;
+  private int[] landmarks;
+  private int[][] distances;
+
+  private Landmarks(Maze maze, int[] landmarks, int[][] distances) {
+    this.maze = maze;
+    this.columns = maze.getColumns();
+    this.version = maze.getVersion();
+    this.landmarks = landmarks;
+    this.distances = distances;
+  }
+
+  /**
+   * Picks landmarks and computes the distances from each of them.
+   *
+   * @param maze
+   *          The maze.
+   * @param count
+   *          The number of landmarks to pick. Fewer are used if the border of
+   *          the maze has fewer distinct open squares near it.
+   * @param parallelism
+   *          The most searches run at the same time.
+   * @return The landmark tables.
+   */
+  public static Landmarks build(final Maze maze, int count, int parallelism) {
+    if (count < 1) {
+      throw new IllegalArgumentException("At least one landmark is needed, found " + count);
+    }
+    final int[] landmarks = pick(maze, count);
+    int[][] distances = new int[landmarks.length][];
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      List<Callable<int[]>> searches = new ArrayList<Callable<int[]>>();
+      for (final int landmark : landmarks) {
+        searches.add(new Callable<int[]>() {
+          @Override
+          public int[] call() {
+            return distancesFrom(maze, landmark);
+          }
+        });
+      }
+      List<Future<int[]>> results = pool.invokeAll(searches);
+      for (int index = 0; index < landmarks.length; ++index) {
+        distances[index] = results.get(index).get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while building landmarks", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Failed to build landmarks", e.getCause());
+    } finally {
+      pool.shutdown();
+    }
+    return new Landmarks(maze, landmarks, distances);
+  }
+
+  // spreads landmarks evenly around the border, moving each one inward from
+  // the border until it reaches an open square
+  private static int[] pick(Maze maze, int count) {
+    int rows = maze.getRows();
+    int columns = maze.getColumns();
+    long perimeter = rows == 1 || columns == 1 ? (long) rows * columns : 2L * (rows + columns) - 4;
+    int[] picked = new int[count];
+    int found = 0;
+    for (int index = 0; index < count; ++index) {
+      long position = perimeter * index / count;
+      int row;
+      int column;
+      if (position < columns) {
+        row = 0;
+        column = (int) position;
+      } else if (position < columns + rows - 1) {
+        row = (int) (position - columns + 1);
+        column = columns - 1;
+      } else if (position < 2L * columns + rows - 2) {
+        row = rows - 1;
+        column = (int) (2L * columns + rows - 3 - position);
+      } else {
+        row = (int) (perimeter - position);
+        column = 0;
+      }
+      int rowStep = row < rows / 2 ? 1 : -1;
+      int columnStep = column < columns / 2 ? 1 : -1;
+      while (maze.isBlocked(row, column) && row >= 0 && row < rows && column >= 0 && column < columns) {
+        if (Math.abs(rows / 2 - row) * columns >= Math.abs(columns / 2 - column) * rows) {
+          row += rowStep;
+        } else {
+          column += columnStep;
+        }
+      }
+      if (!maze.isBlocked(row, column)) {
+        int cell = maze.getCell(row, column);
+        boolean duplicate = false;
+        for (int other = 0; other < found; ++other) {
+          duplicate |= picked[other] == cell;
+        }
+        if (!duplicate) {
+          picked[found++] = cell;
+        }
+      }
+    }
+    return Arrays.copyOf(picked, found);
+  }
+
+  private static int[] distancesFrom(Maze maze, int landmark) {
+    int columns = maze.getColumns();
+    int[] distance = new int[maze.getRows() * columns];
+    Arrays.fill(distance, UNREACHABLE);
+    int[] queue = new int[distance.length];
+    int head = 0;
+    int tail = 0;
+    distance[landmark] = 0;
+    queue[tail++] = landmark;
+    while (head < tail) {
+      int cell = queue[head++];
+      int row = cell / columns;
+      int column = cell - row * columns;
+      int next = distance[cell] + 1;
+      if (!maze.isBlocked(row - 1, column) && distance[cell - columns] == UNREACHABLE) {
+        distance[cell - columns] = next;
+        queue[tail++] = cell - columns;
+      }
+      if (!maze.isBlocked(row + 1, column) && distance[cell + columns] == UNREACHABLE) {
+        distance[cell + columns] = next;
+        queue[tail++] = cell + columns;
+      }
+      if (!maze.isBlocked(row, column + 1) && distance[cell + 1] == UNREACHABLE) {
+        distance[cell + 1] = next;
+        queue[tail++] = cell + 1;
+      }
+      if (!maze.isBlocked(row, column - 1) && distance[cell - 1] == UNREACHABLE) {
+        distance[cell - 1] = next;
+        queue[tail++] = cell - 1;
+      }
+    }
+    return distance;
+  }
+
+  @Override
+  public int estimate(int cell, int goal) {
+    int rowDifference = cell / this.columns - goal / this.columns;
+    int estimate = Math.abs(rowDifference) + Math.abs(cell - goal - rowDifference * this.columns);
+    for (int[] distance : this.distances) {
+      int fromLandmark = distance[cell];
+      int goalFromLandmark = distance[goal];
+      if (fromLandmark == UNREACHABLE || goalFromLandmark == UNREACHABLE) {
+        if (fromLandmark != goalFromLandmark) {
+          // exactly one of the squares is connected to the landmark
+          return DISCONNECTED;
+        }
+      } else {
+        estimate = Math.max(estimate, Math.abs(goalFromLandmark - fromLandmark));
+      }
+    }
+    return estimate;
+  }
+
+  /**
+   * @return The maze the tables were built for.
+   */
+  public Maze getMaze() {
+    return this.maze;
+  }
+
+  /**
+   * @return True if the maze has not been edited since the tables were built
+   *         or loaded.
+   */
+  public boolean isCurrent() {
+    return this.maze.getVersion() == this.version;
+  }
+
+  /**
+   * @return The number of landmarks.
+   */
+  public int getLandmarkCount() {
+    return this.landmarks.length;
+  }
+
+  /**
+   * @param index
+   *          The index of a landmark.
+   * @return The landmark square.
+   */
+  public Square getLandmark(int index) {
+    int cell = this.landmarks[index];
+    return new Square(cell / this.columns, cell % this.columns);
+  }
+
+  /**
+   * @param index
+   *          The index of a landmark.
+   * @param cell
+   *          The cell id of a square.
+   * @return The length of the shortest path between the landmark and the
+   *         square, or {@link #UNREACHABLE}.
+   */
+  public int getDistance(int index, int cell) {
+    return this.distances[index][cell];
+  }
+
+  /**
+   * Saves the tables to a file, from which {@link #load(Maze, Path)} can
+   * restore them.
+   *
+   * @param path
+   *          The file to be written. Any existing file is replaced.
+   * @throws IOException
+   *           If the file cannot be written.
+   */
+  public void save(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK * 4);
+      buffer.putInt(MAGIC).putInt(this.maze.getRows()).putInt(this.columns).putLong(fingerprint(this.maze))
+          .putInt(this.landmarks.length);
+      buffer.flip();
+      write(channel, buffer);
+      writeInts(channel, buffer, this.landmarks);
+      for (int[] distance : this.distances) {
+        writeInts(channel, buffer, distance);
+      }
+    }
+  }
+
+  /**
+   * Loads tables saved by {@link #save(Path)}.
+   *
+   * @param maze
+   *          The maze the tables were built for. Its obstacles must be the same
+   *          as when the tables were built.
+   * @param path
+   *          The file to be read.
+   * @return The landmark tables.
+   * @throws IOException
+   *           If the file cannot be read, or was not built for the maze.
+   */
+  public static Landmarks load(Maze maze, Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK * 4);
+      buffer.limit(24);
+      read(channel, buffer);
+      buffer.flip();
+      if (buffer.getInt() != MAGIC) {
+        throw new IOException("Not a landmark file: " + path);
+      }
+      int rows = buffer.getInt();
+      int columns = buffer.getInt();
+      long fingerprint = buffer.getLong();
+      if (rows != maze.getRows() || columns != maze.getColumns() || fingerprint != fingerprint(maze)) {
+        throw new IOException("Landmarks in " + path + " were built for a different maze");
+      }
+      int count = buffer.getInt();
+      int cells = rows * columns;
+      if (count < 0 || channel.size() != 24 + 4L * count * (1 + (long) cells)) {
+        throw new IOException("Truncated landmark file: " + path);
+      }
+      int[] landmarks = new int[count];
+      readInts(channel, buffer, landmarks);
+      int[][] distances = new int[count][cells];
+      for (int[] distance : distances) {
+        readInts(channel, buffer, distance);
+      }
+      return new Landmarks(maze, landmarks, distances);
+    }
+  }
+
+  private static void writeInts(FileChannel channel, ByteBuffer buffer, int[] values) throws IOException {
+    for (int offset = 0; offset < values.length; offset += CHUNK) {
+      int length = Math.min(CHUNK, values.length - offset);
+      buffer.clear();
+      buffer.asIntBuffer().put(values, offset, length);
+      buffer.limit(length * 4);
+      write(channel, buffer);
+    }
+  }
+
+  private static void readInts(FileChannel channel, ByteBuffer buffer, int[] values) throws IOException {
+    for (int offset = 0; offset < values.length; offset += CHUNK) {
+      int length = Math.min(CHUNK, values.length - offset);
+      buffer.clear();
+      buffer.limit(length * 4);
+      read(channel, buffer);
+      buffer.flip();
+      IntBuffer ints = buffer.asIntBuffer();
+      ints.get(values, offset, length);
+    }
+  }
+
+  private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  private static void read(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer) < 0) {
+        throw new IOException("Unexpected end of landmark file");
+      }
+    }
+  }
+
+  // a hash of the obstacles, to detect tables loaded for the wrong maze
+  private static long fingerprint(Maze maze) {
+    long hash = 1125899906842597L;
+    long word = 0;
+    int bit = 0;
+    for (int row = 0; row < maze.getRows(); ++row) {
+      for (int column = 0; column < maze.getColumns(); ++column) {
+        if (maze.isBlocked(row, column)) {
+          word |= 1L << bit;
+        }
+        if (++bit == 64) {
+          hash = hash * 31 + word;
+          word = 0;
+          bit = 0;
+        }
+      }
+    }
+    return hash * 31 + word;
+  }
+}
@@ -1,10 +1,18 @@
 package edu.uab.cis.search.maze;
 
+import java.util.List;
 import java.util.Set;
 
+import com.google.common.collect.Lists;
+
 /**
  * A rectangular maze consisting of a start square, a goal square and some
  * obstacle squares between them.
+ * 
+ * Obstacles may be added and removed after the maze is created. Each change
+ * increments the maze's version and is reported to its listeners. A maze is
+ * not thread-safe: it may be read from several threads at once, but must not
+ * be changed while any other thread is using it.
  */
 public class Maze {
 
@@ -12,7 +20,10 @@ public class Maze {
   private int columns;
   private Square start;
   private Square goal;
-  private Set<Square> obstacles;
+  // one bit per square, indexed by cell id, set if the square is an obstacle
+  private long[] obstacles;
+  private long version;
+  private List<MazeListener> listeners = Lists.newArrayList();
 
   /**
    * Creates a rectangular maze.
@@ -29,15 +40,91 @@ public class Maze {
    *          Squares within the maze that cannot be traveled through.
    */
   public Maze(int rows, int columns, Square start, Square goal, Set<Square> obstacles) {
+    this(rows, columns, start, goal, toBitset(rows, columns, obstacles));
+  }
+
+  /**
+   * Creates a rectangular maze from a bitset of obstacles.
+   * 
+   * @param rows
+   *          The number of rows of squares in the maze.
+   * @param columns
+   *          The number of columns of squares in the maze.
+   * @param start
+   *          The start square, where the maze begins.
+   * @param goal
+   *          The goal square, where the maze ends.
+   * @param obstacles
+   *          One bit per square, set if the square cannot be traveled through.
+   *          The bit for the square with id {@code c} (see
+   *          {@link #getCell(int, int)}) is bit {@code c % 64} of
+   *          {@code obstacles[c / 64]}. The array is used directly, not copied.
+   */
+  public Maze(int rows, int columns, Square start, Square goal, long[] obstacles) {
+    if (obstacles.length < words(rows, columns)) {
+      throw new IllegalArgumentException("Obstacle bitset is too small for the maze");
+    }
     this.rows = rows;
     this.columns = columns;
     this.start = start;
     this.goal = goal;
     this.obstacles = obstacles;
-    if (this.isBlocked(start)) {
+    this.checkStartAndGoal();
+  }
+
+  /**
+   * Creates a rectangular maze that keeps its obstacles itself, rather than in
+   * a bitset. Such a maze must override {@link #isBlocked(int, int)} and
+   * {@link #storeBlocked(int, int, boolean)}, and should call
+   * {@link #checkStartAndGoal()} once it can answer
+   * {@link #isBlocked(int, int)}.
+   * 
+   * @param rows
+   *          The number of rows of squares in the maze.
+   * @param columns
+   *          The number of columns of squares in the maze.
+   * @param start
+   *          The start square, where the maze begins.
+   * @param goal
+   *          The goal square, where the maze ends.
+   */
+  protected Maze(int rows, int columns, Square start, Square goal) {
+    words(rows, columns);
+    this.rows = rows;
+    this.columns = columns;
+    this.start = start;
+    this.goal = goal;
+  }
+
+  private static int words(int rows, int columns) {
+    if (rows < 0 || columns < 0 || (long) rows * columns > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Invalid maze size " + rows + "x" + columns);
+    }
+    return (int) (((long) rows * columns + 63) >>> 6);
+  }
+
+  private static long[] toBitset(int rows, int columns, Set<Square> obstacles) {
+    long[] bits = new long[words(rows, columns)];
+    for (Square square : obstacles) {
+      int row = square.getRow();
+      int column = square.getColumn();
+      if (row >= 0 && row < rows && column >= 0 && column < columns) {
+        int cell = row * columns + column;
+        bits[cell >>> 6] |= 1L << cell;
+      }
+    }
+    return bits;
+  }
+
+  /**
+   * @throws IllegalArgumentException
+   *           If the start or the goal square is blocked.
+   */
+  protected final void checkStartAndGoal() {
+    if (this.isBlocked(this.start)) {
       throw new IllegalArgumentException("Start square is blocked");
     }
-    if (this.isBlocked(goal)) {
+    if (this.isBlocked(this.goal)) {
       throw new IllegalArgumentException("Goal square is blocked");
     }
   }
@@ -56,6 +143,35 @@ public class Maze {
     return this.goal;
   }
 
+  /**
+   * @return The number of rows of squares in the maze.
+   */
+  public int getRows() {
+    return this.rows;
+  }
+
+  /**
+   * @return The number of columns of squares in the maze.
+   */
+  public int getColumns() {
+    return this.columns;
+  }
+
+  /**
+   * Identifies a square by a single integer, assigned in row-major order. Ids
+   * range from 0 to {@code rows * columns - 1}, so comparing the ids of two
+   * squares is the same as comparing their rows and then their columns.
+   * 
+   * @param row
+   *          The row in the maze.
+   * @param column
+   *          The column in the maze.
+   * @return The id of the square.
+   */
+  public int getCell(int row, int column) {
+    return row * this.columns + column;
+  }
+
   /**
    * Determines if the given square is blocked by an obstacle.
    * 
@@ -64,10 +180,127 @@ public class Maze {
    * @return True if the square represents an obstacle (or is out of bounds).
    */
   public boolean isBlocked(Square square) {
-    int row = square.getRow();
-    int column = square.getColumn();
-    return row < 0 || row >= this.rows || column < 0 || column >= this.columns
-        || this.obstacles.contains(square);
+    return this.isBlocked(square.getRow(), square.getColumn());
+  }
+
+  /**
+   * Determines if the given square is blocked by an obstacle.
+   * 
+   * @param row
+   *          The row of a square from the maze to be tested.
+   * @param column
+   *          The column of a square from the maze to be tested.
+   * @return True if the square represents an obstacle (or is out of bounds).
+   */
+  public boolean isBlocked(int row, int column) {
+    if (!this.inBounds(row, column)) {
+      return true;
+    }
+    int cell = row * this.columns + column;
+    return (this.obstacles[cell >>> 6] & (1L << cell)) != 0;
+  }
+
+  /**
+   * Makes the given square an obstacle.
+   * 
+   * @param square
+   *          A square within the maze, other than the start or the goal.
+   * @return True if the square was open before, false if it was already an
+   *         obstacle.
+   */
+  public boolean block(Square square) {
+    return this.setBlocked(square.getRow(), square.getColumn(), true);
+  }
+
+  /**
+   * Removes the obstacle from the given square.
+   * 
+   * @param square
+   *          A square within the maze.
+   * @return True if the square was an obstacle before, false if it was already
+   *         open.
+   */
+  public boolean unblock(Square square) {
+    return this.setBlocked(square.getRow(), square.getColumn(), false);
+  }
+
+  private boolean setBlocked(int row, int column, boolean blocked) {
+    if (!this.inBounds(row, column)) {
+      throw new IllegalArgumentException("Square (" + row + "," + column + ") is outside the maze");
+    }
+    if (blocked && ((row == this.start.getRow() && column == this.start.getColumn())
+        || (row == this.goal.getRow() && column == this.goal.getColumn()))) {
+      throw new IllegalArgumentException("Cannot block the start or goal square");
+    }
+    if (this.isBlocked(row, column) == blocked) {
+      return false;
+    }
+    this.storeBlocked(row, column, blocked);
+    ++this.version;
+    for (MazeListener listener : this.listeners) {
+      listener.squareChanged(this, row, column, blocked);
+    }
+    return true;
+  }
+
+  /**
+   * Records that a square within the maze has become blocked or open, before
+   * the change is reported to the listeners.
+   * 
+   * @param row
+   *          The row of the square.
+   * @param column
+   *          The column of the square.
+   * @param blocked
+   *          True if the square is now an obstacle.
+   */
+  protected void storeBlocked(int row, int column, boolean blocked) {
+    int cell = this.getCell(row, column);
+    if (blocked) {
+      this.obstacles[cell >>> 6] |= 1L << cell;
+    } else {
+      this.obstacles[cell >>> 6] &= ~(1L << cell);
+    }
+  }
+
+  /**
+   * @return The number of changes made to the obstacles of this maze since it
+   *         was created.
+   */
+  public long getVersion() {
+    return this.version;
+  }
+
+  /**
+   * Registers a listener to be notified of every change to the obstacles of
+   * this maze.
+   * 
+   * @param listener
+   *          The listener to add.
+   */
+  public void addListener(MazeListener listener) {
+    this.listeners.add(listener);
+  }
+
+  /**
+   * Stops notifying a listener of changes to this maze.
+   * 
+   * @param listener
+   *          The listener to remove.
+   */
+  public void removeListener(MazeListener listener) {
+    this.listeners.remove(listener);
+  }
+
+  /**
+   * @param row
+   *          A row, which may be outside the maze.
+   * @param column
+   *          A column, which may be outside the maze.
+   * @return True if the square is within the maze.
+   */
+  protected final boolean inBounds(int row, int column) {
+    return row >= 0 && row < this.rows && column >= 0 && column < this.columns;
   }
 
   @Override
@@ -82,12 +315,11 @@ public class Maze {
     for (int row = 0; row < this.rows; ++row) {
       builder.append("#");
       for (int column = 0; column < this.columns; ++column) {
-        Square square = new Square(row, column);
-        if (square.equals(this.getStart())) {
+        if (row == this.start.getRow() && column == this.start.getColumn()) {
           builder.append('S');
-        } else if (square.equals(this.getGoal())) {
+        } else if (row == this.goal.getRow() && column == this.goal.getColumn()) {
           builder.append('G');
-        } else if (this.obstacles.contains(square)) {
+        } else if (this.isBlocked(row, column)) {
           builder.append('#');
         } else {
           builder.append(' ');
@@ -0,0 +1,188 @@
+package edu.uab.cis.search.maze;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads and writes mazes in the text format of {@link Maze#toString()}: a
+ * border of '#' around rows of ' ' (open), '#' (obstacle), 'S' (start) and 'G'
+ * (goal) squares, with each row ending in a newline.
+ *
+ * Files are read through memory-mapped windows and decoded straight into the
+ * obstacle bitset of the maze, so no {@link Square} is created per square and
+ * memory use is one bit per square. Like any maze, the file may describe at
+ * most {@link Integer#MAX_VALUE} squares.
+ */
+public class MazeFiles {
+
+  // the largest region of a file mapped at once
+  private static final long WINDOW = 1L << 28;
+
+  private MazeFiles() {
+  }
+
+  /**
+   * Reads a maze from a file.
+   *
+   * @param path
+   *          A file in the format of {@link Maze#toString()}. Lines may end in
+   *          either "\n" or "\r\n". There is exactly one 'S' square and at
+   *          most one 'G' square; a maze whose start is also its goal has no
+   *          'G' square.
+   * @return The maze described by the file.
+   * @throws IOException
+   *           If the file cannot be read or is not a valid maze.
+   */
+  public static Maze read(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, WINDOW));
+
+      // the first line is a border of '#' that determines the width
+      int width = 0;
+      while (width < buffer.limit() && buffer.get(width) == '#') {
+        ++width;
+      }
+      if (width == buffer.limit() && size > width) {
+        throw new IOException("Maze rows are too wide: " + path);
+      }
+      int terminator = width < buffer.limit() && buffer.get(width) == '\r' ? 2 : 1;
+      long lineLength = width + terminator;
+      int columns = width - 2;
+      if (columns < 0 || size % lineLength != 0 || size / lineLength < 2) {
+        throw new IOException("Not a maze: " + path);
+      }
+      long rows = size / lineLength - 2;
+      if (rows * columns > Integer.MAX_VALUE) {
+        throw new IOException("Maze is too large: " + rows + "x" + columns);
+      }
+      checkBorder(buffer, 0, width, terminator, path);
+
+      long[] obstacles = new long[(int) ((rows * columns + 63) >>> 6)];
+      int startRow = -1;
+      int startColumn = -1;
+      int goalRow = -1;
+      int goalColumn = -1;
+      long windowStart = 0;
+      for (int row = 0; row < rows; ++row) {
+        long offset = (row + 1) * lineLength;
+        if (offset + lineLength > windowStart + buffer.limit()) {
+          windowStart = offset;
+          buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+              Math.min(size - offset, Math.max(WINDOW, lineLength)));
+        }
+        int base = (int) (offset - windowStart);
+        if (buffer.get(base) != '#' || buffer.get(base + width - 1) != '#' || !isLineEnd(buffer, base + width,
+            terminator)) {
+          throw new IOException("Malformed maze row " + row + ": " + path);
+        }
+        int cell = row * columns;
+        for (int column = 0; column < columns; ++column, ++cell) {
+          switch (buffer.get(base + 1 + column)) {
+          case ' ':
+            break;
+          case '#':
+            obstacles[cell >>> 6] |= 1L << cell;
+            break;
+          case 'S':
+            if (startRow >= 0) {
+              throw new IOException("Second start square at row " + row + ", column " + column + ": " + path);
+            }
+            startRow = row;
+            startColumn = column;
+            break;
+          case 'G':
+            if (goalRow >= 0) {
+              throw new IOException("Second goal square at row " + row + ", column " + column + ": " + path);
+            }
+            goalRow = row;
+            goalColumn = column;
+            break;
+          default:
+            throw new IOException("Unexpected character at row " + row + ", column " + column + ": " + path);
+          }
+        }
+      }
+      long last = (rows + 1) * lineLength;
+      if (last + lineLength > windowStart + buffer.limit()) {
+        windowStart = last;
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, last, lineLength);
+      }
+      checkBorder(buffer, (int) (last - windowStart), width, terminator, path);
+
+      if (startRow < 0) {
+        throw new IOException("Maze has no start square: " + path);
+      }
+      if (goalRow < 0) {
+        goalRow = startRow;
+        goalColumn = startColumn;
+      }
+      return new Maze((int) rows, columns, new Square(startRow, startColumn), new Square(goalRow, goalColumn),
+          obstacles);
+    }
+  }
+
+  private static void checkBorder(MappedByteBuffer buffer, int base, int width, int terminator, Path path)
+      throws IOException {
+    for (int index = 0; index < width; ++index) {
+      if (buffer.get(base + index) != '#') {
+        throw new IOException("Malformed maze border: " + path);
+      }
+    }
+    if (!isLineEnd(buffer, base + width, terminator)) {
+      throw new IOException("Malformed maze border: " + path);
+    }
+  }
+
+  private static boolean isLineEnd(MappedByteBuffer buffer, int index, int terminator) {
+    return terminator == 1 ? buffer.get(index) == '\n' : buffer.get(index) == '\r' && buffer.get(index + 1) == '\n';
+  }
+
+  /**
+   * Writes a maze to a file, in the same format as {@link Maze#toString()}.
+   *
+   * @param maze
+   *          The maze to be written.
+   * @param path
+   *          The file to be written. Any existing file is replaced.
+   * @throws IOException
+   *           If the file cannot be written.
+   */
+  public static void write(Maze maze, Path path) throws IOException {
+    int rows = maze.getRows();
+    int columns = maze.getColumns();
+    Square start = maze.getStart();
+    Square goal = maze.getGoal();
+    byte[] line = new byte[columns + 3];
+    try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(path), 1 << 20)) {
+      for (int index = 0; index < columns + 2; ++index) {
+        line[index] = '#';
+      }
+      line[columns + 2] = '\n';
+      output.write(line);
+      for (int row = 0; row < rows; ++row) {
+        for (int column = 0; column < columns; ++column) {
+          byte square = maze.isBlocked(row, column) ? (byte) '#' : (byte) ' ';
+          if (row == goal.getRow() && column == goal.getColumn()) {
+            square = 'G';
+          }
+          if (row == start.getRow() && column == start.getColumn()) {
+            square = 'S';
+          }
+          line[column + 1] = square;
+        }
+        output.write(line);
+      }
+      for (int index = 1; index <= columns; ++index) {
+        line[index] = '#';
+      }
+      output.write(line);
+    }
+  }
+}
@@ -0,0 +1,151 @@
+package edu.uab.cis.search.maze;
+
+import java.util.Random;
+
+/**
+ * Generates mazes for tests and benchmarks. Every maze starts in the top-left
+ * square and ends in the bottom-right square.
+ */
+public class MazeGenerator {
+
+  private MazeGenerator() {
+  }
+
+  /**
+   * Creates a maze with obstacles scattered uniformly at random.
+   *
+   * @param rows
+   *          The number of rows of squares in the maze.
+   * @param columns
+   *          The number of columns of squares in the maze.
+   * @param density
+   *          The probability that any square other than the start and the goal
+   *          is an obstacle.
+   * @param seed
+   *          The seed for the random number generator.
+   * @return The generated maze.
+   */
+  public static Maze random(int rows, int columns, double density, long seed) {
+    Random random = new Random(seed);
+    long[] obstacles = new long[words(rows, columns)];
+    for (int cell = 0; cell < rows * columns; ++cell) {
+      if (random.nextDouble() < density) {
+        obstacles[cell >>> 6] |= 1L << cell;
+      }
+    }
+    return create(rows, columns, obstacles);
+  }
+
+  /**
+   * Creates a serpentine maze: every other row is a wall with a single gap,
+   * alternating between the right and left ends, so that the only path
+   * sweeps back and forth across the whole maze.
+   *
+   * @param rows
+   *          The number of rows of squares in the maze.
+   * @param columns
+   *          The number of columns of squares in the maze.
+   * @return The generated maze.
+   */
+  public static Maze corridor(int rows, int columns) {
+    long[] obstacles = new long[words(rows, columns)];
+    for (int row = 1; row < rows - 1; row += 2) {
+      int gap = (row / 2) % 2 == 0 ? columns - 1 : 0;
+      for (int column = 0; column < columns; ++column) {
+        if (column != gap) {
+          int cell = row * columns + column;
+          obstacles[cell >>> 6] |= 1L << cell;
+        }
+      }
+    }
+    return create(rows, columns, obstacles);
+  }
+
+  /**
+   * Creates a maze with obstacles scattered uniformly at random, plus a wall
+   * across the middle row, so that no path exists and a search must exhaust
+   * the whole region reachable from the start before failing.
+   *
+   * @param rows
+   *          The number of rows of squares in the maze (at least 3).
+   * @param columns
+   *          The number of columns of squares in the maze.
+   * @param density
+   *          The probability that any square off the wall other than the start
+   *          and the goal is an obstacle.
+   * @param seed
+   *          The seed for the random number generator.
+   * @return The generated maze.
+   */
+  public static Maze noPath(int rows, int columns, double density, long seed) {
+    if (rows < 3) {
+      throw new IllegalArgumentException("A maze without a path needs at least 3 rows");
+    }
+    Maze maze = random(rows, columns, density, seed);
+    for (int column = 0; column < columns; ++column) {
+      maze.block(new Square(rows / 2, column));
+    }
+    return maze;
+  }
+
+  /**
+   * Creates a floor plan: a grid of empty square rooms separated by walls one
+   * square thick, with a single door at a random place in the wall between
+   * each pair of neighboring rooms. Rooms along the bottom and right edges may
+   * be smaller, or one square larger, than the others.
+   *
+   * @param rows
+   *          The number of rows of squares in the maze.
+   * @param columns
+   *          The number of columns of squares in the maze.
+   * @param roomSize
+   *          The number of rows and columns of open squares in a room (at
+   *          least 1).
+   * @param seed
+   *          The seed for the random number generator.
+   * @return The generated maze.
+   */
+  public static Maze rooms(int rows, int columns, int roomSize, long seed) {
+    if (roomSize < 1) {
+      throw new IllegalArgumentException("Rooms need at least one square");
+    }
+    Random random = new Random(seed);
+    long[] obstacles = new long[words(rows, columns)];
+    int pitch = roomSize + 1;
+    for (int row = 0; row < rows; ++row) {
+      for (int column = 0; column < columns; ++column) {
+        if ((row % pitch == roomSize && row < rows - 1) || (column % pitch == roomSize && column < columns - 1)) {
+          int cell = row * columns + column;
+          obstacles[cell >>> 6] |= 1L << cell;
+        }
+      }
+    }
+    // a door in each wall between two rooms, away from the corners
+    for (int top = 0; top < rows; top += pitch) {
+      for (int left = 0; left < columns; left += pitch) {
+        int height = Math.min(roomSize, rows - top);
+        int width = Math.min(roomSize, columns - left);
+        if (top + roomSize < rows - 1) {
+          int cell = (top + roomSize) * columns + left + random.nextInt(width);
+          obstacles[cell >>> 6] &= ~(1L << cell);
+        }
+        if (left + roomSize < columns - 1) {
+          int cell = (top + random.nextInt(height)) * columns + left + roomSize;
+          obstacles[cell >>> 6] &= ~(1L << cell);
+        }
+      }
+    }
+    return create(rows, columns, obstacles);
+  }
+
+  private static int words(int rows, int columns) {
+    return (int) (((long) rows * columns + 63) >>> 6);
+  }
+
+  private static Maze create(int rows, int columns, long[] obstacles) {
+    int goal = rows * columns - 1;
+    obstacles[0] &= ~1L;
+    obstacles[goal >>> 6] &= ~(1L << goal);
+    return new Maze(rows, columns, new Square(0, 0), new Square(rows - 1, columns - 1), obstacles);
+  }
+}
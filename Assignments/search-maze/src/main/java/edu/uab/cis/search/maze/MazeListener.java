@@ -0,0 +1,23 @@
+package edu.uab.cis.search.maze;
+
+/**
+ * Receives notifications when squares of a maze are blocked or unblocked.
+ * 
+ * @see Maze#addListener(MazeListener)
+ */
+public interface MazeListener {
+
+  /**
+   * Called after a square of the maze has changed.
+   * 
+   * @param maze
+   *          The maze that changed.
+   * @param row
+   *          The row of the square that changed.
+   * @param column
+   *          The column of the square that changed.
+   * @param blocked
+   *          True if the square is now an obstacle, false if it is now open.
+   */
+  void squareChanged(Maze maze, int row, int column, boolean blocked);
+}
@@ -0,0 +1,106 @@
+package edu.uab.cis.search.maze;
+
+/**
+ * The open list of a best-first search: a priority queue of cell ids, ordered
+ * by their f-score, then by their h-score, then by their id, with membership
+ * tests and changes to the scores of queued cells.
+ *
+ * Cell ids are assigned in row-major order (see {@link Maze#getCell(int, int)}),
+ * so ordering by id is the same as ordering by row and then by column. Every
+ * implementation removes cells in exactly the same order.
+ */
+public interface OpenList {
+
+  /**
+   * @return The number of cells in the list.
+   */
+  int size();
+
+  /**
+   * @return True if there are no cells in the list.
+   */
+  boolean isEmpty();
+
+  /**
+   * @param id
+   *          A cell id.
+   * @return True if the cell is currently in the list.
+   */
+  boolean contains(int id);
+
+  /**
+   * @param id
+   *          A cell id currently in the list.
+   * @return The f-score with which the cell was queued.
+   */
+  int getF(int id);
+
+  /**
+   * @param id
+   *          A cell id currently in the list.
+   * @return The h-score with which the cell was queued.
+   */
+  int getH(int id);
+
+  /**
+   * Adds a cell to the list.
+   *
+   * @param id
+   *          A cell id that is not currently in the list.
+   * @param f
+   *          The (non-negative) f-score of the cell.
+   * @param h
+   *          The (non-negative) h-score of the cell.
+   */
+  void insert(int id, int f, int h);
+
+  /**
+   * Lowers the scores of a cell already in the list.
+   *
+   * @param id
+   *          A cell id currently in the list.
+   * @param f
+   *          The new f-score, which must not order after the current one.
+   * @param h
+   *          The new h-score.
+   */
+  void decreaseKey(int id, int f, int h);
+
+  /**
+   * Changes the scores of a cell already in the list, in either direction.
+   *
+   * @param id
+   *          A cell id currently in the list.
+   * @param f
+   *          The new f-score.
+   * @param h
+   *          The new h-score.
+   */
+  void update(int id, int f, int h);
+
+  /**
+   * Removes a cell from the list.
+   *
+   * @param id
+   *          A cell id currently in the list.
+   */
+  void remove(int id);
+
+  /**
+   * @return The id of the minimum cell, without removing it.
+   */
+  int peek();
+
+  /**
+   * Removes the minimum cell from the list.
+   *
+   * @return The id of the removed cell.
+   */
+  int poll();
+
+  /**
+   * Removes all cells from the list, in time proportional to the number of
+   * cells in it.
+   */
+  void clear();
+}
@@ -0,0 +1,525 @@
+package edu.uab.cis.search.maze;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A reusable Hash Distributed A* (HDA*) search over a single maze, which
+ * spreads one search over several threads.
+ *
+ * Every square is owned by exactly one worker thread, chosen by hashing the
+ * 8x8 block of squares it lies in, so that most steps stay within a worker
+ * while the squares near any part of the path are spread over all workers.
+ * Each worker keeps its own open list and is the only thread that reads or
+ * writes g(x) and the parent of the squares it owns. A worker that generates a
+ * square owned by another worker sends it there in a batch through a
+ * lock-free queue.
+ *
+ * The first path that reaches the goal is only an incumbent: workers keep
+ * expanding squares whose f(x) = g(x) + h(x), with the L1 heuristic, is below
+ * its length, and lower it whenever they find a shorter path. The search ends
+ * when every worker is out of such squares and no batch is in flight, which is
+ * detected with a single counter of active workers plus batches in flight
+ * that only reaches zero once no more work can appear. The path is therefore
+ * a shortest path, although it may differ from the one {@link AStarEngine}
+ * finds when several exist.
+ *
+ * A square may be expanded again if a shorter path to it arrives later, so
+ * {@link #getExploredSquares()} may count it more than once in
+ * {@link #getExploredCount()}. The explored squares are listed worker by
+ * worker rather than in the order they were explored. Each worker keeps its
+ * own counters for a {@link SearchListener}, which are summed when the search
+ * ends; the peak open size reported is the sum of the workers' peaks, an upper
+ * bound on the squares open at any one time. Each search starts
+ * its own worker threads, one of which is the calling thread, so the engine
+ * pays off on long queries rather than many short ones (see
+ * {@link BatchSolver}). An engine is not thread-safe; use one engine per
+ * thread.
+ */
+public class ParallelAStarEngine implements SearchEngine {
+
+  private static final int NO_PARENT = -1;
+
+  // the incumbent before any path has been found
+  private static final int NO_PATH = Integer.MAX_VALUE;
+
+  // squares on a side of a block owned by one worker are 1 << BLOCK_SHIFT
+  private static final int BLOCK_SHIFT = 3;
+
+  // squares sent to another worker in one batch
+  private static final int BATCH = 64;
+
+  // expansions after which partly filled batches are sent anyway
+  private static final int FLUSH_INTERVAL = 256;
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private Maze maze;
+  private int columns;
+  private int[] g;
+  private int[] parent;
+  // generation in which a cell's g and parent were last set
+  private int[] reached;
+  private int generation;
+  private Worker[] workers;
+  private int goalCell;
+  private int goalRow;
+  private int goalColumn;
+  private boolean found;
+  // the length of the shortest path found so far, in steps
+  private AtomicInteger incumbent = new AtomicInteger(NO_PATH);
+  // the number of active workers plus the number of batches in flight
+  private AtomicInteger work = new AtomicInteger();
+  private AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+  private volatile boolean aborted;
+  private SearchListener listener = SearchListener.NONE;
+  private SearchCounters counters = new SearchCounters();
+  // read by the workers, but only written before they start
+  private boolean counting;
+
+  /**
+   * Creates a search engine for the given maze with one worker per available
+   * processor.
+   *
+   * @param maze
+   *          The maze to be searched. Only its obstacles are used; the start
+   *          and goal are given to each search.
+   */
+  public ParallelAStarEngine(Maze maze) {
+    this(maze, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Creates a search engine for the given maze.
+   *
+   * @param maze
+   *          The maze to be searched. Only its obstacles are used; the start
+   *          and goal are given to each search.
+   * @param threads
+   *          The number of worker threads that share each search.
+   */
+  public ParallelAStarEngine(Maze maze, int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Threads must be positive: " + threads);
+    }
+    this.maze = maze;
+    this.columns = maze.getColumns();
+    int cells = maze.getRows() * this.columns;
+    this.g = new int[cells];
+    this.parent = new int[cells];
+    this.reached = new int[cells];
+    this.workers = new Worker[threads];
+    for (int index = 0; index < threads; ++index) {
+      this.workers[index] = new Worker(index);
+    }
+  }
+
+  @Override
+  public Maze getMaze() {
+    return this.maze;
+  }
+
+  /**
+   * @return The number of worker threads that share each search.
+   */
+  public int getThreads() {
+    return this.workers.length;
+  }
+
+  @Override
+  public void setSearchListener(SearchListener listener) {
+    this.listener = listener;
+  }
+
+  /**
+   * Searches for a path between the given squares. If the calling thread is
+   * interrupted while waiting for the other workers, the search is abandoned
+   * as if no path exists and the interrupt status is set again.
+   */
+  @Override
+  public boolean search(Square start, Square goal) {
+    if (this.listener == SearchListener.NONE) {
+      this.counting = false;
+      return this.run(start, goal);
+    }
+    this.counting = true;
+    this.counters.begin();
+    boolean result = this.run(start, goal);
+    for (Worker worker : this.workers) {
+      this.counters.add(worker.counters);
+    }
+    this.listener.searchFinished(this.counters.finish(start, goal, result, this.getPathLength(),
+        this.getExploredCount()));
+    return result;
+  }
+
+  private boolean run(Square start, Square goal) {
+    this.nextGeneration();
+    this.found = false;
+    this.goalCell = NO_PARENT;
+    for (Worker worker : this.workers) {
+      worker.reset();
+    }
+    if (this.maze.isBlocked(start) || this.maze.isBlocked(goal)) {
+      return false;
+    }
+    this.goalRow = goal.getRow();
+    this.goalColumn = goal.getColumn();
+    this.goalCell = this.maze.getCell(this.goalRow, this.goalColumn);
+    this.incumbent.set(NO_PATH);
+    this.failure.set(null);
+    this.aborted = false;
+    int h = Math.abs(this.goalRow - start.getRow()) + Math.abs(this.goalColumn - start.getColumn());
+    Worker first = this.workers[this.owner(start.getRow(), start.getColumn())];
+    if (this.counting) {
+      first.counters.generated();
+      first.counters.heuristicEvaluated();
+    }
+    first.relax(this.maze.getCell(start.getRow(), start.getColumn()), 0, h, NO_PARENT);
+
+    // every worker starts out active
+    this.work.set(this.workers.length);
+    Thread[] threads = new Thread[this.workers.length - 1];
+    for (int index = 0; index < threads.length; ++index) {
+      threads[index] = new Thread(this.workers[index + 1], "hda-worker-" + (index + 1));
+      threads[index].setDaemon(true);
+      threads[index].start();
+    }
+    this.workers[0].run();
+    boolean interrupted = false;
+    for (Thread thread : threads) {
+      while (true) {
+        try {
+          thread.join();
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+          this.aborted = true;
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+    Throwable cause = this.failure.get();
+    if (cause instanceof RuntimeException) {
+      throw (RuntimeException) cause;
+    }
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    this.found = this.incumbent.get() != NO_PATH;
+    return this.found;
+  }
+
+  private void nextGeneration() {
+    if (this.generation == Integer.MAX_VALUE) {
+      Arrays.fill(this.reached, 0);
+      this.generation = 0;
+    }
+    ++this.generation;
+  }
+
+  // the worker that owns a square, by a hash of its block
+  private int owner(int row, int column) {
+    int hash = ((row >>> BLOCK_SHIFT) * 0x9E3779B1 + (column >>> BLOCK_SHIFT)) * 0x85EBCA6B;
+    hash ^= hash >>> 16;
+    return (hash & Integer.MAX_VALUE) % this.workers.length;
+  }
+
+  /**
+   * @return True if the last search found a path.
+   */
+  public boolean isPathFound() {
+    return this.found;
+  }
+
+  @Override
+  public int getPathLength() {
+    return this.found ? this.g[this.goalCell] + 1 : 0;
+  }
+
+  @Override
+  public int getPath(int[] cells) {
+    int length = this.getPathLength();
+    int cell = this.goalCell;
+    for (int index = length - 1; index >= 0; --index) {
+      cells[index] = cell;
+      cell = this.parent[cell];
+    }
+    return length;
+  }
+
+  @Override
+  public CompactPath getCompactPath() {
+    return CompactPath.fromParents(this.goalCell, this.parent, this.getPathLength(), this.columns);
+  }
+
+  @Override
+  public int getExploredCount() {
+    int count = this.found ? 1 : 0;
+    for (Worker worker : this.workers) {
+      count += worker.exploredCount;
+    }
+    return count;
+  }
+
+  @Override
+  public int getExplored(int[] cells) {
+    int count = 0;
+    for (Worker worker : this.workers) {
+      System.arraycopy(worker.explored, 0, cells, count, worker.exploredCount);
+      count += worker.exploredCount;
+    }
+    // the goal is never expanded, but ends the search like in A*
+    if (this.found) {
+      cells[count++] = this.goalCell;
+    }
+    return count;
+  }
+
+  /**
+   * One worker of a search, with its own open list and outgoing batches.
+   */
+  private class Worker implements Runnable {
+
+    private int index;
+    private ConcurrentLinkedQueue<int[]> inbox = new ConcurrentLinkedQueue<int[]>();
+    // batches being filled for each worker: a count, then (cell, g, parent)
+    private int[][] outbox;
+    // open list as a binary heap of (f, h) keys, with stale entries skipped
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private int[] cells = new int[INITIAL_CAPACITY];
+    private int size;
+    private int[] explored = new int[INITIAL_CAPACITY];
+    private int exploredCount;
+    private boolean active;
+    private SearchCounters counters = new SearchCounters();
+
+    Worker(int index) {
+      this.index = index;
+      this.outbox = new int[ParallelAStarEngine.this.workers.length][];
+      for (int owner = 0; owner < this.outbox.length; ++owner) {
+        this.outbox[owner] = new int[1 + 3 * BATCH];
+      }
+    }
+
+    void reset() {
+      this.inbox.clear();
+      for (int[] batch : this.outbox) {
+        batch[0] = 0;
+      }
+      this.size = 0;
+      this.exploredCount = 0;
+      this.active = true;
+      this.counters.begin();
+    }
+
+    @Override
+    public void run() {
+      try {
+        this.work();
+      } catch (RuntimeException | Error e) {
+        ParallelAStarEngine.this.failure.compareAndSet(null, e);
+        ParallelAStarEngine.this.aborted = true;
+      }
+    }
+
+    private void work() {
+      AtomicInteger work = ParallelAStarEngine.this.work;
+      while (!ParallelAStarEngine.this.aborted) {
+        int[] batch = this.inbox.poll();
+        if (batch != null) {
+          if (this.active) {
+            work.decrementAndGet();
+          } else {
+            // the batch's count is handed over to this worker
+            this.active = true;
+          }
+          this.receive(batch);
+        } else if (!this.expand()) {
+          this.flush();
+          if (this.active) {
+            this.active = false;
+            work.decrementAndGet();
+          }
+          if (work.get() == 0) {
+            return;
+          }
+          Thread.yield();
+        }
+      }
+    }
+
+    private void receive(int[] batch) {
+      int bound = ParallelAStarEngine.this.incumbent.get();
+      int columns = ParallelAStarEngine.this.columns;
+      for (int offset = 1, end = 1 + 3 * batch[0]; offset < end; offset += 3) {
+        int cell = batch[offset];
+        int cost = batch[offset + 1];
+        int row = cell / columns;
+        int h = Math.abs(ParallelAStarEngine.this.goalRow - row)
+            + Math.abs(ParallelAStarEngine.this.goalColumn - (cell - row * columns));
+        if (ParallelAStarEngine.this.counting) {
+          this.counters.heuristicEvaluated();
+        }
+        if (cost + h < bound) {
+          this.relax(cell, cost, h, batch[offset + 2]);
+        }
+      }
+    }
+
+    // expands the best square in the open list, if it may still improve on
+    // the incumbent
+    private boolean expand() {
+      int bound = ParallelAStarEngine.this.incumbent.get();
+      while (this.size > 0) {
+        long key = this.keys[0];
+        int f = (int) (key >>> 32);
+        if (f >= bound) {
+          return false;
+        }
+        int cell = this.poll();
+        int cost = f - (int) key;
+        if (cost != ParallelAStarEngine.this.g[cell]) {
+          // a shorter path to the square has arrived since it was queued
+          continue;
+        }
+        if (this.exploredCount == this.explored.length) {
+          this.explored = Arrays.copyOf(this.explored, this.exploredCount * 2);
+        }
+        this.explored[this.exploredCount++] = cell;
+        if (this.exploredCount % FLUSH_INTERVAL == 0) {
+          this.flush();
+        }
+        int columns = ParallelAStarEngine.this.columns;
+        int row = cell / columns;
+        int column = cell - row * columns;
+        ++cost;
+        this.generate(cell, cost, row - 1, column, bound);
+        this.generate(cell, cost, row + 1, column, bound);
+        this.generate(cell, cost, row, column + 1, bound);
+        this.generate(cell, cost, row, column - 1, bound);
+        return true;
+      }
+      return false;
+    }
+
+    private void generate(int from, int cost, int row, int column, int bound) {
+      if (ParallelAStarEngine.this.maze.isBlocked(row, column)) {
+        return;
+      }
+      int h = Math.abs(ParallelAStarEngine.this.goalRow - row) + Math.abs(ParallelAStarEngine.this.goalColumn - column);
+      if (ParallelAStarEngine.this.counting) {
+        this.counters.generated();
+        this.counters.heuristicEvaluated();
+      }
+      if (cost + h >= bound) {
+        return;
+      }
+      int cell = row * ParallelAStarEngine.this.columns + column;
+      int owner = ParallelAStarEngine.this.owner(row, column);
+      if (owner == this.index) {
+        this.relax(cell, cost, h, from);
+        return;
+      }
+      int[] batch = this.outbox[owner];
+      int offset = 1 + 3 * batch[0]++;
+      batch[offset] = cell;
+      batch[offset + 1] = cost;
+      batch[offset + 2] = from;
+      if (batch[0] == BATCH) {
+        this.send(owner);
+      }
+    }
+
+    // records a path to a square owned by this worker, if it is shorter
+    void relax(int cell, int cost, int h, int from) {
+      ParallelAStarEngine engine = ParallelAStarEngine.this;
+      if (engine.reached[cell] == engine.generation && engine.g[cell] <= cost) {
+        if (engine.counting) {
+          this.counters.duplicateSkipped();
+        }
+        return;
+      }
+      engine.reached[cell] = engine.generation;
+      engine.g[cell] = cost;
+      engine.parent[cell] = from;
+      if (cell == engine.goalCell) {
+        int current = engine.incumbent.get();
+        while (cost < current && !engine.incumbent.compareAndSet(current, cost)) {
+          current = engine.incumbent.get();
+        }
+        return;
+      }
+      this.push(cost + h, h, cell);
+      if (engine.counting) {
+        this.counters.openSize(this.size);
+      }
+    }
+
+    private void flush() {
+      for (int owner = 0; owner < this.outbox.length; ++owner) {
+        if (this.outbox[owner][0] > 0) {
+          this.send(owner);
+        }
+      }
+    }
+
+    private void send(int owner) {
+      // counted before it can be received, while this worker is still active
+      ParallelAStarEngine.this.work.incrementAndGet();
+      ParallelAStarEngine.this.workers[owner].inbox.offer(this.outbox[owner]);
+      this.outbox[owner] = new int[1 + 3 * BATCH];
+    }
+
+    private void push(int f, int h, int cell) {
+      if (this.size == this.keys.length) {
+        this.keys = Arrays.copyOf(this.keys, this.size * 2);
+        this.cells = Arrays.copyOf(this.cells, this.size * 2);
+      }
+      long key = ((long) f << 32) | h;
+      int index = this.size++;
+      while (index > 0) {
+        int up = (index - 1) >>> 1;
+        if (this.keys[up] <= key) {
+          break;
+        }
+        this.keys[index] = this.keys[up];
+        this.cells[index] = this.cells[up];
+        index = up;
+      }
+      this.keys[index] = key;
+      this.cells[index] = cell;
+    }
+
+    private int poll() {
+      int top = this.cells[0];
+      int last = --this.size;
+      long key = this.keys[last];
+      int cell = this.cells[last];
+      int index = 0;
+      while (true) {
+        int child = 2 * index + 1;
+        if (child >= last) {
+          break;
+        }
+        if (child + 1 < last && this.keys[child + 1] < this.keys[child]) {
+          ++child;
+        }
+        if (this.keys[child] >= key) {
+          break;
+        }
+        this.keys[index] = this.keys[child];
+        this.cells[index] = this.cells[child];
+        index = child;
+      }
+      this.keys[index] = key;
+      this.cells[index] = cell;
+      return top;
+    }
+  }
+}
@@ -0,0 +1,171 @@
+package edu.uab.cis.search.maze;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * A bounded cache of paths in front of a {@link SearchEngine}.
+ *
+ * Paths are keyed by their start square, goal square and the version of the
+ * maze (see {@link Maze#getVersion()}) they were found in, so a path is never
+ * returned once the maze has been edited. When the cache is full, the least
+ * recently used path is evicted. Cached paths are immutable and are returned
+ * without searching again.
+ *
+ * A cache is thread-safe, but serializes searches on its single engine.
+ */
+public class PathCache {
+
+  private SearchEngine engine;
+  private int capacity;
+  private Map<Key, List<Square>> paths;
+  private long version;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  /**
+   * Creates a cache whose misses are solved with A* search.
+   *
+   * @param maze
+   *          The maze to be searched.
+   * @param capacity
+   *          The maximum number of paths to keep.
+   */
+  public PathCache(Maze maze, int capacity) {
+    this(new AStarEngine(maze), capacity);
+  }
+
+  /**
+   * Creates a cache whose misses are solved by the given engine.
+   *
+   * @param engine
+   *          The engine for the maze to be searched.
+   * @param capacity
+   *          The maximum number of paths to keep.
+   */
+  public PathCache(SearchEngine engine, final int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    this.engine = engine;
+    this.capacity = capacity;
+    this.version = engine.getMaze().getVersion();
+    this.paths = new LinkedHashMap<Key, List<Square>>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, List<Square>> eldest) {
+        if (this.size() > capacity) {
+          ++PathCache.this.evictions;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Returns the path between the given squares, searching only if it is not
+   * already cached for the current version of the maze.
+   *
+   * @param start
+   *          The square where the path begins.
+   * @param goal
+   *          The square where the path ends.
+   * @return An immutable list of the squares along the path from the start to
+   *         the goal, including both, or an empty list if no path exists.
+   */
+  public synchronized List<Square> getPath(Square start, Square goal) {
+    long current = this.engine.getMaze().getVersion();
+    if (current != this.version) {
+      // every cached path belongs to an older version, so none can hit again
+      this.paths.clear();
+      this.version = current;
+    }
+    Key key = new Key(start, goal, current);
+    List<Square> path = this.paths.get(key);
+    if (path != null) {
+      ++this.hits;
+      return path;
+    }
+    ++this.misses;
+    this.engine.search(start, goal);
+    path = ImmutableList.copyOf(this.engine.getPathFromStartToGoal());
+    this.paths.put(key, path);
+    return path;
+  }
+
+  /**
+   * @return The maximum number of paths kept.
+   */
+  public int getCapacity() {
+    return this.capacity;
+  }
+
+  /**
+   * @return The number of paths currently cached.
+   */
+  public synchronized int size() {
+    return this.paths.size();
+  }
+
+  /**
+   * @return The number of requests answered from the cache.
+   */
+  public synchronized long getHits() {
+    return this.hits;
+  }
+
+  /**
+   * @return The number of requests that required a search.
+   */
+  public synchronized long getMisses() {
+    return this.misses;
+  }
+
+  /**
+   * @return The number of paths evicted to keep the cache within its capacity.
+   *         Paths dropped because the maze changed are not counted.
+   */
+  public synchronized long getEvictions() {
+    return this.evictions;
+  }
+
+  /**
+   * Removes all cached paths. The counters are not reset.
+   */
+  public synchronized void clear() {
+    this.paths.clear();
+  }
+
+  private static class Key {
+
+    private Square start;
+    private Square goal;
+    private long version;
+
+    Key(Square start, Square goal, long version) {
+      this.start = start;
+      this.goal = goal;
+      this.version = version;
+    }
+
+    @Override
+    public int hashCode() {
+      return (this.start.hashCode() * 31 + this.goal.hashCode()) * 31 + (int) (this.version ^ (this.version >>> 32));
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj instanceof Key) {
+        Key that = (Key) obj;
+        return this.version == that.version && this.start.equals(that.start) && this.goal.equals(that.goal);
+      }
+      return false;
+    }
+  }
+}
@@ -0,0 +1,231 @@
+package edu.uab.cis.search.maze;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Sends path queries to a {@link PathServer} from many client threads at once,
+ * and measures the latency the clients see.
+ *
+ * Run as a program, it starts a server on the loopback interface with a random
+ * maze, sends it random queries and prints what the clients and the server
+ * measured: {@code PathLoadGenerator [size] [density] [queries] [clients]}.
+ */
+public class PathLoadGenerator {
+
+  private PathLoadGenerator() {
+  }
+
+  /**
+   * Asks a server for one path.
+   *
+   * @param port
+   *          The port of the server on the loopback interface.
+   * @param maze
+   *          The name of the maze.
+   * @param query
+   *          The start and goal squares of the path.
+   * @return The path, which is empty if the goal cannot be reached.
+   * @throws IOException
+   *           If the server cannot be reached or rejects the query.
+   */
+  public static List<Square> query(int port, String maze, PathQuery query) throws IOException {
+    Square start = query.getStart();
+    Square goal = query.getGoal();
+    URL url = new URL("http", "127.0.0.1", port, "/path?maze=" + maze + "&start=" + start.getRow() + ","
+        + start.getColumn() + "&goal=" + goal.getRow() + "," + goal.getColumn());
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    try {
+      if (connection.getResponseCode() != 200) {
+        throw new IOException("Query " + query + " failed with status " + connection.getResponseCode());
+      }
+      String json;
+      try (InputStream input = connection.getInputStream()) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        for (int read = input.read(buffer); read >= 0; read = input.read(buffer)) {
+          output.write(buffer, 0, read);
+        }
+        json = new String(output.toByteArray(), StandardCharsets.UTF_8);
+      }
+      return parsePath(json);
+    } finally {
+      connection.disconnect();
+    }
+  }
+
+  // reads the squares of the "path" array of a response
+  private static List<Square> parsePath(String json) throws IOException {
+    int index = json.indexOf("\"path\":[");
+    if (index < 0) {
+      throw new IOException("Not a path: " + json);
+    }
+    List<Square> path = Lists.newArrayList();
+    int[] pair = new int[2];
+    int count = 0;
+    int value = -1;
+    for (index += 8; index < json.length(); ++index) {
+      char c = json.charAt(index);
+      if (c >= '0' && c <= '9') {
+        value = (value < 0 ? 0 : 10 * value) + (c - '0');
+      } else if (value >= 0) {
+        pair[count++] = value;
+        value = -1;
+        if (count == 2) {
+          path.add(new Square(pair[0], pair[1]));
+          count = 0;
+        }
+      }
+    }
+    return path;
+  }
+
+  /**
+   * Sends queries to a server from several client threads, each sending its
+   * next query as soon as its last one is answered, and waits for all of them.
+   *
+   * @param port
+   *          The port of the server on the loopback interface.
+   * @param maze
+   *          The name of the maze.
+   * @param queries
+   *          The queries, each sent once.
+   * @param clients
+   *          The number of client threads.
+   * @return What the clients measured.
+   * @throws InterruptedException
+   *           If interrupted while waiting for the clients.
+   */
+  public static Result run(final int port, final String maze, final List<PathQuery> queries, int clients)
+      throws InterruptedException {
+    final long[] latencies = new long[queries.size()];
+    final AtomicInteger next = new AtomicInteger();
+    final AtomicLong errors = new AtomicLong();
+    Thread[] threads = new Thread[clients];
+    long begin = System.nanoTime();
+    for (int client = 0; client < clients; ++client) {
+      threads[client] = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          for (int index = next.getAndIncrement(); index < queries.size(); index = next.getAndIncrement()) {
+            long sent = System.nanoTime();
+            try {
+              query(port, maze, queries.get(index));
+            } catch (IOException e) {
+              errors.incrementAndGet();
+            }
+            latencies[index] = System.nanoTime() - sent;
+          }
+        }
+      }, "path-load-" + client);
+      threads[client].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    return new Result(latencies, errors.get(), System.nanoTime() - begin);
+  }
+
+  /**
+   * What the clients of a run measured.
+   */
+  public static class Result {
+
+    private long[] latencies;
+    private long errors;
+    private long nanos;
+
+    Result(long[] latencies, long errors, long nanos) {
+      this.latencies = latencies.clone();
+      Arrays.sort(this.latencies);
+      this.errors = errors;
+      this.nanos = nanos;
+    }
+
+    /**
+     * @return The number of queries sent.
+     */
+    public int getRequests() {
+      return this.latencies.length;
+    }
+
+    /**
+     * @return The number of queries that failed.
+     */
+    public long getErrors() {
+      return this.errors;
+    }
+
+    /**
+     * @return The wall-clock time of the whole run, in nanoseconds.
+     */
+    public long getNanos() {
+      return this.nanos;
+    }
+
+    /**
+     * @return The number of queries answered per second.
+     */
+    public double getThroughput() {
+      return this.nanos == 0 ? 0 : 1e9 * (this.latencies.length - this.errors) / this.nanos;
+    }
+
+    /**
+     * @param percentile
+     *          The percentile, from 0 (exclusive) to 100 (inclusive), e.g. 99.
+     * @return The latency of a query as seen by its client, in nanoseconds, or
+     *         0 if no query was sent.
+     */
+    public long getLatencyPercentile(double percentile) {
+      if (!(percentile > 0 && percentile <= 100)) {
+        throw new IllegalArgumentException("Invalid percentile " + percentile);
+      }
+      if (this.latencies.length == 0) {
+        return 0;
+      }
+      return this.latencies[(int) Math.ceil(percentile / 100 * this.latencies.length) - 1];
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%d queries, %d errors, %.0f queries/s, p50 %d us, p99 %d us", this.latencies.length,
+          this.errors, this.getThroughput(), this.getLatencyPercentile(50) / 1000,
+          this.getLatencyPercentile(99) / 1000);
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    int size = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+    double density = args.length > 1 ? Double.parseDouble(args[1]) : 0.25;
+    int count = args.length > 2 ? Integer.parseInt(args[2]) : 20000;
+    int clients = args.length > 3 ? Integer.parseInt(args[3]) : 32;
+    Maze maze = MazeGenerator.random(size, size, density, 42);
+    Random random = new Random(42);
+    List<PathQuery> queries = Lists.newArrayList();
+    for (int index = 0; index < count; ++index) {
+      queries.add(new PathQuery(new Square(random.nextInt(size), random.nextInt(size)),
+          new Square(random.nextInt(size), random.nextInt(size))));
+    }
+    int processors = Runtime.getRuntime().availableProcessors();
+    PathServer server = new PathServer(0, processors);
+    server.addMaze("maze", maze, processors);
+    server.start();
+    try {
+      System.out.println("clients: " + run(server.getPort(), "maze", queries, clients));
+      System.out.println("server:  " + server.getStats());
+    } finally {
+      server.stop();
+    }
+  }
+}
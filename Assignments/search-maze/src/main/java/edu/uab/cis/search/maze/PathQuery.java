@@ -0,0 +1,58 @@
+package edu.uab.cis.search.maze;
+
+import java.util.Objects;
+
+/**
+ * A request for a path between two squares of a maze.
+ */
+public class PathQuery {
+
+  private Square start;
+  private Square goal;
+
+  /**
+   * Creates a path query.
+   * 
+   * @param start
+   *          The square where the path begins.
+   * @param goal
+   *          The square where the path ends.
+   */
+  public PathQuery(Square start, Square goal) {
+    this.start = start;
+    this.goal = goal;
+  }
+
+  /**
+   * @return The square where the path begins.
+   */
+  public Square getStart() {
+    return this.start;
+  }
+
+  /**
+   * @return The square where the path ends.
+   */
+  public Square getGoal() {
+    return this.goal;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.start, this.goal);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj instanceof PathQuery) {
+      PathQuery that = (PathQuery) obj;
+      return this.start.equals(that.start) && this.goal.equals(that.goal);
+    }
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return this.start + "->" + this.goal;
+  }
+}
@@ -0,0 +1,446 @@
+package edu.uab.cis.search.maze;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * An HTTP server on the loopback interface that answers path queries against
+ * mazes kept in memory, so that other processes on the same machine can share
+ * them without loading their own copies.
+ *
+ * The server answers two requests:
+ * <ul>
+ * <li>{@code GET /path?maze=name&start=row,column&goal=row,column} returns
+ * {@code {"found":true,"length":3,"path":[[0,0],[0,1],[1,1]]}}, with an empty
+ * path if the goal cannot be reached, or status 500 if the search gave up
+ * before it could tell (see {@link Solver#isSearchAbandoned()});</li>
+ * <li>{@code GET /stats} returns the counters of {@link #getStats()} as a JSON
+ * object.</li>
+ * </ul>
+ *
+ * Requests are parsed by a small pool of threads, which only queue each query
+ * with the maze it is for. Every maze has a thread that takes all the queries
+ * queued at once as a batch, solves them with a {@link BatchSolver}, whose
+ * engines reuse their search state from one query to the next, and sends the
+ * responses. Queries arriving while a batch is being solved wait for the next
+ * batch, so under load each maze is searched in a few large batches rather
+ * than many small ones.
+ *
+ * If solving a batch fails, every query of the batch is answered with status
+ * 500 and the thread of the maze goes on with the next batch. Queries still
+ * waiting when the server stops are answered with status 503.
+ */
+public class PathServer {
+
+  // the largest number of queries solved in one batch
+  private static final int MAX_BATCH = 1 << 10;
+  // the number of recent requests whose latency is kept for percentiles
+  private static final int LATENCY_SAMPLES = 1 << 12;
+
+  private HttpServer server;
+  private ExecutorService executor;
+  private Map<String, Resident> mazes = new ConcurrentHashMap<String, Resident>();
+  private AtomicLong requests = new AtomicLong();
+  private AtomicLong errors = new AtomicLong();
+  private AtomicLong batches = new AtomicLong();
+  private AtomicLong maxBatch = new AtomicLong();
+  private long[] latencies = new long[LATENCY_SAMPLES];
+  private long answered;
+  private volatile boolean stopping;
+
+  /**
+   * Creates a server bound to the loopback interface. It accepts no requests
+   * until {@link #start()} is called.
+   *
+   * @param port
+   *          The port to listen on, or 0 for any free port.
+   * @param threads
+   *          The number of threads that parse requests.
+   * @throws IOException
+   *           If the port cannot be bound.
+   */
+  public PathServer(int port, int threads) throws IOException {
+    this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+    this.executor = Executors.newFixedThreadPool(threads);
+    this.server.setExecutor(this.executor);
+    this.server.createContext("/path", new HttpHandler() {
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+        PathServer.this.query(exchange);
+      }
+    });
+    this.server.createContext("/stats", new HttpHandler() {
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+        PathServer.this.respond(exchange, 200, toJson(PathServer.this.getStats()));
+      }
+    });
+  }
+
+  /**
+   * Keeps a maze in memory to answer queries, searching it with A*.
+   *
+   * @param name
+   *          The name by which queries ask for the maze.
+   * @param maze
+   *          The maze, which must not change while the server is running.
+   * @param parallelism
+   *          The maximum number of queries of a batch solved at the same time.
+   */
+  public void addMaze(String name, Maze maze, int parallelism) {
+    this.addMaze(name, maze, Solver.Mode.A_STAR, parallelism);
+  }
+
+  /**
+   * Keeps a maze in memory to answer queries.
+   *
+   * @param name
+   *          The name by which queries ask for the maze.
+   * @param maze
+   *          The maze, which must not change while the server is running.
+   * @param mode
+   *          The search algorithm to use.
+   * @param parallelism
+   *          The maximum number of queries of a batch solved at the same time.
+   */
+  public void addMaze(String name, Maze maze, Solver.Mode mode, int parallelism) {
+    Resident resident = new Resident(name, new BatchSolver(maze, mode, parallelism));
+    if (this.mazes.putIfAbsent(name, resident) != null) {
+      resident.solver.shutdown();
+      throw new IllegalArgumentException("A maze named " + name + " is already being served");
+    }
+    resident.start();
+  }
+
+  /**
+   * Starts accepting requests.
+   */
+  public void start() {
+    this.server.start();
+  }
+
+  /**
+   * Stops accepting requests and stops all threads of the server. Queries
+   * still waiting for a batch are answered with status 503.
+   */
+  public void stop() {
+    this.stopping = true;
+    for (Resident resident : this.mazes.values()) {
+      resident.interrupt();
+      List<Pending> waiting = Lists.newArrayList();
+      resident.queue.drainTo(waiting);
+      this.fail(waiting, 503, "{\"error\":\"server is stopping\"}");
+    }
+    this.server.stop(0);
+    for (Resident resident : this.mazes.values()) {
+      resident.solver.shutdown();
+    }
+    this.executor.shutdownNow();
+  }
+
+  /**
+   * @return The port the server listens on.
+   */
+  public int getPort() {
+    return this.server.getAddress().getPort();
+  }
+
+  /**
+   * @return The number of path queries received.
+   */
+  public long getRequests() {
+    return this.requests.get();
+  }
+
+  /**
+   * @return The number of path queries rejected as malformed or for an
+   *         unknown maze, or not answered with a path because their search
+   *         gave up or failed or the server stopped.
+   */
+  public long getErrors() {
+    return this.errors.get();
+  }
+
+  /**
+   * @return The number of batches solved.
+   */
+  public long getBatches() {
+    return this.batches.get();
+  }
+
+  /**
+   * @return The most queries solved in one batch.
+   */
+  public long getMaxBatch() {
+    return this.maxBatch.get();
+  }
+
+  /**
+   * @return The number of queries waiting for a batch, over all mazes.
+   */
+  public int getQueueDepth() {
+    int depth = 0;
+    for (Resident resident : this.mazes.values()) {
+      depth += resident.queue.size();
+    }
+    return depth;
+  }
+
+  /**
+   * Finds a percentile of the time from receiving a path query to sending its
+   * response, over the most recent 4096 queries answered.
+   *
+   * @param percentile
+   *          The percentile, from 0 (exclusive) to 100 (inclusive), e.g. 99.
+   * @return The latency, in nanoseconds, or 0 if no query has been answered.
+   */
+  public long getLatencyPercentile(double percentile) {
+    if (!(percentile > 0 && percentile <= 100)) {
+      throw new IllegalArgumentException("Invalid percentile " + percentile);
+    }
+    long[] samples;
+    synchronized (this.latencies) {
+      samples = Arrays.copyOf(this.latencies, (int) Math.min(this.answered, LATENCY_SAMPLES));
+    }
+    if (samples.length == 0) {
+      return 0;
+    }
+    Arrays.sort(samples);
+    return samples[(int) Math.ceil(percentile / 100 * samples.length) - 1];
+  }
+
+  /**
+   * Exports the counters of the server, e.g. to a metrics system.
+   *
+   * @return The current value of every counter, keyed by name, in a fixed
+   *         order. Latencies are in microseconds.
+   */
+  public Map<String, Long> getStats() {
+    return ImmutableMap.<String, Long> builder()
+        .put("requests", this.getRequests())
+        .put("errors", this.getErrors())
+        .put("batches", this.getBatches())
+        .put("maxBatch", this.getMaxBatch())
+        .put("queueDepth", (long) this.getQueueDepth())
+        .put("p50Micros", this.getLatencyPercentile(50) / 1000)
+        .put("p99Micros", this.getLatencyPercentile(99) / 1000)
+        .build();
+  }
+
+  private void query(HttpExchange exchange) throws IOException {
+    long received = System.nanoTime();
+    this.requests.incrementAndGet();
+    if (this.stopping) {
+      this.errors.incrementAndGet();
+      this.respond(exchange, 503, "{\"error\":\"server is stopping\"}");
+      return;
+    }
+    Map<String, String> parameters = parameters(exchange.getRequestURI());
+    Resident resident = parameters.containsKey("maze") ? this.mazes.get(parameters.get("maze")) : null;
+    if (resident == null) {
+      this.errors.incrementAndGet();
+      this.respond(exchange, 404, "{\"error\":\"unknown maze\"}");
+      return;
+    }
+    Maze maze = resident.solver.getMaze();
+    Square start = parseSquare(parameters.get("start"));
+    Square goal = parseSquare(parameters.get("goal"));
+    if (start == null || goal == null || !inBounds(maze, start) || !inBounds(maze, goal)) {
+      this.errors.incrementAndGet();
+      this.respond(exchange, 400, "{\"error\":\"start and goal must be squares of the maze\"}");
+      return;
+    }
+    // answered by the thread of the maze
+    resident.queue.add(new Pending(exchange, new PathQuery(start, goal), received));
+  }
+
+  private static boolean inBounds(Maze maze, Square square) {
+    return square.getRow() >= 0 && square.getRow() < maze.getRows() && square.getColumn() >= 0
+        && square.getColumn() < maze.getColumns();
+  }
+
+  private static Map<String, String> parameters(URI uri) {
+    Map<String, String> parameters = Maps.newHashMap();
+    String query = uri.getQuery();
+    if (query != null) {
+      for (String parameter : query.split("&")) {
+        int equals = parameter.indexOf('=');
+        if (equals > 0) {
+          parameters.put(parameter.substring(0, equals), parameter.substring(equals + 1));
+        }
+      }
+    }
+    return parameters;
+  }
+
+  // parses "row,column", or returns null
+  private static Square parseSquare(String text) {
+    if (text == null) {
+      return null;
+    }
+    int comma = text.indexOf(',');
+    try {
+      return new Square(Integer.parseInt(text.substring(0, Math.max(comma, 0))),
+          Integer.parseInt(text.substring(comma + 1)));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private static String toJson(List<Square> path) {
+    StringBuilder builder = new StringBuilder();
+    builder.append("{\"found\":").append(!path.isEmpty()).append(",\"length\":").append(path.size());
+    builder.append(",\"path\":[");
+    for (int index = 0; index < path.size(); ++index) {
+      if (index > 0) {
+        builder.append(',');
+      }
+      Square square = path.get(index);
+      builder.append('[').append(square.getRow()).append(',').append(square.getColumn()).append(']');
+    }
+    return builder.append("]}").toString();
+  }
+
+  private static String toJson(Map<String, Long> counters) {
+    StringBuilder builder = new StringBuilder("{");
+    for (Map.Entry<String, Long> entry : counters.entrySet()) {
+      if (builder.length() > 1) {
+        builder.append(',');
+      }
+      builder.append('"').append(entry.getKey()).append("\":").append(entry.getValue());
+    }
+    return builder.append('}').toString();
+  }
+
+  private void respond(HttpExchange exchange, int status, String json) throws IOException {
+    byte[] body = json.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, body.length);
+    try (OutputStream output = exchange.getResponseBody()) {
+      output.write(body);
+    }
+  }
+
+  // answers queries that cannot be solved, counting each as an error
+  private void fail(List<Pending> batch, int status, String json) {
+    for (Pending pending : batch) {
+      this.errors.incrementAndGet();
+      try {
+        this.respond(pending.exchange, status, json);
+      } catch (IOException e) {
+        // the client has gone, which affects no other query
+      }
+    }
+  }
+
+  private void recordLatency(long nanos) {
+    synchronized (this.latencies) {
+      this.latencies[(int) (this.answered++ % LATENCY_SAMPLES)] = nanos;
+    }
+  }
+
+  /**
+   * A path query waiting for its batch.
+   */
+  private static class Pending {
+
+    private HttpExchange exchange;
+    private PathQuery query;
+    private long received;
+
+    Pending(HttpExchange exchange, PathQuery query, long received) {
+      this.exchange = exchange;
+      this.query = query;
+      this.received = received;
+    }
+  }
+
+  /**
+   * A maze kept in memory, with the thread that solves its batches.
+   */
+  private class Resident extends Thread {
+
+    private BatchSolver solver;
+    private LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<Pending>();
+
+    Resident(String name, BatchSolver solver) {
+      super("path-server-" + name);
+      this.solver = solver;
+      this.setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+      List<Pending> batch = Lists.newArrayList();
+      List<PathQuery> queries = Lists.newArrayList();
+      while (!this.isInterrupted()) {
+        try {
+          Pending first = this.queue.poll(100, TimeUnit.MILLISECONDS);
+          if (first == null) {
+            continue;
+          }
+          batch.add(first);
+        } catch (InterruptedException e) {
+          return;
+        }
+        this.queue.drainTo(batch, MAX_BATCH - 1);
+        for (Pending pending : batch) {
+          queries.add(pending.query);
+        }
+        List<List<Square>> paths;
+        try {
+          paths = this.solver.solve(queries);
+        } catch (RuntimeException | Error e) {
+          // a failed search must not stop the thread that answers the maze
+          PathServer.this.fail(batch, 500, "{\"error\":\"search failed\"}");
+          batch.clear();
+          queries.clear();
+          continue;
+        }
+        PathServer.this.batches.incrementAndGet();
+        long size = batch.size();
+        long current = PathServer.this.maxBatch.get();
+        while (size > current && !PathServer.this.maxBatch.compareAndSet(current, size)) {
+          current = PathServer.this.maxBatch.get();
+        }
+        for (int index = 0; index < batch.size(); ++index) {
+          Pending pending = batch.get(index);
+          List<Square> path = paths.get(index);
+          try {
+            if (path == null) {
+              PathServer.this.errors.incrementAndGet();
+              PathServer.this.respond(pending.exchange, 500, "{\"error\":\"search gave up before finding a path\"}");
+            } else {
+              PathServer.this.respond(pending.exchange, 200, toJson(path));
+            }
+          } catch (IOException e) {
+            // the client has gone, which affects no other query
+          }
+          PathServer.this.recordLatency(System.nanoTime() - pending.received);
+        }
+        batch.clear();
+        queries.clear();
+      }
+    }
+  }
+}
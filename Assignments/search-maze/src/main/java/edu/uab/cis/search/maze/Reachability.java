@@ -0,0 +1,91 @@
+package edu.uab.cis.search.maze;
+
+import java.util.Arrays;
+
+/**
+ * A flood fill that tells whether one square of a maze can be reached from
+ * another, for the engines that cannot prove the absence of a path cheaply
+ * themselves. The fill marks squares in a bitset, one bit per square like the
+ * maze itself, and fills whole runs of a row at a time, so its stack holds one
+ * entry per run waiting to be filled rather than one per square. A fill is not
+ * thread-safe.
+ */
+class Reachability {
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  private Maze maze;
+  private int columns;
+  private long[] filled;
+  private int[] stack = new int[INITIAL_CAPACITY];
+
+  Reachability(Maze maze) {
+    this.maze = maze;
+    this.columns = maze.getColumns();
+    this.filled = new long[(int) (((long) maze.getRows() * this.columns + 63) >>> 6)];
+  }
+
+  /**
+   * Fills the open squares connected to the source until the target is found.
+   *
+   * @param source
+   *          The cell id of an open square.
+   * @param target
+   *          The cell id of an open square.
+   * @return True if the target can be reached from the source.
+   */
+  boolean isReachable(int source, int target) {
+    Arrays.fill(this.filled, 0);
+    int size = 0;
+    this.stack[size++] = source;
+    while (size > 0) {
+      int cell = this.stack[--size];
+      if (this.isFilled(cell)) {
+        continue;
+      }
+      int row = cell / this.columns;
+      int left = cell - row * this.columns;
+      int right = left;
+      while (left > 0 && this.isOpen(row, left - 1)) {
+        --left;
+      }
+      while (right + 1 < this.columns && this.isOpen(row, right + 1)) {
+        ++right;
+      }
+      int base = row * this.columns;
+      if (target >= base + left && target <= base + right) {
+        return true;
+      }
+      for (int column = left; column <= right; ++column) {
+        this.fill(base + column);
+      }
+      // the first square of every open run next to this one, above and below
+      for (int next = row - 1; next <= row + 1; next += 2) {
+        boolean inRun = false;
+        for (int column = left; column <= right; ++column) {
+          boolean open = this.isOpen(next, column);
+          if (open && !inRun) {
+            if (size == this.stack.length) {
+              this.stack = Arrays.copyOf(this.stack, size * 2);
+            }
+            this.stack[size++] = next * this.columns + column;
+          }
+          inRun = open;
+        }
+      }
+    }
+    return false;
+  }
+
+  private boolean isOpen(int row, int column) {
+    return !this.maze.isBlocked(row, column) && !this.isFilled(row * this.columns + column);
+  }
+
+  private void fill(int cell) {
+    this.filled[cell >>> 6] |= 1L << cell;
+  }
+
+  private boolean isFilled(int cell) {
+    return (this.filled[cell >>> 6] & (1L << cell)) != 0;
+  }
+}
@@ -0,0 +1,202 @@
+package edu.uab.cis.search.maze;
+
+import java.util.Arrays;
+
+/**
+ * A partition of the open squares of a maze into empty rectangles, as used by
+ * {@link RsrEngine}.
+ *
+ * Rectangles are grown greedily in row-major order: from the first open
+ * square not yet covered, a rectangle is extended right as far as open,
+ * uncovered squares allow, then down as long as the whole next row is open and
+ * uncovered. Every rectangle is thus as wide as it can be, and then as tall,
+ * and large open rooms become a few large rectangles. The partition takes an
+ * int per square, and describes the maze as it was when it was built (see
+ * {@link #isCurrent()}).
+ */
+public class RectangleDecomposition {
+
+  /**
+   * The rectangle of a blocked square, which is in none.
+   */
+  public static final int NONE = -1;
+
+  private Maze maze;
+  private long version;
+  private int columns;
+  // the rectangle of each square, indexed by cell id
+  private int[] rectangles;
+  private int count;
+  private int[] top;
+  private int[] left;
+  private int[] bottom;
+  private int[] right;
+  private long buildNanos;
+
+  private RectangleDecomposition(Maze maze) {
+    this.maze = maze;
+    this.version = maze.getVersion();
+    this.columns = maze.getColumns();
+    this.rectangles = new int[maze.getRows() * this.columns];
+    int capacity = 16;
+    this.top = new int[capacity];
+    this.left = new int[capacity];
+    this.bottom = new int[capacity];
+    this.right = new int[capacity];
+  }
+
+  /**
+   * Partitions the open squares of a maze into rectangles, in time
+   * proportional to the number of squares.
+   *
+   * @param maze
+   *          The maze.
+   * @return The partition.
+   */
+  public static RectangleDecomposition build(Maze maze) {
+    long begin = System.nanoTime();
+    RectangleDecomposition decomposition = new RectangleDecomposition(maze);
+    int rows = maze.getRows();
+    int columns = maze.getColumns();
+    int[] rectangles = decomposition.rectangles;
+    Arrays.fill(rectangles, NONE);
+    for (int row = 0; row < rows; ++row) {
+      for (int column = 0; column < columns; ++column) {
+        int cell = row * columns + column;
+        if (rectangles[cell] != NONE || maze.isBlocked(row, column)) {
+          continue;
+        }
+        int end = column;
+        while (end + 1 < columns && rectangles[cell + end + 1 - column] == NONE && !maze.isBlocked(row, end + 1)) {
+          ++end;
+        }
+        int last = row;
+        while (last + 1 < rows && isFree(maze, rectangles, last + 1, column, end)) {
+          ++last;
+        }
+        int id = decomposition.add(row, column, last, end);
+        for (int covered = row; covered <= last; ++covered) {
+          Arrays.fill(rectangles, covered * columns + column, covered * columns + end + 1, id);
+        }
+        column = end;
+      }
+    }
+    decomposition.buildNanos = System.nanoTime() - begin;
+    return decomposition;
+  }
+
+  // true if the squares from left to right of the row are open and uncovered
+  private static boolean isFree(Maze maze, int[] rectangles, int row, int left, int right) {
+    int base = row * maze.getColumns();
+    for (int column = left; column <= right; ++column) {
+      if (rectangles[base + column] != NONE || maze.isBlocked(row, column)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int add(int top, int left, int bottom, int right) {
+    if (this.count == this.top.length) {
+      int capacity = 2 * this.count;
+      this.top = Arrays.copyOf(this.top, capacity);
+      this.left = Arrays.copyOf(this.left, capacity);
+      this.bottom = Arrays.copyOf(this.bottom, capacity);
+      this.right = Arrays.copyOf(this.right, capacity);
+    }
+    this.top[this.count] = top;
+    this.left[this.count] = left;
+    this.bottom[this.count] = bottom;
+    this.right[this.count] = right;
+    return this.count++;
+  }
+
+  /**
+   * @return The maze of this partition.
+   */
+  public Maze getMaze() {
+    return this.maze;
+  }
+
+  /**
+   * @return True if the maze has not changed since the partition was built.
+   */
+  public boolean isCurrent() {
+    return this.maze.getVersion() == this.version;
+  }
+
+  /**
+   * @return The time taken to build the partition, in nanoseconds.
+   */
+  public long getBuildNanos() {
+    return this.buildNanos;
+  }
+
+  /**
+   * @return The number of rectangles.
+   */
+  public int getRectangleCount() {
+    return this.count;
+  }
+
+  /**
+   * @param cell
+   *          The cell id of a square of the maze (see
+   *          {@link Maze#getCell(int, int)}).
+   * @return The rectangle containing the square, or {@link #NONE} if the
+   *         square is blocked.
+   */
+  public int getRectangle(int cell) {
+    return this.rectangles[cell];
+  }
+
+  /**
+   * @param rectangle
+   *          A rectangle of this partition.
+   * @return The first row of the rectangle.
+   */
+  public int getTop(int rectangle) {
+    return this.top[rectangle];
+  }
+
+  /**
+   * @param rectangle
+   *          A rectangle of this partition.
+   * @return The first column of the rectangle.
+   */
+  public int getLeft(int rectangle) {
+    return this.left[rectangle];
+  }
+
+  /**
+   * @param rectangle
+   *          A rectangle of this partition.
+   * @return The last row of the rectangle.
+   */
+  public int getBottom(int rectangle) {
+    return this.bottom[rectangle];
+  }
+
+  /**
+   * @param rectangle
+   *          A rectangle of this partition.
+   * @return The last column of the rectangle.
+   */
+  public int getRight(int rectangle) {
+    return this.right[rectangle];
+  }
+
+  /**
+   * @param cell
+   *          The cell id of an open square of the maze.
+   * @return True if the square is on the edge of its rectangle, false if it is
+   *         inside it.
+   */
+  public boolean isPerimeter(int cell) {
+    int rectangle = this.rectangles[cell];
+    int row = cell / this.columns;
+    int column = cell - row * this.columns;
+    return row == this.top[rectangle] || row == this.bottom[rectangle] || column == this.left[rectangle]
+        || column == this.right[rectangle];
+  }
+}
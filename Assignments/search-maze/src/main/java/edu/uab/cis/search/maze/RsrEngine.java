@@ -0,0 +1,304 @@
+package edu.uab.cis.search.maze;
+
+import java.util.Arrays;
+
+/**
+ * A reusable A* search with Rectangular Symmetry Reduction over a single
+ * 4-connected maze with uniform step costs.
+ *
+ * The open squares of the maze are partitioned into empty rectangles (see
+ * {@link RectangleDecomposition}). Any two squares on the edge of an empty
+ * rectangle are joined by a path along its edge and straight across it that
+ * is as short as their Manhattan distance, so the search never needs the
+ * squares inside a rectangle. It moves only between squares on rectangle
+ * edges: to the neighboring edge squares of the same or another rectangle, and
+ * straight across the rectangle to the opposite edge. A start square inside a
+ * rectangle moves straight out to each of its four edges, and every edge
+ * square of the goal's rectangle moves directly to the goal. The paths found
+ * are just as short as those of {@link AStarEngine}, while large open rooms
+ * are crossed in a few steps rather than expanded square by square. Squares
+ * are ordered like those of {@link Solver}, by f(x), then h(x), then row, then
+ * column.
+ *
+ * The partition is built with the engine, and rebuilt by the first search
+ * after the maze changes. Like {@link AStarEngine}, the search state lives in
+ * primitive arrays stamped with a generation number per search. An engine is
+ * not thread-safe.
+ */
+public class RsrEngine implements SearchEngine {
+
+  private static final int NONE = -1;
+
+  private Maze maze;
+  private int columns;
+  private RectangleDecomposition rectangles;
+  private int[] g;
+  // the previous square on the best path to each square, one straight line or
+  // one rectangle away
+  private int[] parent;
+  private int[] reached;
+  private int[] closed;
+  private IndexedMinHeap open;
+  private int[] explored;
+  private int exploredCount;
+  private int generation;
+  private int goalRow;
+  private int goalColumn;
+  private int goalCell;
+  private int goalRectangle;
+  private boolean found;
+  private SearchListener listener = SearchListener.NONE;
+  private SearchCounters counters = new SearchCounters();
+  private boolean counting;
+
+  /**
+   * Creates a search engine for the given maze, partitioning its open squares
+   * into rectangles.
+   *
+   * @param maze
+   *          The maze to be searched. Only its obstacles are used; the start
+   *          and goal are given to each search.
+   */
+  public RsrEngine(Maze maze) {
+    this.maze = maze;
+    this.columns = maze.getColumns();
+    int cells = maze.getRows() * this.columns;
+    this.rectangles = RectangleDecomposition.build(maze);
+    this.g = new int[cells];
+    this.parent = new int[cells];
+    this.reached = new int[cells];
+    this.closed = new int[cells];
+    this.open = new IndexedMinHeap(cells);
+    this.explored = new int[cells];
+  }
+
+  @Override
+  public Maze getMaze() {
+    return this.maze;
+  }
+
+  /**
+   * @return The partition of the maze into rectangles used by the last search,
+   *         or built with the engine if there has been no search.
+   */
+  public RectangleDecomposition getRectangles() {
+    return this.rectangles;
+  }
+
+  @Override
+  public void setSearchListener(SearchListener listener) {
+    this.listener = listener;
+  }
+
+  @Override
+  public boolean search(Square start, Square goal) {
+    if (this.listener == SearchListener.NONE) {
+      this.counting = false;
+      return this.run(start, goal);
+    }
+    this.counting = true;
+    this.counters.begin();
+    boolean result = this.run(start, goal);
+    this.listener.searchFinished(this.counters.finish(start, goal, result, this.getPathLength(),
+        this.exploredCount));
+    return result;
+  }
+
+  private boolean run(Square start, Square goal) {
+    if (this.generation == Integer.MAX_VALUE) {
+      Arrays.fill(this.reached, 0);
+      Arrays.fill(this.closed, 0);
+      this.generation = 0;
+    }
+    int gen = ++this.generation;
+    this.exploredCount = 0;
+    this.found = false;
+    this.goalCell = NONE;
+    if (this.maze.isBlocked(start) || this.maze.isBlocked(goal)) {
+      return false;
+    }
+    if (!this.rectangles.isCurrent()) {
+      this.rectangles = RectangleDecomposition.build(this.maze);
+    }
+    this.goalRow = goal.getRow();
+    this.goalColumn = goal.getColumn();
+    this.goalCell = this.maze.getCell(this.goalRow, this.goalColumn);
+    this.goalRectangle = this.rectangles.getRectangle(this.goalCell);
+    int startCell = this.maze.getCell(start.getRow(), start.getColumn());
+    int h = this.heuristic(start.getRow(), start.getColumn());
+    this.reached[startCell] = gen;
+    this.g[startCell] = 0;
+    this.parent[startCell] = NONE;
+    this.open.insert(startCell, h, h);
+    if (this.counting) {
+      this.counters.generated();
+      this.counters.heuristicEvaluated();
+      this.counters.openSize(1);
+    }
+
+    while (!this.open.isEmpty()) {
+      int cell = this.open.poll();
+      this.closed[cell] = gen;
+      this.explored[this.exploredCount++] = cell;
+      if (cell == this.goalCell) {
+        this.found = true;
+        break;
+      }
+      this.expand(cell);
+    }
+    this.open.clear();
+    return this.found;
+  }
+
+  private void expand(int cell) {
+    RectangleDecomposition rectangles = this.rectangles;
+    int row = cell / this.columns;
+    int column = cell - row * this.columns;
+    int rectangle = rectangles.getRectangle(cell);
+    int top = rectangles.getTop(rectangle);
+    int left = rectangles.getLeft(rectangle);
+    int bottom = rectangles.getBottom(rectangle);
+    int right = rectangles.getRight(rectangle);
+    if (rectangle == this.goalRectangle) {
+      this.relax(cell, this.goalRow, this.goalColumn,
+          Math.abs(this.goalRow - row) + Math.abs(this.goalColumn - column));
+    }
+    if (row != top && row != bottom && column != left && column != right) {
+      // the start, inside its rectangle: straight out to each edge
+      this.relax(cell, top, column, row - top);
+      this.relax(cell, bottom, column, bottom - row);
+      this.relax(cell, row, left, column - left);
+      this.relax(cell, row, right, right - column);
+      return;
+    }
+    // straight across to the opposite edge
+    if (row == top && bottom > top) {
+      this.relax(cell, bottom, column, bottom - top);
+    }
+    if (row == bottom && bottom > top) {
+      this.relax(cell, top, column, bottom - top);
+    }
+    if (column == left && right > left) {
+      this.relax(cell, row, right, right - left);
+    }
+    if (column == right && right > left) {
+      this.relax(cell, row, left, right - left);
+    }
+    // neighbors on the edge of this rectangle or of another one
+    this.step(cell, rectangle, row - 1, column);
+    this.step(cell, rectangle, row + 1, column);
+    this.step(cell, rectangle, row, column - 1);
+    this.step(cell, rectangle, row, column + 1);
+  }
+
+  private void step(int from, int rectangle, int row, int column) {
+    if (this.maze.isBlocked(row, column)) {
+      return;
+    }
+    int cell = row * this.columns + column;
+    if (this.rectangles.getRectangle(cell) == rectangle && !this.rectangles.isPerimeter(cell)) {
+      return;
+    }
+    this.relax(from, row, column, 1);
+  }
+
+  private int heuristic(int row, int column) {
+    return Math.abs(this.goalRow - row) + Math.abs(this.goalColumn - column);
+  }
+
+  private void relax(int from, int row, int column, int distance) {
+    int cell = row * this.columns + column;
+    int gen = this.generation;
+    if (this.counting) {
+      this.counters.generated();
+    }
+    if (this.closed[cell] == gen) {
+      if (this.counting) {
+        this.counters.duplicateSkipped();
+      }
+      return;
+    }
+    int cost = this.g[from] + distance;
+    if (this.reached[cell] != gen) {
+      int h = this.heuristic(row, column);
+      this.reached[cell] = gen;
+      this.g[cell] = cost;
+      this.parent[cell] = from;
+      this.open.insert(cell, cost + h, h);
+      if (this.counting) {
+        this.counters.heuristicEvaluated();
+        this.counters.openSize(this.open.size());
+      }
+    } else if (cost < this.g[cell]) {
+      int h = this.heuristic(row, column);
+      this.g[cell] = cost;
+      this.parent[cell] = from;
+      this.open.decreaseKey(cell, cost + h, h);
+      if (this.counting) {
+        this.counters.heuristicEvaluated();
+      }
+    } else if (this.counting) {
+      this.counters.duplicateSkipped();
+    }
+  }
+
+  @Override
+  public int getPathLength() {
+    return this.found ? this.g[this.goalCell] + 1 : 0;
+  }
+
+  /**
+   * Copies the cell ids of the path found by the last search into the given
+   * array, from the start to the goal. The moves between consecutive squares
+   * of the search are filled in, first along the column and then along the
+   * row, so the result lists every square of the path.
+   */
+  @Override
+  public int getPath(int[] cells) {
+    int length = this.getPathLength();
+    int index = length - 1;
+    int cell = this.goalCell;
+    while (index >= 0) {
+      cells[index--] = cell;
+      int previous = this.parent[cell];
+      if (previous == NONE) {
+        break;
+      }
+      // walk back along the row to the column of the previous square, then
+      // along the column; both lie within one empty rectangle
+      int row = cell / this.columns;
+      int column = cell - row * this.columns;
+      int previousRow = previous / this.columns;
+      int previousColumn = previous - previousRow * this.columns;
+      while (column != previousColumn) {
+        column += column < previousColumn ? 1 : -1;
+        if (row != previousRow || column != previousColumn) {
+          cells[index--] = row * this.columns + column;
+        }
+      }
+      while (row != previousRow) {
+        row += row < previousRow ? 1 : -1;
+        if (row != previousRow) {
+          cells[index--] = row * this.columns + column;
+        }
+      }
+      cell = previous;
+    }
+    return length;
+  }
+
+  /**
+   * @return The number of squares explored by the last search, all of them on
+   *         the edges of rectangles except perhaps the start and the goal.
+   */
+  @Override
+  public int getExploredCount() {
+    return this.exploredCount;
+  }
+
+  @Override
+  public int getExplored(int[] cells) {
+    System.arraycopy(this.explored, 0, cells, 0, this.exploredCount);
+    return this.exploredCount;
+  }
+}
@@ -0,0 +1,53 @@
+package edu.uab.cis.search.maze;
+
+/**
+ * The counters an engine keeps while an instrumented search runs. Engines
+ * only touch these when their listener is not {@link SearchListener#NONE}.
+ */
+class SearchCounters {
+
+  private long startNanos;
+  private int generated;
+  private int duplicatesSkipped;
+  private int peakOpenSize;
+  private int heuristicEvaluations;
+
+  void begin() {
+    this.generated = 0;
+    this.duplicatesSkipped = 0;
+    this.peakOpenSize = 0;
+    this.heuristicEvaluations = 0;
+    this.startNanos = System.nanoTime();
+  }
+
+  void generated() {
+    ++this.generated;
+  }
+
+  void duplicateSkipped() {
+    ++this.duplicatesSkipped;
+  }
+
+  void heuristicEvaluated() {
+    ++this.heuristicEvaluations;
+  }
+
+  void openSize(int size) {
+    if (size > this.peakOpenSize) {
+      this.peakOpenSize = size;
+    }
+  }
+
+  // adds the counts of a part of the same search, such as one worker's
+  void add(SearchCounters part) {
+    this.generated += part.generated;
+    this.duplicatesSkipped += part.duplicatesSkipped;
+    this.peakOpenSize += part.peakOpenSize;
+    this.heuristicEvaluations += part.heuristicEvaluations;
+  }
+
+  SearchStatistics finish(Square start, Square goal, boolean found, int pathLength, int expanded) {
+    return new SearchStatistics(start, goal, found, pathLength, expanded, this.generated, this.duplicatesSkipped,
+        this.peakOpenSize, this.heuristicEvaluations, System.nanoTime() - this.startNanos);
+  }
+}
@@ -0,0 +1,125 @@
+package edu.uab.cis.search.maze;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import com.google.common.collect.Sets;
+
+/**
+ * A reusable path search over a single maze. Results describe the last call to
+ * {@link #search(Square, Square)}, and are available both as cell ids (see
+ * {@link Maze#getCell(int, int)}), which can be copied out without allocating,
+ * and as squares.
+ */
+public interface SearchEngine {
+
+  /**
+   * @return The maze searched by this engine.
+   */
+  Maze getMaze();
+
+  /**
+   * Searches for a path between the given squares.
+   *
+   * @param start
+   *          The square where the path begins.
+   * @param goal
+   *          The square where the path ends.
+   * @return True if a path exists, false if not (including when the start or
+   *         the goal is blocked).
+   */
+  boolean search(Square start, Square goal);
+
+  /**
+   * Attaches a listener that is told the statistics of every later search.
+   * Engines that do not report statistics ignore the listener, which is then
+   * never called; by default, nothing is reported.
+   *
+   * @param listener
+   *          The listener, or {@link SearchListener#NONE} to turn
+   *          instrumentation off.
+   */
+  default void setSearchListener(SearchListener listener) {
+  }
+
+  /**
+   * @return True if the last search gave up before it could tell whether a
+   *         path exists, e.g. after a limit on its work, in which case it
+   *         found no path even though one may exist. Engines that always
+   *         finish return false.
+   */
+  default boolean isAbandoned() {
+    return false;
+  }
+
+  /**
+   * @return The number of squares on the path found by the last search,
+   *         including the start and the goal, or 0 if no path was found.
+   */
+  int getPathLength();
+
+  /**
+   * Copies the cell ids of the path found by the last search into the given
+   * array, from the start to the goal.
+   *
+   * @param cells
+   *          An array with room for at least {@link #getPathLength()} ids.
+   * @return The number of ids copied.
+   */
+  int getPath(int[] cells);
+
+  /**
+   * @return The path found by the last search, packed into 2 bits per step,
+   *         which is empty if no path was found.
+   */
+  default CompactPath getCompactPath() {
+    int[] cells = new int[this.getPathLength()];
+    this.getPath(cells);
+    return CompactPath.fromCells(cells, cells.length, this.getMaze().getColumns());
+  }
+
+  /**
+   * @return The number of squares explored by the last search.
+   */
+  int getExploredCount();
+
+  /**
+   * Copies the cell ids of the squares explored by the last search into the
+   * given array, in the order they were explored.
+   *
+   * @param cells
+   *          An array with room for at least {@link #getExploredCount()} ids.
+   * @return The number of ids copied.
+   */
+  int getExplored(int[] cells);
+
+  /**
+   * @return The squares along the path found by the last search, from the
+   *         start to the goal, or an empty list if no path was found.
+   */
+  default List<Square> getPathFromStartToGoal() {
+    int[] cells = new int[this.getPathLength()];
+    this.getPath(cells);
+    int columns = this.getMaze().getColumns();
+    List<Square> path = new ArrayList<Square>(cells.length);
+    for (int cell : cells) {
+      path.add(new Square(cell / columns, cell % columns));
+    }
+    return path;
+  }
+
+  /**
+   * @return All squares that were explored during the last search.
+   */
+  default Set<Square> getExploredSquares() {
+    int[] cells = new int[this.getExploredCount()];
+    this.getExplored(cells);
+    int columns = this.getMaze().getColumns();
+    Set<Square> squares = Sets.newHashSetWithExpectedSize(cells.length);
+    for (int cell : cells) {
+      squares.add(new Square(cell / columns, cell % columns));
+    }
+    return squares;
+  }
+}
@@ -0,0 +1,29 @@
+package edu.uab.cis.search.maze;
+
+/**
+ * Receives the statistics of every search made by an engine it is attached to
+ * (see {@link SearchEngine#setSearchListener(SearchListener)}).
+ *
+ * Engines check once per search whether their listener is {@link #NONE}, and
+ * only count anything if it is not, so an engine without a listener pays
+ * nothing for instrumentation.
+ */
+public interface SearchListener {
+
+  /**
+   * A listener that ignores all searches, which disables instrumentation.
+   */
+  SearchListener NONE = new SearchListener() {
+    @Override
+    public void searchFinished(SearchStatistics statistics) {
+    }
+  };
+
+  /**
+   * Called at the end of each search, on the thread that made the search.
+   *
+   * @param statistics
+   *          What the search did.
+   */
+  void searchFinished(SearchStatistics statistics);
+}
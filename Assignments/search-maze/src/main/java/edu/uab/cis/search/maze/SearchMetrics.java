@@ -0,0 +1,164 @@
+package edu.uab.cis.search.maze;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * A {@link SearchListener} that aggregates the statistics of many searches into
+ * totals and maxima that can be exported with {@link #toMap()}, and remembers
+ * the search that expanded the most squares.
+ *
+ * Metrics are thread-safe, so one instance may listen to the engines of many
+ * threads, e.g. those of a {@link BatchSolver}.
+ */
+public class SearchMetrics implements SearchListener {
+
+  private LongAdder searches = new LongAdder();
+  private LongAdder found = new LongAdder();
+  private LongAdder expanded = new LongAdder();
+  private LongAdder generated = new LongAdder();
+  private LongAdder duplicatesSkipped = new LongAdder();
+  private LongAdder heuristicEvaluations = new LongAdder();
+  private LongAdder nanos = new LongAdder();
+  private AtomicLong maxExpanded = new AtomicLong();
+  private AtomicLong maxPeakOpenSize = new AtomicLong();
+  private AtomicLong maxNanos = new AtomicLong();
+  private AtomicReference<SearchStatistics> largest = new AtomicReference<SearchStatistics>();
+
+  @Override
+  public void searchFinished(SearchStatistics statistics) {
+    this.searches.increment();
+    if (statistics.isFound()) {
+      this.found.increment();
+    }
+    this.expanded.add(statistics.getExpanded());
+    this.generated.add(statistics.getGenerated());
+    this.duplicatesSkipped.add(statistics.getDuplicatesSkipped());
+    this.heuristicEvaluations.add(statistics.getHeuristicEvaluations());
+    this.nanos.add(statistics.getNanos());
+    max(this.maxExpanded, statistics.getExpanded());
+    max(this.maxPeakOpenSize, statistics.getPeakOpenSize());
+    max(this.maxNanos, statistics.getNanos());
+    SearchStatistics current = this.largest.get();
+    while ((current == null || statistics.getExpanded() > current.getExpanded())
+        && !this.largest.compareAndSet(current, statistics)) {
+      current = this.largest.get();
+    }
+  }
+
+  private static void max(AtomicLong maximum, long value) {
+    long current = maximum.get();
+    while (value > current && !maximum.compareAndSet(current, value)) {
+      current = maximum.get();
+    }
+  }
+
+  /**
+   * @return The number of searches reported.
+   */
+  public long getSearches() {
+    return this.searches.sum();
+  }
+
+  /**
+   * @return The number of searches that found a path.
+   */
+  public long getFound() {
+    return this.found.sum();
+  }
+
+  /**
+   * @return The total number of squares expanded by all searches.
+   */
+  public long getExpanded() {
+    return this.expanded.sum();
+  }
+
+  /**
+   * @return The total number of squares generated by all searches.
+   */
+  public long getGenerated() {
+    return this.generated.sum();
+  }
+
+  /**
+   * @return The total number of generated squares that were not queued.
+   */
+  public long getDuplicatesSkipped() {
+    return this.duplicatesSkipped.sum();
+  }
+
+  /**
+   * @return The total number of heuristic evaluations of all searches.
+   */
+  public long getHeuristicEvaluations() {
+    return this.heuristicEvaluations.sum();
+  }
+
+  /**
+   * @return The total wall-clock time of all searches, in nanoseconds.
+   */
+  public long getNanos() {
+    return this.nanos.sum();
+  }
+
+  /**
+   * @return The most squares expanded by a single search.
+   */
+  public long getMaxExpanded() {
+    return this.maxExpanded.get();
+  }
+
+  /**
+   * @return The largest open list of any search.
+   */
+  public long getMaxPeakOpenSize() {
+    return this.maxPeakOpenSize.get();
+  }
+
+  /**
+   * @return The longest wall-clock time of a single search, in nanoseconds.
+   */
+  public long getMaxNanos() {
+    return this.maxNanos.get();
+  }
+
+  /**
+   * @return The statistics of the search that expanded the most squares, or
+   *         null if no search has been reported.
+   */
+  public SearchStatistics getLargest() {
+    return this.largest.get();
+  }
+
+  /**
+   * Exports the counters, e.g. to a metrics system. Counters updated by
+   * concurrent searches may not all reflect the same set of searches.
+   *
+   * @return The current value of every counter, keyed by name, in a fixed
+   *         order.
+   */
+  public Map<String, Long> toMap() {
+    return ImmutableMap.<String, Long> builder()
+        .put("searches", this.getSearches())
+        .put("found", this.getFound())
+        .put("expanded", this.getExpanded())
+        .put("generated", this.getGenerated())
+        .put("duplicatesSkipped", this.getDuplicatesSkipped())
+        .put("heuristicEvaluations", this.getHeuristicEvaluations())
+        .put("nanos", this.getNanos())
+        .put("maxExpanded", this.getMaxExpanded())
+        .put("maxPeakOpenSize", this.getMaxPeakOpenSize())
+        .put("maxNanos", this.getMaxNanos())
+        .build();
+  }
+
+  @Override
+  public String toString() {
+    return this.toMap().toString();
+  }
+}
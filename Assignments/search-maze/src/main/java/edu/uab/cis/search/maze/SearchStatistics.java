@@ -0,0 +1,138 @@
+package edu.uab.cis.search.maze;
+
+/**
+ * What a single search did, as reported to a {@link SearchListener}.
+ */
+public class SearchStatistics {
+
+  private Square start;
+  private Square goal;
+  private boolean found;
+  private int pathLength;
+  private int expanded;
+  private int generated;
+  private int duplicatesSkipped;
+  private int peakOpenSize;
+  private int heuristicEvaluations;
+  private long nanos;
+
+  /**
+   * Creates the statistics of a search.
+   *
+   * @param start
+   *          The square where the path begins.
+   * @param goal
+   *          The square where the path ends.
+   * @param found
+   *          True if a path was found.
+   * @param pathLength
+   *          The number of squares on the path, or 0 if none was found.
+   * @param expanded
+   *          The number of squares taken off the open list and expanded.
+   * @param generated
+   *          The number of squares generated as successors of expanded squares,
+   *          plus the squares the search began from.
+   * @param duplicatesSkipped
+   *          The number of generated squares that were not queued because they
+   *          had already been expanded or queued with a path at least as short.
+   * @param peakOpenSize
+   *          The largest number of squares on the open list at any time.
+   * @param heuristicEvaluations
+   *          The number of times the heuristic was computed.
+   * @param nanos
+   *          The wall-clock time taken by the search, in nanoseconds.
+   */
+  public SearchStatistics(Square start, Square goal, boolean found, int pathLength, int expanded, int generated,
+      int duplicatesSkipped, int peakOpenSize, int heuristicEvaluations, long nanos) {
+    this.start = start;
+    this.goal = goal;
+    this.found = found;
+    this.pathLength = pathLength;
+    this.expanded = expanded;
+    this.generated = generated;
+    this.duplicatesSkipped = duplicatesSkipped;
+    this.peakOpenSize = peakOpenSize;
+    this.heuristicEvaluations = heuristicEvaluations;
+    this.nanos = nanos;
+  }
+
+  /**
+   * @return The square where the path begins.
+   */
+  public Square getStart() {
+    return this.start;
+  }
+
+  /**
+   * @return The square where the path ends.
+   */
+  public Square getGoal() {
+    return this.goal;
+  }
+
+  /**
+   * @return True if a path was found.
+   */
+  public boolean isFound() {
+    return this.found;
+  }
+
+  /**
+   * @return The number of squares on the path, or 0 if none was found.
+   */
+  public int getPathLength() {
+    return this.pathLength;
+  }
+
+  /**
+   * @return The number of squares taken off the open list and expanded.
+   */
+  public int getExpanded() {
+    return this.expanded;
+  }
+
+  /**
+   * @return The number of squares generated as successors of expanded
+   *         squares, plus the squares the search began from.
+   */
+  public int getGenerated() {
+    return this.generated;
+  }
+
+  /**
+   * @return The number of generated squares that were not queued because they
+   *         had already been expanded or queued with a path at least as short.
+   */
+  public int getDuplicatesSkipped() {
+    return this.duplicatesSkipped;
+  }
+
+  /**
+   * @return The largest number of squares on the open list at any time.
+   */
+  public int getPeakOpenSize() {
+    return this.peakOpenSize;
+  }
+
+  /**
+   * @return The number of times the heuristic was computed.
+   */
+  public int getHeuristicEvaluations() {
+    return this.heuristicEvaluations;
+  }
+
+  /**
+   * @return The wall-clock time taken by the search, in nanoseconds.
+   */
+  public long getNanos() {
+    return this.nanos;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "%s -> %s: found=%b length=%d expanded=%d generated=%d duplicatesSkipped=%d peakOpen=%d heuristics=%d time=%dus",
+        this.start, this.goal, this.found, this.pathLength, this.expanded, this.generated, this.duplicatesSkipped,
+        this.peakOpenSize, this.heuristicEvaluations, this.nanos / 1000);
+  }
+}
@@ -0,0 +1,478 @@
+package edu.uab.cis.search.maze;
+
+import java.util.Arrays;
+
+/**
+ * A reusable Simplified Memory-bounded A* (SMA*) search over a single maze,
+ * which never holds more than a fixed number of search nodes.
+ *
+ * The search grows a tree of nodes like A* with the L1 heuristic, expanding
+ * the node with the lowest f(x) (the deepest on ties) and generating all of
+ * its successors at once, each with an f(x) no lower than its parent's. When
+ * the node budget is used up, the worst leaf (highest f(x), then shallowest)
+ * is dropped, and its f(x) is remembered by its parent as a lower bound on
+ * everything below it. A parent with dropped children stays on the open list
+ * under that bound, and regenerates them when it becomes the best node again.
+ * As long as the budget can hold the shortest path plus the successors of its
+ * last square, the path found is a shortest path.
+ *
+ * A successor is not generated if a node in memory already reached its square
+ * with a g(x) at least as low. Dropped nodes are forgotten, though, so a
+ * square may be reached again on a path that is no shorter, and a dropped
+ * subtree is searched again when it is regenerated. Paths longer than the
+ * number of open squares are never generated, so every search terminates in
+ * principle, but the time it takes does not grow gradually as the budget
+ * shrinks: once the budget cannot hold the frontier, the search starts
+ * dropping and regenerating the same subtrees over and over, and a budget a
+ * few nodes smaller can take millions of times more expansions. This is worst
+ * when no path exists, since then every path must be ruled out. Every search
+ * is therefore bounded: a flood fill over one bit per square first checks that
+ * the goal can be reached at all, and a search that expands more than
+ * {@link #getMaxExpansions()} nodes gives up without a path, as does one whose
+ * budget cannot hold the shortest path. Either is marked as abandoned (see
+ * {@link #isAbandoned()}).
+ *
+ * Like {@link IdaStarEngine}, the engine does not record the squares it
+ * explores: {@link #getExploredCount()} is always 0, and
+ * {@link #getExpansions()} counts expansions instead, as do the statistics
+ * given to a {@link SearchListener}, where a regenerated node counts as
+ * generated again. An engine is not thread-safe.
+ */
+public class SmaStarEngine implements SearchEngine {
+
+  /**
+   * The largest default node budget, used by {@link Solver.Mode#SMA_STAR}.
+   */
+  public static final int DEFAULT_BUDGET = 1 << 20;
+
+  /**
+   * The default number of expansions after which a search gives up, enough
+   * for about two seconds of searching.
+   */
+  public static final long DEFAULT_MAX_EXPANSIONS = 1L << 22;
+
+  private static final int NONE = -1;
+
+  private static final int INFINITY = Integer.MAX_VALUE;
+
+  private Maze maze;
+  private int columns;
+  private int budget;
+  private Reachability reachability;
+  // the longest simple path, beyond which no successor is generated
+  private int maxCost;
+  // per node: its square, parent node, g(x), priority and child directions
+  private int[] cell;
+  private int[] parent;
+  private int[] g;
+  // f(x) until expanded, then the lowest f(x) of any dropped child
+  private int[] key;
+  private byte[] children;
+  private byte[] direction;
+  // dropped nodes ready for reuse, and the number of nodes ever used
+  private int[] free;
+  private int freeCount;
+  private int used;
+  // open addressing from squares to the node with the lowest g(x) among them
+  private int[] index;
+  private int indexMask;
+  // the children generated by the current expansion
+  private int[] generated = new int[4];
+  // nodes by lowest key, then deepest
+  private IndexedMinHeap open;
+  // leaves other than the root, by highest key, then shallowest
+  private IndexedMinHeap leaves;
+  private int root;
+  private int goalRow;
+  private int goalColumn;
+  private int goalCell;
+  private int[] path = new int[0];
+  private long expansions;
+  private long maxExpansions = DEFAULT_MAX_EXPANSIONS;
+  private boolean expansionLimitReached;
+  private int peakNodes;
+  private boolean budgetExceeded;
+  private SearchListener listener = SearchListener.NONE;
+  private SearchCounters counters = new SearchCounters();
+  private boolean counting;
+
+  /**
+   * Creates a search engine with a budget of {@link #DEFAULT_BUDGET} nodes, or
+   * of one node per square if the maze is smaller.
+   *
+   * @param maze
+   *          The maze to be searched. Only its obstacles are used; the start
+   *          and goal are given to each search.
+   */
+  public SmaStarEngine(Maze maze) {
+    this(maze, (int) Math.max(5, Math.min(DEFAULT_BUDGET, (long) maze.getRows() * maze.getColumns())));
+  }
+
+  /**
+   * Creates a search engine.
+   *
+   * @param maze
+   *          The maze to be searched. Only its obstacles are used; the start
+   *          and goal are given to each search.
+   * @param budget
+   *          The most nodes held at once, at least 5.
+   */
+  public SmaStarEngine(Maze maze, int budget) {
+    if (budget < 5) {
+      throw new IllegalArgumentException("Budget must be at least 5 nodes, found " + budget);
+    }
+    this.maze = maze;
+    this.columns = maze.getColumns();
+    this.budget = budget;
+    this.reachability = new Reachability(maze);
+    int openSquares = 0;
+    for (int row = 0; row < maze.getRows(); ++row) {
+      for (int column = 0; column < this.columns; ++column) {
+        if (!maze.isBlocked(row, column)) {
+          ++openSquares;
+        }
+      }
+    }
+    this.maxCost = openSquares - 1;
+    this.cell = new int[budget];
+    this.parent = new int[budget];
+    this.g = new int[budget];
+    this.key = new int[budget];
+    this.children = new byte[budget];
+    this.direction = new byte[budget];
+    this.free = new int[budget];
+    this.open = new IndexedMinHeap(budget);
+    this.leaves = new IndexedMinHeap(budget);
+    this.index = new int[Integer.highestOneBit(budget * 2 - 1) << 1];
+    this.indexMask = this.index.length - 1;
+    Arrays.fill(this.index, NONE);
+  }
+
+  @Override
+  public Maze getMaze() {
+    return this.maze;
+  }
+
+  /**
+   * @return The most nodes held at once.
+   */
+  public int getBudget() {
+    return this.budget;
+  }
+
+  /**
+   * @return The number of expansions after which a search gives up.
+   */
+  public long getMaxExpansions() {
+    return this.maxExpansions;
+  }
+
+  /**
+   * @param maxExpansions
+   *          The number of expansions after which a search gives up, at least
+   *          1.
+   */
+  public void setMaxExpansions(long maxExpansions) {
+    if (maxExpansions < 1) {
+      throw new IllegalArgumentException("Expansion limit must be at least 1, found " + maxExpansions);
+    }
+    this.maxExpansions = maxExpansions;
+  }
+
+  @Override
+  public void setSearchListener(SearchListener listener) {
+    this.listener = listener;
+  }
+
+  @Override
+  public boolean search(Square start, Square goal) {
+    if (this.listener == SearchListener.NONE) {
+      this.counting = false;
+      return this.run(start, goal);
+    }
+    this.counting = true;
+    this.counters.begin();
+    boolean result = this.run(start, goal);
+    this.listener.searchFinished(this.counters.finish(start, goal, result, this.getPathLength(),
+        (int) Math.min(this.expansions, Integer.MAX_VALUE)));
+    return result;
+  }
+
+  private boolean run(Square start, Square goal) {
+    // only the nodes used by the last search need to be cleared
+    this.open.clear();
+    this.leaves.clear();
+    for (int node = 0; node < this.used; ++node) {
+      this.unindex(node);
+    }
+    this.freeCount = 0;
+    this.used = 0;
+    this.path = new int[0];
+    this.expansions = 0;
+    this.expansionLimitReached = false;
+    this.peakNodes = 0;
+    this.budgetExceeded = false;
+    if (this.maze.isBlocked(start) || this.maze.isBlocked(goal)) {
+      return false;
+    }
+    this.goalRow = goal.getRow();
+    this.goalColumn = goal.getColumn();
+    this.goalCell = this.maze.getCell(this.goalRow, this.goalColumn);
+    int startCell = this.maze.getCell(start.getRow(), start.getColumn());
+    if (!this.reachability.isReachable(startCell, this.goalCell)) {
+      return false;
+    }
+    this.root = this.allocate(startCell, NONE, 0, this.heuristic(startCell), -1);
+    this.open.insert(this.root, this.key[this.root], Integer.MAX_VALUE);
+    if (this.counting) {
+      this.counters.generated();
+      this.counters.heuristicEvaluated();
+      this.counters.openSize(1);
+    }
+
+    while (!this.open.isEmpty()) {
+      int best = this.open.poll();
+      if (this.cell[best] == this.goalCell) {
+        this.path = new int[this.g[best] + 1];
+        for (int node = best, index = this.path.length - 1; node != NONE; node = this.parent[node], --index) {
+          this.path[index] = this.cell[node];
+        }
+        return true;
+      }
+      if (this.expansions >= this.maxExpansions) {
+        this.expansionLimitReached = true;
+        return false;
+      }
+      if (!this.expand(best)) {
+        this.budgetExceeded = true;
+        return false;
+      }
+    }
+    return false;
+  }
+
+  // generates the missing successors of a node; false if they do not fit
+  private boolean expand(int node) {
+    ++this.expansions;
+    if (this.children[node] == 0 && node != this.root) {
+      this.leaves.remove(node);
+    }
+    int base = this.key[node];
+    this.key[node] = INFINITY;
+    int square = this.cell[node];
+    int row = square / this.columns;
+    int column = square - row * this.columns;
+    int cost = this.g[node] + 1;
+    int count = 0;
+    for (int move = 0; move < 4; ++move) {
+      int nextRow = row + (move == 0 ? -1 : move == 1 ? 1 : 0);
+      int nextColumn = column + (move == 2 ? 1 : move == 3 ? -1 : 0);
+      if ((this.children[node] & (1 << move)) != 0 || cost > this.maxCost
+          || this.maze.isBlocked(nextRow, nextColumn)) {
+        continue;
+      }
+      int child = nextRow * this.columns + nextColumn;
+      if (this.counting) {
+        this.counters.generated();
+      }
+      int known = this.find(child);
+      if (known != NONE && this.g[known] <= cost) {
+        if (this.counting) {
+          this.counters.duplicateSkipped();
+        }
+        continue;
+      }
+      // the new children are not leaves yet, so only older nodes are dropped
+      while (this.freeCount == 0 && this.used == this.budget) {
+        if (this.leaves.isEmpty()) {
+          return false;
+        }
+        this.drop(this.leaves.peek(), node);
+      }
+      int f = Math.max(base, cost + this.heuristic(child));
+      int added = this.allocate(child, node, cost, f, move);
+      this.children[node] |= 1 << move;
+      this.open.insert(added, f, Integer.MAX_VALUE - cost);
+      this.generated[count++] = added;
+      if (this.counting) {
+        this.counters.heuristicEvaluated();
+        this.counters.openSize(this.open.size());
+      }
+    }
+    for (int index = 0; index < count; ++index) {
+      int child = this.generated[index];
+      this.leaves.insert(child, Integer.MAX_VALUE - this.key[child], this.g[child]);
+    }
+    if (this.children[node] == 0 && this.key[node] == INFINITY) {
+      // a dead end, which is no longer worth its node
+      if (node != this.root) {
+        this.drop(node, NONE);
+      }
+    } else {
+      this.requeue(node, NONE);
+    }
+    return true;
+  }
+
+  // frees a leaf, remembering its key in its parent; dead parents follow it
+  private void drop(int node, int expanding) {
+    while (true) {
+      int up = this.parent[node];
+      if (this.open.contains(node)) {
+        this.open.remove(node);
+      }
+      if (this.leaves.contains(node)) {
+        this.leaves.remove(node);
+      }
+      this.children[up] &= ~(1 << this.direction[node]);
+      this.key[up] = Math.min(this.key[up], this.key[node]);
+      this.unindex(node);
+      this.free[this.freeCount++] = node;
+      if (up == expanding) {
+        return;
+      }
+      if (this.children[up] != 0 || this.key[up] != INFINITY || up == this.root) {
+        this.requeue(up, expanding);
+        return;
+      }
+      node = up;
+    }
+  }
+
+  // puts a node with dropped children back on the open list, and on the
+  // leaves if it has no children left
+  private void requeue(int node, int expanding) {
+    if (node == expanding || this.key[node] == INFINITY) {
+      return;
+    }
+    if (this.open.contains(node)) {
+      this.open.update(node, this.key[node], Integer.MAX_VALUE - this.g[node]);
+    } else {
+      this.open.insert(node, this.key[node], Integer.MAX_VALUE - this.g[node]);
+    }
+    if (this.children[node] == 0 && node != this.root) {
+      if (this.leaves.contains(node)) {
+        this.leaves.update(node, Integer.MAX_VALUE - this.key[node], this.g[node]);
+      } else {
+        this.leaves.insert(node, Integer.MAX_VALUE - this.key[node], this.g[node]);
+      }
+    }
+  }
+
+  private int allocate(int square, int from, int cost, int f, int move) {
+    int node = this.freeCount > 0 ? this.free[--this.freeCount] : this.used++;
+    this.cell[node] = square;
+    this.parent[node] = from;
+    this.g[node] = cost;
+    this.key[node] = f;
+    this.children[node] = 0;
+    this.direction[node] = (byte) move;
+    this.peakNodes = Math.max(this.peakNodes, this.used - this.freeCount);
+    int slot = this.slot(square);
+    while (this.index[slot] != NONE && this.cell[this.index[slot]] != square) {
+      slot = (slot + 1) & this.indexMask;
+    }
+    this.index[slot] = node;
+    return node;
+  }
+
+  private int slot(int square) {
+    return (square * 0x9E3779B9) >>> 1 & this.indexMask;
+  }
+
+  private int find(int square) {
+    for (int slot = this.slot(square); this.index[slot] != NONE; slot = (slot + 1) & this.indexMask) {
+      if (this.cell[this.index[slot]] == square) {
+        return this.index[slot];
+      }
+    }
+    return NONE;
+  }
+
+  // removes a node from the index, if it is the one indexed for its square
+  private void unindex(int node) {
+    int slot = this.slot(this.cell[node]);
+    while (this.index[slot] != node) {
+      if (this.index[slot] == NONE) {
+        return;
+      }
+      slot = (slot + 1) & this.indexMask;
+    }
+    // shift back later entries of the probe sequence into the gap
+    int gap = slot;
+    for (slot = (slot + 1) & this.indexMask; this.index[slot] != NONE; slot = (slot + 1) & this.indexMask) {
+      int home = this.slot(this.cell[this.index[slot]]);
+      if (((slot - home) & this.indexMask) >= ((slot - gap) & this.indexMask)) {
+        this.index[gap] = this.index[slot];
+        gap = slot;
+      }
+    }
+    this.index[gap] = NONE;
+  }
+
+  private int heuristic(int square) {
+    int row = square / this.columns;
+    return Math.abs(this.goalRow - row) + Math.abs(this.goalColumn - (square - row * this.columns));
+  }
+
+  /**
+   * @return True if the last search stopped because the shortest path plus
+   *         the successors of its last square did not fit the node budget.
+   */
+  public boolean isBudgetExceeded() {
+    return this.budgetExceeded;
+  }
+
+  /**
+   * @return True if the last search gave up after
+   *         {@link #getMaxExpansions()} expansions without finding a path.
+   */
+  public boolean isExpansionLimitReached() {
+    return this.expansionLimitReached;
+  }
+
+  /**
+   * @return True if the last search gave up without finding a path, either
+   *         because it exceeded the node budget or the expansion limit.
+   */
+  @Override
+  public boolean isAbandoned() {
+    return this.budgetExceeded || this.expansionLimitReached;
+  }
+
+  /**
+   * @return The number of nodes expanded by the last search, counting every
+   *         re-expansion.
+   */
+  public long getExpansions() {
+    return this.expansions;
+  }
+
+  /**
+   * @return The most nodes held at once during the last search.
+   */
+  public int getPeakNodes() {
+    return this.peakNodes;
+  }
+
+  @Override
+  public int getPathLength() {
+    return this.path.length;
+  }
+
+  @Override
+  public int getPath(int[] cells) {
+    System.arraycopy(this.path, 0, cells, 0, this.path.length);
+    return this.path.length;
+  }
+
+  @Override
+  public int getExploredCount() {
+    return 0;
+  }
+
+  @Override
+  public int getExplored(int[] cells) {
+    return 0;
+  }
+}
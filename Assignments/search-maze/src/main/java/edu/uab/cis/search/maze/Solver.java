@@ -26,16 +26,142 @@ import com.google.common.collect.Sets;
  * <li>Squares with the same f(x), h(x) and row should be ordered by column,
  * with smaller columns first</li>
  * </ul>
+ * 
+ * The search itself is performed by an {@link AStarEngine}.
  */
 public class Solver
 {
 
 	private Set<Square> explored = Sets.<Square> newHashSet();
-	private List<Square> path = new ArrayList<Square>();
-	private Maze maze;
-	private Square goal;
-	private SNode start;
-	PriorityQueue<SNode> que = new PriorityQueue<SNode>();
+	private CompactPath compactPath;
+	// created from the compact path when it is first asked for
+	private List<Square> path;
+	private boolean abandoned;
+
+	/**
+	 * The search algorithms that can be used to solve a maze.
+	 */
+	public enum Mode
+	{
+		/**
+		 * A* search, exploring squares in the order described above.
+		 */
+		A_STAR
+		{
+			@Override
+			public SearchEngine createEngine(Maze maze)
+			{
+				return new AStarEngine(maze);
+			}
+		},
+		
+		/**
+		 * A* search, exploring squares in the same order as {@link #A_STAR},
+		 * but with a {@link BucketOpenList} in place of a binary heap.
+		 */
+		BUCKET_A_STAR
+		{
+			@Override
+			public SearchEngine createEngine(Maze maze)
+			{
+				return new AStarEngine(maze, null, new BucketOpenList(maze.getRows() * maze.getColumns()));
+			}
+		},
+		
+		/**
+		 * Jump Point Search, which finds paths of the same length as A* but
+		 * explores only jump points. See {@link JumpPointEngine}.
+		 */
+		JUMP_POINT
+		{
+			@Override
+			public SearchEngine createEngine(Maze maze)
+			{
+				return new JumpPointEngine(maze);
+			}
+		},
+		
+		/**
+		 * A* with Rectangular Symmetry Reduction, which finds paths of the same
+		 * length as A* but explores only squares on the edges of empty
+		 * rectangles. See {@link RsrEngine}.
+		 */
+		RSR
+		{
+			@Override
+			public SearchEngine createEngine(Maze maze)
+			{
+				return new RsrEngine(maze);
+			}
+		},
+		
+		/**
+		 * Bidirectional A*, searching from the start and the goal at the same
+		 * time. See {@link BidirectionalEngine}.
+		 */
+		BIDIRECTIONAL
+		{
+			@Override
+			public SearchEngine createEngine(Maze maze)
+			{
+				return new BidirectionalEngine(maze);
+			}
+		},
+		
+		/**
+		 * Iterative Deepening A*, which needs memory only for the current path
+		 * but may explore squares exponentially many times. A search gives up
+		 * after {@link IdaStarEngine#DEFAULT_MAX_EXPANSIONS} expansions without
+		 * a path, even on mazes of a few thousand squares; check
+		 * {@link Solver#isSearchAbandoned()}. See {@link IdaStarEngine}.
+		 */
+		IDA_STAR
+		{
+			@Override
+			public SearchEngine createEngine(Maze maze)
+			{
+				return new IdaStarEngine(maze);
+			}
+		},
+		
+		/**
+		 * Simplified Memory-bounded A*, which holds at most
+		 * {@link SmaStarEngine#DEFAULT_BUDGET} search nodes, or one per square
+		 * in smaller mazes. A search gives up after
+		 * {@link SmaStarEngine#DEFAULT_MAX_EXPANSIONS} expansions without a
+		 * path; check {@link Solver#isSearchAbandoned()}. See
+		 * {@link SmaStarEngine}.
+		 */
+		SMA_STAR
+		{
+			@Override
+			public SearchEngine createEngine(Maze maze)
+			{
+				return new SmaStarEngine(maze);
+			}
+		},
+		
+		/**
+		 * Hash Distributed A*, which shares one search between a worker thread
+		 * per available processor and finds paths of the same length as A*.
+		 * See {@link ParallelAStarEngine}.
+		 */
+		PARALLEL_A_STAR
+		{
+			@Override
+			public SearchEngine createEngine(Maze maze)
+			{
+				return new ParallelAStarEngine(maze);
+			}
+		};
+		
+		/**
+		 * @param maze
+		 *           The maze to be searched.
+		 * @return A new search engine for the maze using this algorithm.
+		 */
+		public abstract SearchEngine createEngine(Maze maze);
+	}
 
 	/**
 	 * Solves the given maze, determining the path to the goal.
@@ -45,57 +171,114 @@ public class Solver
 	 */
 	public Solver(Maze maze)
 	{
-		this.maze = maze;
-		goal = maze.getGoal();
-		start = new SNode(maze.getStart(), goal);
-		SNode s = null;
-		que.add(start);
-		
-		while ((s = que.poll()) != null)
-		{
-			if(!s.equals(goal))
-				expand(s);
-			else
-			{
-				explored.add(s);
-				getPath(s);
-				break;
-			}
-		}
+		this(maze, Mode.A_STAR);
 	}
 	
-	private void expand(SNode s)
+	/**
+	 * Solves the given maze with the given search algorithm, determining the
+	 * path to the goal.
+	 * 
+	 * @param maze
+	 *           The maze to be solved.
+	 * @param mode
+	 *           The search algorithm to use.
+	 */
+	public Solver(Maze maze, Mode mode)
 	{
-		explored.add(s);
-		
-		SNode[] a = {
-				new SNode(s.getRow() - 1, s.getColumn(), s, goal),
-				new SNode(s.getRow() + 1, s.getColumn(), s, goal),
-				new SNode(s.getRow(), s.getColumn() + 1, s, goal),
-				new SNode(s.getRow(), s.getColumn() - 1, s, goal)
-		};
-		
-		for(SNode x : a)
-		{
-			if(!que.contains(x) && !explored.contains(x) && !maze.isBlocked(x))
-				que.add(x);
-		}
+		this(mode.createEngine(maze));
 	}
 	
-	private void getPath(SNode s)
+	/**
+	 * Solves the given maze using A* search with the given heuristic in place
+	 * of the L1 heuristic, determining the path to the goal.
+	 * 
+	 * @param maze
+	 *           The maze to be solved.
+	 * @param heuristic
+	 *           The heuristic for the maze, e.g. {@link Landmarks}.
+	 */
+	public Solver(Maze maze, Heuristic heuristic)
 	{
-		path.add(s);
-		
-		while(s.getParent() != null)
+		this(new AStarEngine(maze, heuristic));
+	}
+	
+	/**
+	 * Solves the given maze with the given search algorithm, reporting what the
+	 * search did to the given listener.
+	 * 
+	 * @param maze
+	 *           The maze to be solved.
+	 * @param mode
+	 *           The search algorithm to use.
+	 * @param listener
+	 *           The listener told the statistics of the search, e.g. a
+	 *           {@link SearchMetrics}. Every mode reports statistics.
+	 */
+	public Solver(Maze maze, Mode mode, SearchListener listener)
+	{
+		this(listen(mode.createEngine(maze), listener));
+	}
+	
+	private static SearchEngine listen(SearchEngine engine, SearchListener listener)
+	{
+		engine.setSearchListener(listener);
+		return engine;
+	}
+	
+	/**
+	 * Solves the maze of the given engine, determining the path to the goal. The
+	 * engine may be reused across solvers to avoid reallocating its search
+	 * state.
+	 * 
+	 * @param engine
+	 *           The search engine for the maze to be solved.
+	 */
+	public Solver(SearchEngine engine)
+	{
+		solve(engine);
+	}
+	
+	/**
+	 * Solves the given maze with the given search algorithm, unless the
+	 * component index shows that the goal cannot be reached from the start.
+	 * In that case, the path and the explored squares are empty, and no search
+	 * engine is even created.
+	 * 
+	 * @param maze
+	 *           The maze to be solved.
+	 * @param mode
+	 *           The search algorithm to use.
+	 * @param components
+	 *           The connected components of the maze.
+	 */
+	public Solver(Maze maze, Mode mode, ComponentIndex components)
+	{
+		if (components.getMaze() != maze)
+		{
+			throw new IllegalArgumentException("Component index is for another maze");
+		}
+		if (components.isConnected(maze.getStart(), maze.getGoal()))
+		{
+			solve(mode.createEngine(maze));
+		}
+		else
 		{
-			s = s.getParent();
-			path.add(0, s);
+			compactPath = CompactPath.fromCells(new int[0], 0, maze.getColumns());
 		}
 	}
 	
+	private void solve(SearchEngine engine)
+	{
+		Maze maze = engine.getMaze();
+		engine.search(maze.getStart(), maze.getGoal());
+		abandoned = engine.isAbandoned();
+		compactPath = engine.getCompactPath();
+		explored = engine.getExploredSquares();
+	}
+	
 	public void printPath()
 	{
-		Iterator<Square> iter = path.iterator();
+		Iterator<Square> iter = compactPath.iterator();
 		
 		System.out.println("Path:");
 		while(iter.hasNext())
@@ -110,13 +293,45 @@ public class Solver
 	 */
 	public List<Square> getPathFromStartToGoal()
 	{
+		if (this.path == null)
+		{
+			this.path = new ArrayList<Square>(this.compactPath.asList());
+		}
 		return this.path;
 	}
+	
+	/**
+	 * @return True if the search gave up before it could tell whether the goal
+	 *         can be reached, as {@link Mode#IDA_STAR} and {@link Mode#SMA_STAR}
+	 *         do after a fixed number of expansions. The path is then empty
+	 *         although one may exist; it does not mean the goal is unreachable.
+	 */
+	public boolean isSearchAbandoned()
+	{
+		return this.abandoned;
+	}
+	
+	/**
+	 * @return The path from the start to the goal, as described by
+	 *         {@link #getPathFromStartToGoal()}, packed into 2 bits per step
+	 *         instead of a list of squares.
+	 */
+	public CompactPath getCompactPath()
+	{
+		return this.compactPath;
+	}
 
 	/**
-	 * @return All squares that were explored during the search process. This is
+	 * @return All squares that were explored during the search process. For
+	 *         {@link Mode#A_STAR} and {@link Mode#BUCKET_A_STAR}, this is
 	 *         always a superset of the squares returned by
-	 *         {@link #getPathFromStartToGoal()}.
+	 *         {@link #getPathFromStartToGoal()}; for
+	 *         {@link Mode#JUMP_POINT}, it contains only the jump points; for
+	 *         {@link Mode#BIDIRECTIONAL}, it contains the squares explored from
+	 *         either end; for {@link Mode#PARALLEL_A_STAR}, it contains the
+	 *         squares explored by any worker; for {@link Mode#IDA_STAR} and
+	 *         {@link Mode#SMA_STAR}, which do not record explored squares, it is
+	 *         empty.
 	 */
 	public Set<Square> getExploredSquares()
 	{
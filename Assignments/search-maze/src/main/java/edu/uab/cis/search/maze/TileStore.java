@@ -0,0 +1,45 @@
+package edu.uab.cis.search.maze;
+
+import java.io.IOException;
+
+/**
+ * Where the tiles of a {@link TiledMaze} are kept while they are not in
+ * memory.
+ *
+ * A tile is a square block of the maze, stored as a bitset with one bit per
+ * square, set if the square is an obstacle. The bit for the square at row
+ * {@code r} and column {@code c} within a tile {@code size} squares wide is
+ * bit {@code i % 64} of word {@code i / 64}, where {@code i = r * size + c}.
+ */
+public interface TileStore {
+
+  /**
+   * Loads a tile.
+   *
+   * @param tileRow
+   *          The row of the tile, counted in tiles.
+   * @param tileColumn
+   *          The column of the tile, counted in tiles.
+   * @param words
+   *          The number of longs in the bitset of a tile.
+   * @return The bitset of the tile, or null if the tile was never saved, in
+   *         which case all of its squares are open.
+   * @throws IOException
+   *           If the tile cannot be read.
+   */
+  long[] load(int tileRow, int tileColumn, int words) throws IOException;
+
+  /**
+   * Saves a tile, replacing any tile saved before at the same position.
+   *
+   * @param tileRow
+   *          The row of the tile, counted in tiles.
+   * @param tileColumn
+   *          The column of the tile, counted in tiles.
+   * @param bits
+   *          The bitset of the tile, which is not kept after the call.
+   * @throws IOException
+   *           If the tile cannot be written.
+   */
+  void save(int tileRow, int tileColumn, long[] bits) throws IOException;
+}
@@ -0,0 +1,330 @@
+package edu.uab.cis.search.maze;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * A maze whose obstacles are kept in square tiles, loaded from a
+ * {@link TileStore} when a square of the tile is first asked for, so that the
+ * obstacles of a huge, mostly empty maze need not all be in memory, and only
+ * the tiles a search touches are read.
+ *
+ * Tiling bounds the storage of obstacles only. Searches still need dense
+ * state for every square of the maze, which the engine allocates whatever the
+ * maze: a {@link Solver}, like {@link AStarEngine} and most other engines,
+ * takes more than 20 bytes per square, against the bit per square that tiles
+ * save. Even {@link IdaStarEngine} takes two bits per square, and
+ * {@link SmaStarEngine} one bit per square plus its node budget. A maze much
+ * larger than memory can therefore be stored and changed as tiles, but not
+ * searched; tiles pay off when the obstacles are the part that does not fit,
+ * e.g. beside the search state of an engine with a small footprint.
+ *
+ * A tile whose squares are all open or all blocked is kept as a single flag
+ * rather than a bitset, so open space and solid rock take no memory. Other
+ * tiles take one bit per square, and are kept within a budget of memory: when
+ * a tile does not fit, a tile not used recently is evicted, chosen by the
+ * clock algorithm, after saving it back to the store if it was changed.
+ * {@link #flush()} saves all changed tiles still in memory.
+ *
+ * Unlike a {@link Maze}, a tiled maze changes as it is read, so it must not be
+ * read from several threads at once.
+ */
+public class TiledMaze extends Maze {
+
+  // the bitsets of tiles whose squares are all open or all blocked, told apart
+  // by identity
+  private static final long[] FREE = new long[0];
+  private static final long[] FULL = new long[0];
+
+  private TileStore store;
+  // the log of the tile size
+  private int shift;
+  private int mask;
+  private int words;
+  private int tileColumns;
+  // the bitset of each tile, FREE, FULL, or null if not loaded, indexed by
+  // tile id, i.e. tile row * tile columns + tile column
+  private long[][] tiles;
+  private boolean[] referenced;
+  private boolean[] dirty;
+  // the ids of the tiles whose bitsets are in memory, swept by the clock hand
+  private int[] resident;
+  private int residentCount;
+  private int hand;
+  private long hits;
+  private long loads;
+  private long evictions;
+
+  /**
+   * Creates a maze from the tiles of a store. No tile is loaded except those
+   * of the start and the goal.
+   *
+   * @param rows
+   *          The number of rows of squares in the maze.
+   * @param columns
+   *          The number of columns of squares in the maze.
+   * @param start
+   *          The start square, where the maze begins.
+   * @param goal
+   *          The goal square, where the maze ends.
+   * @param store
+   *          The store of the tiles.
+   * @param tileSize
+   *          The number of rows and columns of squares in a tile, a power of
+   *          two from 8 to 4096.
+   * @param budget
+   *          The most memory the bitsets of the tiles may take, in bytes, which
+   *          must hold at least one tile.
+   */
+  public TiledMaze(int rows, int columns, Square start, Square goal, TileStore store, int tileSize, long budget) {
+    super(rows, columns, start, goal);
+    if (tileSize < 8 || tileSize > 4096 || Integer.bitCount(tileSize) != 1) {
+      throw new IllegalArgumentException("Tile size must be a power of two from 8 to 4096: " + tileSize);
+    }
+    this.store = store;
+    this.shift = Integer.numberOfTrailingZeros(tileSize);
+    this.mask = tileSize - 1;
+    this.words = (tileSize * tileSize) >>> 6;
+    long tileBytes = 8L * this.words;
+    if (budget < tileBytes) {
+      throw new IllegalArgumentException("Budget must hold at least one tile of " + tileBytes + " bytes");
+    }
+    this.tileColumns = (int) (((long) columns + this.mask) >> this.shift);
+    int tileRows = (int) (((long) rows + this.mask) >> this.shift);
+    int count = tileRows * this.tileColumns;
+    this.tiles = new long[count][];
+    this.referenced = new boolean[count];
+    this.dirty = new boolean[count];
+    this.resident = new int[(int) Math.min(count, budget / tileBytes)];
+    this.checkStartAndGoal();
+  }
+
+  /**
+   * Cuts a maze into tiles and saves them in a store, e.g. to create a tiled
+   * maze with the same obstacles.
+   *
+   * @param maze
+   *          The maze.
+   * @param store
+   *          The store of the tiles.
+   * @param tileSize
+   *          The number of rows and columns of squares in a tile, a power of
+   *          two from 8 to 4096.
+   * @throws IOException
+   *           If a tile cannot be saved.
+   */
+  public static void saveTiles(Maze maze, TileStore store, int tileSize) throws IOException {
+    if (tileSize < 8 || tileSize > 4096 || Integer.bitCount(tileSize) != 1) {
+      throw new IllegalArgumentException("Tile size must be a power of two from 8 to 4096: " + tileSize);
+    }
+    long[] bits = new long[(tileSize * tileSize) >>> 6];
+    for (int top = 0; top < maze.getRows(); top += tileSize) {
+      for (int left = 0; left < maze.getColumns(); left += tileSize) {
+        Arrays.fill(bits, 0);
+        // squares of edge tiles beyond the maze stay clear, so that an edge
+        // tile with no obstacles is still saved as free
+        int height = Math.min(tileSize, maze.getRows() - top);
+        int width = Math.min(tileSize, maze.getColumns() - left);
+        for (int row = 0; row < height; ++row) {
+          for (int column = 0; column < width; ++column) {
+            if (maze.isBlocked(top + row, left + column)) {
+              int bit = row * tileSize + column;
+              bits[bit >>> 6] |= 1L << bit;
+            }
+          }
+        }
+        store.save(top / tileSize, left / tileSize, bits);
+      }
+    }
+  }
+
+  /**
+   * Determines if the given square is blocked by an obstacle, loading its tile
+   * if it is not in memory.
+   *
+   * @throws UncheckedIOException
+   *           If the tile cannot be loaded, or a changed tile evicted to make
+   *           room for it cannot be saved.
+   */
+  @Override
+  public boolean isBlocked(int row, int column) {
+    if (!this.inBounds(row, column)) {
+      return true;
+    }
+    long[] bits = this.getTile((row >> this.shift) * this.tileColumns + (column >> this.shift));
+    if (bits == FREE) {
+      return false;
+    }
+    if (bits == FULL) {
+      return true;
+    }
+    int bit = ((row & this.mask) << this.shift) | (column & this.mask);
+    return (bits[bit >>> 6] & (1L << bit)) != 0;
+  }
+
+  @Override
+  protected void storeBlocked(int row, int column, boolean blocked) {
+    int tile = (row >> this.shift) * this.tileColumns + (column >> this.shift);
+    long[] bits = this.getTile(tile);
+    if (bits == FREE || bits == FULL) {
+      long[] copy = new long[this.words];
+      if (bits == FULL) {
+        Arrays.fill(copy, -1L);
+      }
+      this.admit(tile);
+      this.tiles[tile] = copy;
+      bits = copy;
+    }
+    int bit = ((row & this.mask) << this.shift) | (column & this.mask);
+    if (blocked) {
+      bits[bit >>> 6] |= 1L << bit;
+    } else {
+      bits[bit >>> 6] &= ~(1L << bit);
+    }
+    this.dirty[tile] = true;
+  }
+
+  private long[] getTile(int tile) {
+    long[] bits = this.tiles[tile];
+    if (bits == null) {
+      bits = this.load(tile);
+    } else {
+      ++this.hits;
+    }
+    this.referenced[tile] = true;
+    return bits;
+  }
+
+  private long[] load(int tile) {
+    long[] bits;
+    try {
+      bits = this.store.load(tile / this.tileColumns, tile % this.tileColumns, this.words);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    ++this.loads;
+    if (bits == null) {
+      bits = FREE;
+    } else if (bits.length != this.words) {
+      throw new IllegalStateException("Tile " + tile + " has " + bits.length + " words, not " + this.words);
+    } else {
+      boolean free = true;
+      boolean full = true;
+      for (long word : bits) {
+        free &= word == 0;
+        full &= word == -1L;
+      }
+      if (free) {
+        bits = FREE;
+      } else if (full) {
+        bits = FULL;
+      } else {
+        this.admit(tile);
+      }
+    }
+    this.tiles[tile] = bits;
+    return bits;
+  }
+
+  // makes room for the bitset of a tile, evicting another tile if needed
+  private void admit(int tile) {
+    if (this.residentCount < this.resident.length) {
+      this.resident[this.residentCount++] = tile;
+      return;
+    }
+    while (this.referenced[this.resident[this.hand]]) {
+      this.referenced[this.resident[this.hand]] = false;
+      this.hand = (this.hand + 1) % this.resident.length;
+    }
+    this.evict(this.resident[this.hand]);
+    this.resident[this.hand] = tile;
+    this.hand = (this.hand + 1) % this.resident.length;
+  }
+
+  private void evict(int tile) {
+    if (this.dirty[tile]) {
+      try {
+        this.save(tile);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    this.tiles[tile] = null;
+    this.referenced[tile] = false;
+    ++this.evictions;
+  }
+
+  private void save(int tile) throws IOException {
+    this.store.save(tile / this.tileColumns, tile % this.tileColumns, this.tiles[tile]);
+    this.dirty[tile] = false;
+  }
+
+  /**
+   * Saves every changed tile still in memory to the store.
+   *
+   * @throws IOException
+   *           If a tile cannot be saved.
+   */
+  public void flush() throws IOException {
+    for (int index = 0; index < this.residentCount; ++index) {
+      if (this.dirty[this.resident[index]]) {
+        this.save(this.resident[index]);
+      }
+    }
+  }
+
+  /**
+   * @return The number of rows and columns of squares in a tile.
+   */
+  public int getTileSize() {
+    return 1 << this.shift;
+  }
+
+  /**
+   * @return The number of tiles loaded from the store, including tiles loaded
+   *         again after being evicted.
+   */
+  public long getTileLoads() {
+    return this.loads;
+  }
+
+  /**
+   * @return The number of times a square was read or changed in a tile that
+   *         was already in memory.
+   */
+  public long getTileHits() {
+    return this.hits;
+  }
+
+  /**
+   * @return The number of tiles evicted to keep the tiles within the budget.
+   */
+  public long getTileEvictions() {
+    return this.evictions;
+  }
+
+  /**
+   * @return The fraction of reads and changes of squares whose tile was
+   *         already in memory, or 0 if no square has been read.
+   */
+  public double getHitRate() {
+    long total = this.hits + this.loads;
+    return total == 0 ? 0 : (double) this.hits / total;
+  }
+
+  /**
+   * @return The number of tiles whose bitsets are in memory. Tiles kept as
+   *         flags are not counted.
+   */
+  public int getResidentTiles() {
+    return this.residentCount;
+  }
+
+  /**
+   * @return The memory taken by the bitsets of the tiles, in bytes.
+   */
+  public long getMemoryBytes() {
+    return 8L * this.words * this.residentCount;
+  }
+}
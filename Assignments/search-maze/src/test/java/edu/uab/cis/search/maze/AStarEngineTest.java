@@ -0,0 +1,87 @@
+package edu.uab.cis.search.maze;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+public class AStarEngineTest {
+
+  @Test(timeout = 10000)
+  public void testRepeatedQueriesMatchSolver() {
+    Random random = new Random(42);
+    int rows = 20;
+    int columns = 30;
+    Set<Square> obstacles = Sets.newHashSet();
+    for (int i = 0; i < rows * columns / 4; ++i) {
+      obstacles.add(new Square(random.nextInt(rows), random.nextInt(columns)));
+    }
+    obstacles.remove(new Square(0, 0));
+    AStarEngine engine = new AStarEngine(new Maze(rows, columns, new Square(0, 0), new Square(0, 0), obstacles));
+    for (int query = 0; query < 200; ++query) {
+      Square start = new Square(random.nextInt(rows), random.nextInt(columns));
+      Square goal = new Square(random.nextInt(rows), random.nextInt(columns));
+      if (obstacles.contains(start) || obstacles.contains(goal)) {
+        Assert.assertFalse(engine.search(start, goal));
+        Assert.assertEquals(0, engine.getPathLength());
+        continue;
+      }
+      Solver solver = new Solver(new Maze(rows, columns, start, goal, obstacles));
+      List<Square> expectedPath = solver.getPathFromStartToGoal();
+      Assert.assertEquals(!expectedPath.isEmpty(), engine.search(start, goal));
+      Assert.assertEquals(expectedPath, engine.getPathFromStartToGoal());
+      Assert.assertEquals(solver.getExploredSquares(), engine.getExploredSquares());
+      Assert.assertEquals(expectedPath.size(), engine.getPathLength());
+    }
+  }
+
+  @Test
+  public void testPrimitiveResults() {
+    // @formatter:off
+    // "######\n" +
+    // "#    #\n" +
+    // "# # G#\n" +
+    // "#S # #\n" +
+    // "######\n";
+    // @formatter:on
+    Set<Square> obstacles = Sets.newHashSet(new Square(1, 1), new Square(2, 2));
+    Maze maze = new Maze(3, 4, new Square(2, 0), new Square(1, 3), obstacles);
+    AStarEngine engine = new AStarEngine(maze);
+    Assert.assertTrue(engine.search(maze.getStart(), maze.getGoal()));
+    int[] path = new int[engine.getPathLength()];
+    Assert.assertEquals(7, engine.getPath(path));
+    int[] expectedPath = { 8, 4, 0, 1, 2, 3, 7 };
+    Assert.assertArrayEquals(expectedPath, path);
+
+    int[] explored = new int[engine.getExploredCount()];
+    Assert.assertEquals(8, engine.getExplored(explored));
+    Assert.assertEquals(8, explored[0]);
+    Assert.assertEquals(7, explored[explored.length - 1]);
+
+    // a second query against the same engine
+    Assert.assertTrue(engine.search(new Square(0, 3), new Square(0, 0)));
+    Assert.assertEquals(
+        Lists.newArrayList(new Square(0, 3), new Square(0, 2), new Square(0, 1), new Square(0, 0)),
+        engine.getPathFromStartToGoal());
+    Assert.assertEquals(4, engine.getExploredCount());
+  }
+
+  @Test
+  public void testNoPathMaze() {
+    Maze maze = MazeGenerator.noPath(41, 37, 0.1, 5);
+    AStarEngine engine = new AStarEngine(maze);
+    Assert.assertFalse(engine.search(maze.getStart(), maze.getGoal()));
+    Assert.assertEquals(0, engine.getPathLength());
+    // every square explored lies above the wall
+    int[] explored = new int[engine.getExploredCount()];
+    engine.getExplored(explored);
+    for (int cell : explored) {
+      Assert.assertTrue(cell / maze.getColumns() < 20);
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package edu.uab.cis.search.maze;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AnytimeEngineTest {
+
+  @Test(timeout = 10000)
+  public void testRunsToOptimal() {
+    Random random = new Random(17);
+    for (int trial = 0; trial < 50; ++trial) {
+      Maze maze = MazeGenerator.random(30 + random.nextInt(30), 30 + random.nextInt(30), 0.3, trial);
+      AStarEngine astar = new AStarEngine(maze);
+      AnytimeEngine anytime = new AnytimeEngine(maze);
+      Square start = new Square(random.nextInt(maze.getRows()), random.nextInt(maze.getColumns()));
+      Square goal = new Square(random.nextInt(maze.getRows()), random.nextInt(maze.getColumns()));
+      Assert.assertEquals(astar.search(start, goal), anytime.search(start, goal));
+      Assert.assertTrue(anytime.isOptimal());
+      Assert.assertEquals(astar.getPathLength(), anytime.getPathLength());
+      if (anytime.getPathLength() > 0) {
+        Assert.assertEquals(1.0, anytime.getSuboptimalityBound(), 0);
+        JumpPointEngineTest.assertValidPath(maze, start, goal, anytime.getPathFromStartToGoal());
+      }
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testBoundHoldsWhenInterrupted() {
+    Maze maze = MazeGenerator.random(300, 300, 0.3, 4);
+    AStarEngine astar = new AStarEngine(maze);
+    Random random = new Random(8);
+    for (int trial = 0; trial < 20; ++trial) {
+      Square start = new Square(random.nextInt(300), random.nextInt(300));
+      Square goal = new Square(random.nextInt(300), random.nextInt(300));
+      astar.search(start, goal);
+      AnytimeEngine anytime = new AnytimeEngine(maze, 3.0, 0.25);
+      // an expired deadline still completes a step on a maze this small
+      boolean found = anytime.search(start, goal, 0, TimeUnit.NANOSECONDS);
+      if (found) {
+        List<Square> path = anytime.getPathFromStartToGoal();
+        JumpPointEngineTest.assertValidPath(maze, start, goal, path);
+        Assert.assertTrue(anytime.getWeight() <= 3.0);
+        Assert.assertTrue(anytime.getSuboptimalityBound() <= anytime.getWeight());
+        Assert.assertTrue((path.size() - 1) <= anytime.getSuboptimalityBound() * (astar.getPathLength() - 1) + 1e-9);
+      } else {
+        Assert.assertTrue(anytime.getPathLength() == 0);
+      }
+    }
+  }
+
+  @Test
+  public void testExpiredDeadlineKeepsFirstPath() {
+    Maze maze = MazeGenerator.random(100, 100, 0, 1);
+    AnytimeEngine anytime = new AnytimeEngine(maze);
+    // the first, weighted step reaches the goal before the deadline is checked
+    Assert.assertTrue(anytime.search(maze.getStart(), maze.getGoal(), 0, TimeUnit.NANOSECONDS));
+    Assert.assertEquals(2.5, anytime.getWeight(), 0);
+    Assert.assertEquals(199, anytime.getPathLength());
+    // with no obstacles the first path is already provably the shortest
+    Assert.assertEquals(1.0, anytime.getSuboptimalityBound(), 0);
+    Assert.assertTrue(anytime.isOptimal());
+  }
+
+  @Test
+  public void testNoPath() {
+    Maze maze = MazeGenerator.noPath(11, 11, 0, 1);
+    AnytimeEngine anytime = new AnytimeEngine(maze);
+    Assert.assertFalse(anytime.search(maze.getStart(), maze.getGoal()));
+    Assert.assertTrue(anytime.isOptimal());
+    Assert.assertTrue(anytime.getPathFromStartToGoal().isEmpty());
+    Assert.assertEquals(55, anytime.getExploredCount());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWeightBelowOne() {
+    new AnytimeEngine(MazeGenerator.corridor(5, 5), 0.5, 0.25);
+  }
+}
@@ -0,0 +1,46 @@
+package edu.uab.cis.search.maze;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class BatchSolverTest {
+
+  @Test(timeout = 10000)
+  public void testResultsInInputOrder() {
+    Maze maze = MazeGenerator.random(40, 50, 0.25, 3);
+    Random random = new Random(5);
+    List<PathQuery> queries = Lists.newArrayList();
+    for (int i = 0; i < 500; ++i) {
+      queries.add(new PathQuery(new Square(random.nextInt(40), random.nextInt(50)),
+          new Square(random.nextInt(40), random.nextInt(50))));
+    }
+    BatchSolver batch = new BatchSolver(maze, 4);
+    try {
+      Assert.assertEquals(4, batch.getParallelism());
+      List<List<Square>> paths = batch.solve(queries);
+      Assert.assertEquals(queries.size(), paths.size());
+      AStarEngine engine = new AStarEngine(maze);
+      for (int i = 0; i < queries.size(); ++i) {
+        engine.search(queries.get(i).getStart(), queries.get(i).getGoal());
+        Assert.assertEquals(engine.getPathFromStartToGoal(), paths.get(i));
+      }
+    } finally {
+      batch.shutdown();
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testEmptyBatch() {
+    BatchSolver batch = new BatchSolver(MazeGenerator.corridor(5, 5), Solver.Mode.JUMP_POINT, 2);
+    try {
+      Assert.assertTrue(batch.solve(Lists.<PathQuery> newArrayList()).isEmpty());
+    } finally {
+      batch.shutdown();
+    }
+  }
+}
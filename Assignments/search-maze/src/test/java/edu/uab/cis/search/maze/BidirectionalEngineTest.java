@@ -0,0 +1,55 @@
+package edu.uab.cis.search.maze;
+
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Sets;
+
+public class BidirectionalEngineTest {
+
+  @Test(timeout = 10000)
+  public void testNoObstacles() {
+    Maze maze = new Maze(2, 13, new Square(0, 0), new Square(0, 12), Sets.<Square> newHashSet());
+    BidirectionalEngine engine = new BidirectionalEngine(maze);
+    Assert.assertTrue(engine.search(maze.getStart(), maze.getGoal()));
+    Assert.assertEquals(13, engine.getPathLength());
+    JumpPointEngineTest.assertValidPath(maze, maze.getStart(), maze.getGoal(), engine.getPathFromStartToGoal());
+    // the two frontiers cover the path between them
+    Set<Square> explored = Sets.union(engine.getForwardExploredSquares(), engine.getBackwardExploredSquares());
+    Assert.assertEquals(explored, engine.getExploredSquares());
+    Assert.assertTrue(engine.getForwardExploredSquares().contains(new Square(0, 0)));
+    Assert.assertTrue(engine.getBackwardExploredSquares().contains(new Square(0, 12)));
+  }
+
+  @Test(timeout = 10000)
+  public void testNoPath() {
+    // the goal is walled off in the bottom-right corner
+    Set<Square> obstacles = Sets.newHashSet(new Square(3, 4), new Square(4, 3));
+    Maze maze = new Maze(5, 5, new Square(0, 0), new Square(4, 4), obstacles);
+    Solver solver = new Solver(maze, Solver.Mode.BIDIRECTIONAL);
+    Assert.assertTrue(solver.getPathFromStartToGoal().isEmpty());
+  }
+
+  @Test(timeout = 10000)
+  public void testSameLengthAsAStar() {
+    Random random = new Random(11);
+    for (double density : new double[] { 0.0, 0.2, 0.35 }) {
+      Maze maze = MazeGenerator.random(30, 40, density, random.nextLong());
+      AStarEngine astar = new AStarEngine(maze);
+      BidirectionalEngine bidirectional = new BidirectionalEngine(maze);
+      for (int query = 0; query < 300; ++query) {
+        Square start = new Square(random.nextInt(30), random.nextInt(40));
+        Square goal = new Square(random.nextInt(30), random.nextInt(40));
+        boolean expected = astar.search(start, goal);
+        Assert.assertEquals(expected, bidirectional.search(start, goal));
+        Assert.assertEquals(astar.getPathLength(), bidirectional.getPathLength());
+        if (expected) {
+          JumpPointEngineTest.assertValidPath(maze, start, goal, bidirectional.getPathFromStartToGoal());
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,136 @@
+package edu.uab.cis.search.maze;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BucketOpenListTest {
+
+  @Test
+  public void testOrdering() {
+    BucketOpenList list = new BucketOpenList(10);
+    list.insert(7, 5, 2);
+    list.insert(3, 5, 2);
+    list.insert(9, 4, 4);
+    list.insert(1, 5, 1);
+    list.insert(0, 6, 0);
+    Assert.assertEquals(5, list.size());
+    // smaller f first, then smaller h, then smaller id
+    Assert.assertEquals(9, list.poll());
+    Assert.assertEquals(1, list.poll());
+    Assert.assertEquals(3, list.poll());
+    Assert.assertEquals(7, list.poll());
+    Assert.assertEquals(0, list.poll());
+    Assert.assertTrue(list.isEmpty());
+  }
+
+  @Test
+  public void testSameOrderAsHeap() {
+    Random random = new Random(1);
+    int cells = 500;
+    IndexedMinHeap heap = new IndexedMinHeap(cells);
+    BucketOpenList list = new BucketOpenList(cells);
+    for (int step = 0; step < 20000; ++step) {
+      int id = random.nextInt(cells);
+      // scores drift upwards, like those of a best-first search
+      int f = step / 100 + random.nextInt(40);
+      int h = random.nextInt(1000);
+      if (heap.contains(id)) {
+        Assert.assertEquals(heap.getF(id), list.getF(id));
+        Assert.assertEquals(heap.getH(id), list.getH(id));
+        if (random.nextBoolean()) {
+          heap.update(id, f, h);
+          list.update(id, f, h);
+        } else {
+          heap.remove(id);
+          list.remove(id);
+        }
+      } else {
+        heap.insert(id, f, h);
+        list.insert(id, f, h);
+      }
+      if (random.nextInt(3) == 0 && !heap.isEmpty()) {
+        Assert.assertEquals(heap.poll(), list.poll());
+      }
+      Assert.assertEquals(heap.size(), list.size());
+    }
+    while (!heap.isEmpty()) {
+      Assert.assertEquals(heap.poll(), list.poll());
+    }
+    Assert.assertTrue(list.isEmpty());
+  }
+
+  @Test
+  public void testDistantScores() {
+    BucketOpenList list = new BucketOpenList(10);
+    list.insert(4, Integer.MAX_VALUE / 4, Integer.MAX_VALUE / 4);
+    list.insert(5, Integer.MAX_VALUE / 4 - 100, Integer.MAX_VALUE / 4 - 7);
+    list.insert(6, Integer.MAX_VALUE / 4 - 101, Integer.MAX_VALUE / 4 - 107);
+    Assert.assertEquals(6, list.poll());
+    Assert.assertEquals(5, list.poll());
+    Assert.assertEquals(4, list.poll());
+    list.insert(2, 0, 0);
+    Assert.assertEquals(2, list.poll());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testScoresTooFarApart() {
+    BucketOpenList list = new BucketOpenList(10);
+    list.insert(4, Integer.MAX_VALUE / 4, 0);
+    list.insert(5, 0, 0);
+  }
+
+  @Test
+  public void testDecreaseKeyAndClear() {
+    BucketOpenList list = new BucketOpenList(100);
+    for (int id = 99; id >= 0; --id) {
+      list.insert(id, 50 + id % 7, id % 3);
+    }
+    list.decreaseKey(42, 10, 1);
+    Assert.assertEquals(10, list.getF(42));
+    Assert.assertEquals(42, list.peek());
+    list.clear();
+    Assert.assertTrue(list.isEmpty());
+    for (int id = 0; id < 100; ++id) {
+      Assert.assertFalse(list.contains(id));
+    }
+    list.insert(3, 1, 1);
+    Assert.assertEquals(3, list.poll());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIncreaseKeyRejected() {
+    BucketOpenList list = new BucketOpenList(10);
+    list.insert(2, 8, 3);
+    list.decreaseKey(2, 9, 3);
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void testPollEmpty() {
+    new BucketOpenList(3).poll();
+  }
+
+  @Test
+  public void testSameSearchAsHeap() {
+    for (int seed = 0; seed < 20; ++seed) {
+      Maze maze = MazeGenerator.random(40, 40, 0.3, seed);
+      AStarEngine heap = new AStarEngine(maze);
+      AStarEngine buckets = new AStarEngine(maze, null, new BucketOpenList(40 * 40));
+      Assert.assertEquals(heap.search(maze.getStart(), maze.getGoal()), buckets.search(maze.getStart(),
+          maze.getGoal()));
+      int[] expected = new int[heap.getExploredCount()];
+      heap.getExplored(expected);
+      int[] actual = new int[buckets.getExploredCount()];
+      buckets.getExplored(actual);
+      Assert.assertArrayEquals(expected, actual);
+      Assert.assertEquals(heap.getPathFromStartToGoal(), buckets.getPathFromStartToGoal());
+    }
+    Maze maze = MazeGenerator.random(30, 30, 0.2, 4);
+    Solver expected = new Solver(maze);
+    Solver solver = new Solver(maze, Solver.Mode.BUCKET_A_STAR);
+    Assert.assertEquals(expected.getPathFromStartToGoal(), solver.getPathFromStartToGoal());
+    Assert.assertEquals(expected.getExploredSquares(), solver.getExploredSquares());
+  }
+}
@@ -0,0 +1,77 @@
+package edu.uab.cis.search.maze;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompactPathTest {
+
+  @Test
+  public void testSameAsEnginePath() {
+    for (int seed = 0; seed < 10; ++seed) {
+      Maze maze = MazeGenerator.random(60, 70, 0.25, seed);
+      AStarEngine engine = new AStarEngine(maze);
+      engine.search(maze.getStart(), maze.getGoal());
+      List<Square> expected = engine.getPathFromStartToGoal();
+      CompactPath path = engine.getCompactPath();
+      Assert.assertEquals(expected.size(), path.size());
+      Assert.assertEquals(expected, path.asList());
+      List<Square> iterated = new ArrayList<Square>();
+      for (Square square : path) {
+        iterated.add(square);
+      }
+      Assert.assertEquals(expected, iterated);
+      for (int index = 0; index < path.size(); ++index) {
+        Assert.assertEquals(expected.get(index), path.get(index));
+      }
+      int[] cells = new int[engine.getPathLength()];
+      engine.getPath(cells);
+      int[] unpacked = new int[path.size()];
+      Assert.assertEquals(cells.length, path.getCells(unpacked));
+      Assert.assertArrayEquals(cells, unpacked);
+      // the default for other engines packs the cells of the path
+      Assert.assertEquals(expected, CompactPath.fromCells(cells, cells.length, maze.getColumns()).asList());
+    }
+  }
+
+  @Test
+  public void testLongPath() {
+    Maze maze = MazeGenerator.corridor(201, 201);
+    Solver solver = new Solver(maze);
+    CompactPath path = solver.getCompactPath();
+    Assert.assertTrue(path.size() > 20000);
+    Assert.assertEquals(maze.getStart(), path.get(0));
+    Assert.assertEquals(maze.getGoal(), path.get(path.size() - 1));
+    Assert.assertEquals(solver.getPathFromStartToGoal(), path.asList());
+    JumpPointEngineTest.assertValidPath(maze, maze.getStart(), maze.getGoal(), path.asList());
+  }
+
+  @Test
+  public void testShortPaths() {
+    CompactPath empty = CompactPath.fromCells(new int[0], 0, 5);
+    Assert.assertTrue(empty.isEmpty());
+    Assert.assertFalse(empty.iterator().hasNext());
+    Assert.assertEquals(Arrays.<Square> asList(), empty.asList());
+    CompactPath single = CompactPath.fromCells(new int[] { 7 }, 1, 5);
+    Assert.assertEquals(Arrays.asList(new Square(1, 2)), single.asList());
+    // up, right, down, down, left
+    CompactPath moves = CompactPath.fromCells(new int[] { 7, 2, 3, 8, 13, 12 }, 6, 5);
+    Assert.assertEquals(Arrays.asList(new Square(1, 2), new Square(0, 2), new Square(0, 3), new Square(1, 3),
+        new Square(2, 3), new Square(2, 2)), moves.asList());
+    Assert.assertEquals(8, moves.getCell(3));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNotAdjacent() {
+    // the end of one row is not next to the start of the next
+    CompactPath.fromCells(new int[] { 4, 5 }, 2, 5);
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testUnmodifiable() {
+    CompactPath.fromCells(new int[] { 0, 1 }, 2, 5).asList().set(0, new Square(0, 0));
+  }
+}
@@ -0,0 +1,111 @@
+package edu.uab.cis.search.maze;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ComponentIndexTest {
+
+  @Test
+  public void testComponents() {
+    Maze maze = MazeGenerator.noPath(6, 7, 0, 1);
+    ComponentIndex components = new ComponentIndex(maze);
+    Assert.assertEquals(2, components.getComponentCount());
+    Assert.assertFalse(components.isConnected(maze.getStart(), maze.getGoal()));
+    Assert.assertEquals(components.getComponentSize(maze.getStart()) + components.getComponentSize(maze.getGoal()),
+        6 * 7 - 7);
+    Assert.assertEquals(ComponentIndex.BLOCKED, components.getComponent(new Square(-1, 0)));
+    Assert.assertEquals(0, components.getComponentSize(new Square(3, 0)));
+  }
+
+  @Test(timeout = 10000)
+  public void testIncrementalUpdates() {
+    Random random = new Random(11);
+    for (int trial = 0; trial < 20; ++trial) {
+      Maze maze = MazeGenerator.random(15 + random.nextInt(15), 15 + random.nextInt(15), 0.3, trial);
+      ComponentIndex components = new ComponentIndex(maze);
+      for (int change = 0; change < 300; ++change) {
+        Square square = new Square(random.nextInt(maze.getRows()), random.nextInt(maze.getColumns()));
+        if (square.equals(maze.getStart()) || square.equals(maze.getGoal())) {
+          continue;
+        }
+        if (maze.isBlocked(square)) {
+          maze.unblock(square);
+        } else {
+          maze.block(square);
+        }
+        if (change % 10 == 0) {
+          assertSameComponents(maze, components);
+        }
+      }
+      assertSameComponents(maze, components);
+      components.close();
+    }
+  }
+
+  @Test
+  public void testSplitAndJoin() {
+    Maze maze = MazeGenerator.random(5, 5, 0, 1);
+    ComponentIndex components = new ComponentIndex(maze);
+    // a wall across the middle row, except for one gap
+    for (int column = 0; column < 4; ++column) {
+      maze.block(new Square(2, column));
+    }
+    Assert.assertEquals(1, components.getComponentCount());
+    maze.block(new Square(2, 4));
+    Assert.assertEquals(2, components.getComponentCount());
+    Assert.assertEquals(10, components.getComponentSize(new Square(0, 0)));
+    Assert.assertFalse(components.isConnected(new Square(0, 0), new Square(4, 4)));
+    maze.unblock(new Square(2, 1));
+    Assert.assertEquals(1, components.getComponentCount());
+    Assert.assertEquals(21, components.getComponentSize(new Square(4, 4)));
+    components.close();
+    maze.block(new Square(2, 1));
+    // no longer updated
+    Assert.assertEquals(1, components.getComponentCount());
+  }
+
+  @Test
+  public void testUnreachableGoal() {
+    Maze maze = MazeGenerator.noPath(200, 200, 0.2, 3);
+    ComponentIndex components = new ComponentIndex(maze);
+    Solver solver = new Solver(maze, Solver.Mode.A_STAR, components);
+    Assert.assertTrue(solver.getPathFromStartToGoal().isEmpty());
+    Assert.assertTrue(solver.getExploredSquares().isEmpty());
+    AStarEngine engine = new AStarEngine(maze);
+    engine.setComponentIndex(components);
+    Assert.assertFalse(engine.search(maze.getStart(), maze.getGoal()));
+    Assert.assertEquals(0, engine.getExploredCount());
+    maze.unblock(new Square(100, 7));
+    Assert.assertEquals(new Solver(maze).getPathFromStartToGoal(), new Solver(maze, Solver.Mode.A_STAR, components)
+        .getPathFromStartToGoal());
+  }
+
+  // checks that the index agrees with the components of a fresh index
+  private static void assertSameComponents(Maze maze, ComponentIndex components) {
+    ComponentIndex expected = new ComponentIndex(maze);
+    expected.close();
+    Assert.assertEquals(expected.getComponentCount(), components.getComponentCount());
+    Map<Integer, Integer> labels = new HashMap<Integer, Integer>();
+    Map<Integer, Integer> inverse = new HashMap<Integer, Integer>();
+    for (int row = 0; row < maze.getRows(); ++row) {
+      for (int column = 0; column < maze.getColumns(); ++column) {
+        Square square = new Square(row, column);
+        int label = components.getComponent(square);
+        int expectedLabel = expected.getComponent(square);
+        Assert.assertEquals(expectedLabel == ComponentIndex.BLOCKED, label == ComponentIndex.BLOCKED);
+        if (label == ComponentIndex.BLOCKED) {
+          continue;
+        }
+        Integer previous = labels.put(label, expectedLabel);
+        Assert.assertTrue(previous == null || previous == expectedLabel);
+        previous = inverse.put(expectedLabel, label);
+        Assert.assertTrue(previous == null || previous == label);
+        Assert.assertEquals(expected.getComponentSize(square), components.getComponentSize(square));
+      }
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package edu.uab.cis.search.maze;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DStarLitePlannerTest {
+
+  @Test(timeout = 10000)
+  public void testReplanningMatchesAStar() {
+    Random random = new Random(19);
+    int rows = 30;
+    int columns = 40;
+    Maze maze = MazeGenerator.random(rows, columns, 0.25, 23);
+    AStarEngine astar = new AStarEngine(maze);
+    DStarLitePlanner planner = new DStarLitePlanner(maze, maze.getStart(), maze.getGoal());
+    Square start = maze.getStart();
+    for (int change = 0; change < 300; ++change) {
+      Square square = new Square(random.nextInt(rows), random.nextInt(columns));
+      if (!square.equals(maze.getStart()) && !square.equals(maze.getGoal()) && !square.equals(start)) {
+        if (maze.isBlocked(square)) {
+          maze.unblock(square);
+        } else {
+          maze.block(square);
+        }
+      }
+      boolean expected = astar.search(start, maze.getGoal());
+      List<Square> path = planner.getPathFromStartToGoal();
+      Assert.assertEquals(astar.getPathLength(), path.size());
+      Assert.assertEquals(astar.getPathLength(), planner.getPathLength());
+      if (expected) {
+        JumpPointEngineTest.assertValidPath(maze, start, maze.getGoal(), path);
+        // occasionally walk one step along the path
+        if (path.size() > 1 && random.nextInt(4) == 0) {
+          start = path.get(1);
+          planner.moveStart(start);
+        }
+      }
+    }
+    planner.close();
+  }
+
+  @Test(timeout = 10000)
+  public void testSmallChangeIsCheap() {
+    Maze maze = MazeGenerator.random(200, 200, 0.1, 29);
+    DStarLitePlanner planner = new DStarLitePlanner(maze, maze.getStart(), maze.getGoal());
+    List<Square> path = planner.getPathFromStartToGoal();
+    Assert.assertFalse(path.isEmpty());
+    int initial = planner.getLastExpansions();
+    // block a square in the middle of the current path
+    maze.block(path.get(path.size() / 2));
+    Assert.assertFalse(planner.getPathFromStartToGoal().isEmpty());
+    Assert.assertTrue(planner.getLastExpansions() < initial);
+    // nothing changed, so nothing to repair
+    planner.replan();
+    Assert.assertEquals(0, planner.getLastExpansions());
+    planner.close();
+  }
+}
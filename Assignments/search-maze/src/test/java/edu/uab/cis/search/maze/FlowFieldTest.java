@@ -0,0 +1,97 @@
+package edu.uab.cis.search.maze;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FlowFieldTest {
+
+  @Test
+  public void testShortestPaths() {
+    Maze maze = MazeGenerator.random(40, 50, 0.3, 7);
+    FlowField field = FlowField.build(maze, maze.getGoal());
+    AStarEngine engine = new AStarEngine(maze);
+    Random random = new Random(7);
+    for (int query = 0; query < 200; ++query) {
+      Square start = new Square(random.nextInt(40), random.nextInt(50));
+      engine.search(start, maze.getGoal());
+      Assert.assertEquals(engine.getPathLength() - 1, field.getDistance(start));
+      CompactPath path = field.getPath(start);
+      Assert.assertEquals(engine.getPathLength(), path.size());
+      if (!path.isEmpty()) {
+        JumpPointEngineTest.assertValidPath(maze, start, maze.getGoal(), path.asList());
+        Square next = field.getNextStep(start);
+        Assert.assertEquals(path.size() > 1 ? path.get(1) : start, next);
+      } else {
+        Assert.assertNull(field.getNextStep(start));
+      }
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testParallelWavefront() {
+    Maze maze = MazeGenerator.random(1500, 1500, 0.1, 2);
+    FlowField sequential = FlowField.build(maze, maze.getGoal());
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      FlowField parallel = FlowField.build(maze, maze.getGoal(), pool);
+      for (int cell = 0; cell < 1500 * 1500; ++cell) {
+        Assert.assertEquals(sequential.getDistance(cell), parallel.getDistance(cell));
+      }
+      Assert.assertEquals(sequential.getPath(maze.getStart()).asList(), parallel.getPath(maze.getStart()).asList());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testUnreachable() {
+    Maze maze = MazeGenerator.noPath(10, 10, 0, 1);
+    FlowField field = FlowField.build(maze, maze.getGoal());
+    Assert.assertEquals(FlowField.UNREACHABLE, field.getDistance(maze.getStart()));
+    Assert.assertTrue(field.getPath(maze.getStart()).isEmpty());
+    Assert.assertEquals(FlowField.UNREACHABLE, field.getDistance(new Square(5, 0)));
+    Assert.assertEquals(0, field.getDistance(maze.getGoal()));
+    Assert.assertEquals(1, field.getPath(maze.getGoal()).size());
+    Assert.assertTrue(field.isCurrent());
+    maze.unblock(new Square(5, 3));
+    Assert.assertFalse(field.isCurrent());
+  }
+
+  @Test
+  public void testCache() {
+    Maze maze = MazeGenerator.random(10, 10, 0, 1);
+    // room for two fields of 400 bytes
+    FlowFieldCache cache = new FlowFieldCache(maze, 1000);
+    Square a = new Square(0, 0);
+    Square b = new Square(9, 9);
+    Square c = new Square(5, 5);
+    FlowField fieldA = cache.getField(a);
+    Assert.assertSame(fieldA, cache.getField(a));
+    cache.getField(b);
+    // touch a so that b is the least recently used
+    cache.getField(a);
+    cache.getField(c);
+    Assert.assertEquals(2, cache.size());
+    Assert.assertEquals(800, cache.getMemoryBytes());
+    Assert.assertEquals(1, cache.getEvictions());
+    Assert.assertSame(fieldA, cache.getField(a));
+    Assert.assertEquals(3, cache.getHits());
+    Assert.assertEquals(3, cache.getMisses());
+    maze.block(new Square(3, 3));
+    Assert.assertNotSame(fieldA, cache.getField(a));
+    Assert.assertEquals(1, cache.size());
+    Assert.assertEquals(400, cache.getMemoryBytes());
+  }
+
+  @Test
+  public void testFieldLargerThanBudget() {
+    Maze maze = MazeGenerator.random(10, 10, 0, 1);
+    FlowFieldCache cache = new FlowFieldCache(maze, 100);
+    Assert.assertEquals(18, cache.getField(maze.getGoal()).getDistance(maze.getStart()));
+    Assert.assertEquals(0, cache.size());
+    Assert.assertEquals(0, cache.getMemoryBytes());
+  }
+}
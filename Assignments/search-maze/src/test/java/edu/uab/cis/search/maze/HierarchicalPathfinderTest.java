@@ -0,0 +1,64 @@
+package edu.uab.cis.search.maze;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Sets;
+
+public class HierarchicalPathfinderTest {
+
+  @Test(timeout = 10000)
+  public void testNoObstacles() {
+    Maze maze = new Maze(20, 20, new Square(0, 0), new Square(19, 19), Sets.<Square> newHashSet());
+    HierarchicalPathfinder pathfinder = new HierarchicalPathfinder(maze, 5);
+    // 4x4 clusters, one transition across each of the 24 borders, 2 nodes each
+    Assert.assertEquals(48, pathfinder.getAbstractNodeCount());
+    Assert.assertTrue(pathfinder.search(maze.getStart(), maze.getGoal()));
+    // in an open maze, every crossing is on some shortest path
+    Assert.assertEquals(39, pathfinder.getPathLength());
+    JumpPointEngineTest.assertValidPath(maze, maze.getStart(), maze.getGoal(), pathfinder.getPathFromStartToGoal());
+    Assert.assertTrue(pathfinder.getAbstractGraphBytes() > 0);
+  }
+
+  @Test(timeout = 10000)
+  public void testStartIsGoal() {
+    Maze maze = new Maze(10, 10, new Square(3, 3), new Square(3, 3), Sets.<Square> newHashSet());
+    HierarchicalPathfinder pathfinder = new HierarchicalPathfinder(maze, 4);
+    Assert.assertTrue(pathfinder.search(maze.getStart(), maze.getGoal()));
+    Assert.assertEquals(Sets.newHashSet(new Square(3, 3)), Sets.newHashSet(pathfinder.getPathFromStartToGoal()));
+  }
+
+  @Test(timeout = 10000)
+  public void testNearOptimal() {
+    Random random = new Random(13);
+    int rows = 60;
+    int columns = 70;
+    Maze maze = MazeGenerator.random(rows, columns, 0.25, 17);
+    AStarEngine astar = new AStarEngine(maze);
+    for (int clusterSize : new int[] { 1, 7, 10, 16, 100 }) {
+      HierarchicalPathfinder pathfinder = new HierarchicalPathfinder(maze, clusterSize);
+      long optimal = 0;
+      long found = 0;
+      for (int query = 0; query < 200; ++query) {
+        Square start = new Square(random.nextInt(rows), random.nextInt(columns));
+        Square goal = new Square(random.nextInt(rows), random.nextInt(columns));
+        boolean expected = astar.search(start, goal);
+        Assert.assertEquals(expected, pathfinder.search(start, goal));
+        if (expected) {
+          JumpPointEngineTest.assertValidPath(maze, start, goal, pathfinder.getPathFromStartToGoal());
+          Assert.assertTrue(pathfinder.getPathLength() >= astar.getPathLength());
+          optimal += astar.getPathLength();
+          found += pathfinder.getPathLength();
+        }
+      }
+      // measured suboptimality over all queries
+      double suboptimality = (double) found / optimal;
+      Assert.assertTrue("Suboptimality " + suboptimality, suboptimality < 1.1);
+      if (clusterSize == 1 || clusterSize >= Math.max(rows, columns)) {
+        Assert.assertEquals(optimal, found);
+      }
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package edu.uab.cis.search.maze;
+
+import java.util.NoSuchElementException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IndexedMinHeapTest {
+
+  @Test
+  public void testOrdering() {
+    IndexedMinHeap heap = new IndexedMinHeap(10);
+    heap.insert(7, 5, 2);
+    heap.insert(3, 5, 2);
+    heap.insert(9, 4, 4);
+    heap.insert(1, 5, 1);
+    heap.insert(0, 6, 0);
+    Assert.assertEquals(5, heap.size());
+    // smaller f first, then smaller h, then smaller id
+    Assert.assertEquals(9, heap.poll());
+    Assert.assertEquals(1, heap.poll());
+    Assert.assertEquals(3, heap.poll());
+    Assert.assertEquals(7, heap.poll());
+    Assert.assertEquals(0, heap.poll());
+    Assert.assertTrue(heap.isEmpty());
+  }
+
+  @Test
+  public void testDecreaseKey() {
+    IndexedMinHeap heap = new IndexedMinHeap(10);
+    heap.insert(2, 8, 3);
+    heap.insert(4, 6, 3);
+    heap.insert(6, 7, 3);
+    Assert.assertTrue(heap.contains(6));
+    Assert.assertFalse(heap.contains(5));
+    heap.decreaseKey(6, 5, 3);
+    Assert.assertEquals(5, heap.getF(6));
+    Assert.assertEquals(3, heap.getH(6));
+    Assert.assertEquals(6, heap.poll());
+    Assert.assertFalse(heap.contains(6));
+    Assert.assertEquals(4, heap.poll());
+    Assert.assertEquals(2, heap.poll());
+  }
+
+  @Test
+  public void testUpdateAndRemove() {
+    IndexedMinHeap heap = new IndexedMinHeap(10);
+    for (int id = 0; id < 10; ++id) {
+      heap.insert(id, id, 0);
+    }
+    heap.update(0, 20, 0);
+    heap.update(9, 1, 0);
+    heap.remove(5);
+    heap.remove(1);
+    Assert.assertFalse(heap.contains(5));
+    int[] expected = { 9, 2, 3, 4, 6, 7, 8, 0 };
+    for (int id : expected) {
+      Assert.assertEquals(id, heap.poll());
+    }
+    Assert.assertTrue(heap.isEmpty());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIncreaseKeyRejected() {
+    IndexedMinHeap heap = new IndexedMinHeap(10);
+    heap.insert(2, 8, 3);
+    heap.decreaseKey(2, 9, 3);
+  }
+
+  @Test
+  public void testGrowAndClear() {
+    IndexedMinHeap heap = new IndexedMinHeap(1000);
+    for (int id = 999; id >= 0; --id) {
+      heap.insert(id, id % 17, 0);
+    }
+    int lastF = -1;
+    for (int i = 0; i < 500; ++i) {
+      int id = heap.poll();
+      Assert.assertTrue(id % 17 >= lastF);
+      lastF = id % 17;
+    }
+    heap.clear();
+    Assert.assertTrue(heap.isEmpty());
+    for (int id = 0; id < 1000; ++id) {
+      Assert.assertFalse(heap.contains(id));
+    }
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void testPollEmpty() {
+    new IndexedMinHeap(3).poll();
+  }
+}
@@ -0,0 +1,77 @@
+package edu.uab.cis.search.maze;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Sets;
+
+public class JumpPointEngineTest {
+
+  @Test(timeout = 10000)
+  public void testNoObstacles() {
+    Maze maze = new Maze(2, 13, new Square(0, 0), new Square(0, 12), Sets.<Square> newHashSet());
+    Solver solver = new Solver(maze, Solver.Mode.JUMP_POINT);
+    List<Square> path = solver.getPathFromStartToGoal();
+    Assert.assertEquals(13, path.size());
+    for (int column = 0; column <= 12; ++column) {
+      Assert.assertEquals(new Square(0, column), path.get(column));
+    }
+    // only the start and the goal are jump points
+    Assert.assertEquals(Sets.newHashSet(new Square(0, 0), new Square(0, 12)), solver.getExploredSquares());
+  }
+
+  @Test(timeout = 10000)
+  public void testStartIsGoal() {
+    Maze maze = new Maze(5, 13, new Square(2, 6), new Square(2, 6), Sets.<Square> newHashSet());
+    Solver solver = new Solver(maze, Solver.Mode.JUMP_POINT);
+    Assert.assertEquals(Sets.newHashSet(new Square(2, 6)), solver.getExploredSquares());
+    Assert.assertEquals(1, solver.getPathFromStartToGoal().size());
+  }
+
+  @Test(timeout = 10000)
+  public void testSameLengthAsAStar() {
+    Random random = new Random(7);
+    for (double density : new double[] { 0.0, 0.1, 0.25, 0.4 }) {
+      int rows = 25;
+      int columns = 35;
+      Set<Square> obstacles = Sets.newHashSet();
+      for (int i = 0; i < rows * columns * density; ++i) {
+        obstacles.add(new Square(random.nextInt(rows), random.nextInt(columns)));
+      }
+      Square corner = new Square(0, 0);
+      obstacles.remove(corner);
+      Maze maze = new Maze(rows, columns, corner, corner, obstacles);
+      AStarEngine astar = new AStarEngine(maze);
+      JumpPointEngine jps = new JumpPointEngine(maze);
+      for (int query = 0; query < 300; ++query) {
+        Square start = new Square(random.nextInt(rows), random.nextInt(columns));
+        Square goal = new Square(random.nextInt(rows), random.nextInt(columns));
+        boolean expected = astar.search(start, goal);
+        Assert.assertEquals(expected, jps.search(start, goal));
+        Assert.assertEquals(astar.getPathLength(), jps.getPathLength());
+        if (expected) {
+          assertValidPath(maze, start, goal, jps.getPathFromStartToGoal());
+        }
+      }
+    }
+  }
+
+  static void assertValidPath(Maze maze, Square start, Square goal, List<Square> path) {
+    Assert.assertEquals(start, path.get(0));
+    Assert.assertEquals(goal, path.get(path.size() - 1));
+    for (int i = 0; i < path.size(); ++i) {
+      Square square = path.get(i);
+      Assert.assertFalse(maze.isBlocked(square));
+      if (i > 0) {
+        Square previous = path.get(i - 1);
+        int distance = Math.abs(square.getRow() - previous.getRow())
+            + Math.abs(square.getColumn() - previous.getColumn());
+        Assert.assertEquals(1, distance);
+      }
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package edu.uab.cis.search.maze;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LandmarksTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test(timeout = 10000)
+  public void testShortestPathsWithFewerExpansions() {
+    Random random = new Random(12);
+    long plainExplored = 0;
+    long landmarkExplored = 0;
+    for (int trial = 0; trial < 20; ++trial) {
+      Maze maze = MazeGenerator.random(40 + random.nextInt(40), 40 + random.nextInt(40), 0.3, trial);
+      Landmarks landmarks = Landmarks.build(maze, 8, 4);
+      AStarEngine plain = new AStarEngine(maze);
+      AStarEngine alt = new AStarEngine(maze, landmarks);
+      for (int query = 0; query < 20; ++query) {
+        Square start = new Square(random.nextInt(maze.getRows()), random.nextInt(maze.getColumns()));
+        Square goal = new Square(random.nextInt(maze.getRows()), random.nextInt(maze.getColumns()));
+        Assert.assertEquals(plain.search(start, goal), alt.search(start, goal));
+        Assert.assertEquals(plain.getPathLength(), alt.getPathLength());
+        if (alt.getPathLength() > 0) {
+          JumpPointEngineTest.assertValidPath(maze, start, goal, alt.getPathFromStartToGoal());
+          plainExplored += plain.getExploredCount();
+          landmarkExplored += alt.getExploredCount();
+        }
+      }
+    }
+    Assert.assertTrue(landmarkExplored < plainExplored);
+  }
+
+  @Test
+  public void testCorridor() {
+    Maze maze = MazeGenerator.corridor(41, 41);
+    Landmarks landmarks = Landmarks.build(maze, 4, 2);
+    Solver plain = new Solver(maze);
+    Solver alt = new Solver(maze, landmarks);
+    Assert.assertEquals(plain.getPathFromStartToGoal(), alt.getPathFromStartToGoal());
+    Assert.assertEquals(alt.getPathFromStartToGoal().size(), alt.getExploredSquares().size());
+    // a landmark at the goal follows the corridor, so the estimate is exact
+    int start = maze.getCell(maze.getStart().getRow(), maze.getStart().getColumn());
+    int goal = maze.getCell(maze.getGoal().getRow(), maze.getGoal().getColumn());
+    Assert.assertEquals(alt.getPathFromStartToGoal().size() - 1, landmarks.estimate(start, goal));
+    Assert.assertTrue(landmarks.estimate(start, goal) > maze.getRows() + maze.getColumns());
+  }
+
+  @Test
+  public void testAdmissible() {
+    Maze maze = MazeGenerator.random(30, 30, 0.35, 6);
+    Landmarks landmarks = Landmarks.build(maze, 6, 3);
+    AStarEngine engine = new AStarEngine(maze);
+    Random random = new Random(2);
+    for (int query = 0; query < 200; ++query) {
+      Square start = new Square(random.nextInt(30), random.nextInt(30));
+      Square goal = new Square(random.nextInt(30), random.nextInt(30));
+      if (engine.search(start, goal)) {
+        int estimate = landmarks.estimate(maze.getCell(start.getRow(), start.getColumn()),
+            maze.getCell(goal.getRow(), goal.getColumn()));
+        Assert.assertTrue(estimate <= engine.getPathLength() - 1);
+      }
+    }
+  }
+
+  @Test
+  public void testLandmarks() {
+    Maze maze = MazeGenerator.random(10, 20, 0, 1);
+    Landmarks landmarks = Landmarks.build(maze, 4, 1);
+    Assert.assertEquals(4, landmarks.getLandmarkCount());
+    Assert.assertEquals(new Square(0, 0), landmarks.getLandmark(0));
+    Assert.assertEquals(new Square(0, 14), landmarks.getLandmark(1));
+    Assert.assertEquals(new Square(9, 19), landmarks.getLandmark(2));
+    Assert.assertEquals(new Square(9, 5), landmarks.getLandmark(3));
+    Assert.assertEquals(28, landmarks.getDistance(0, maze.getCell(9, 19)));
+    Assert.assertTrue(landmarks.isCurrent());
+    maze.block(new Square(3, 3));
+    Assert.assertFalse(landmarks.isCurrent());
+  }
+
+  @Test
+  public void testSaveAndLoad() throws IOException {
+    Maze maze = MazeGenerator.random(50, 70, 0.3, 8);
+    Landmarks landmarks = Landmarks.build(maze, 5, 2);
+    Path path = this.folder.newFile().toPath();
+    landmarks.save(path);
+    Landmarks loaded = Landmarks.load(maze, path);
+    Assert.assertEquals(landmarks.getLandmarkCount(), loaded.getLandmarkCount());
+    for (int index = 0; index < landmarks.getLandmarkCount(); ++index) {
+      Assert.assertEquals(landmarks.getLandmark(index), loaded.getLandmark(index));
+      for (int cell = 0; cell < 50 * 70; ++cell) {
+        Assert.assertEquals(landmarks.getDistance(index, cell), loaded.getDistance(index, cell));
+      }
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testLoadForOtherMaze() throws IOException {
+    Path path = this.folder.newFile().toPath();
+    Landmarks.build(MazeGenerator.random(20, 20, 0.3, 1), 4, 1).save(path);
+    Landmarks.load(MazeGenerator.random(20, 20, 0.3, 2), path);
+  }
+}
@@ -0,0 +1,90 @@
+package edu.uab.cis.search.maze;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MazeFilesTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testRead() throws IOException {
+    // @formatter:off
+    String mazeString = 
+      "#######\n" +
+      "#    G#\n" +
+      "#  #  #\n" +
+      "# S # #\n" +
+      "#######\n";
+    // @formatter:on
+    Maze maze = MazeFiles.read(this.write(mazeString));
+    Assert.assertEquals(3, maze.getRows());
+    Assert.assertEquals(5, maze.getColumns());
+    Assert.assertEquals(new Square(2, 1), maze.getStart());
+    Assert.assertEquals(new Square(0, 4), maze.getGoal());
+    Assert.assertTrue(maze.isBlocked(1, 2));
+    Assert.assertTrue(maze.isBlocked(2, 3));
+    Assert.assertFalse(maze.isBlocked(0, 0));
+    Assert.assertEquals(mazeString, maze.toString());
+  }
+
+  @Test
+  public void testReadWindowsLineEndings() throws IOException {
+    String mazeString = "####\r\n#S #\r\n#G##\r\n####\r\n";
+    Maze maze = MazeFiles.read(this.write(mazeString));
+    Assert.assertEquals(new Square(1, 0), maze.getGoal());
+    Assert.assertTrue(maze.isBlocked(1, 1));
+  }
+
+  @Test
+  public void testStartIsGoal() throws IOException {
+    Maze maze = MazeFiles.read(this.write("#####\n# S #\n#####\n"));
+    Assert.assertEquals(maze.getStart(), maze.getGoal());
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    Maze maze = MazeGenerator.random(123, 77, 0.3, 31);
+    Path path = this.folder.newFile().toPath();
+    MazeFiles.write(maze, path);
+    Assert.assertEquals(maze.toString(), new String(Files.readAllBytes(path), StandardCharsets.US_ASCII));
+    Assert.assertEquals(maze.toString(), MazeFiles.read(path).toString());
+  }
+
+  @Test(expected = IOException.class)
+  public void testMissingBorder() throws IOException {
+    MazeFiles.read(this.write("#####\n# S #\n#   #\n"));
+  }
+
+  @Test(expected = IOException.class)
+  public void testUnexpectedCharacter() throws IOException {
+    MazeFiles.read(this.write("#####\n# S #\n# x #\n#####\n"));
+  }
+
+  @Test
+  public void testSecondStartOrGoal() throws IOException {
+    for (String mazeString : new String[] { "#####\n# S #\n#S G#\n#####\n", "#####\n#GS #\n#  G#\n#####\n" }) {
+      try {
+        MazeFiles.read(this.write(mazeString));
+        Assert.fail("Expected a second start or goal to be rejected: " + mazeString);
+      } catch (IOException e) {
+        Assert.assertTrue(e.getMessage().startsWith("Second"));
+      }
+    }
+  }
+
+  private Path write(String contents) throws IOException {
+    File file = this.folder.newFile();
+    Files.write(file.toPath(), contents.getBytes(StandardCharsets.US_ASCII));
+    return file.toPath();
+  }
+}
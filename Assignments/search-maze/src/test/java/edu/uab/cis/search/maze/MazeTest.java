@@ -1,10 +1,12 @@
 package edu.uab.cis.search.maze;
 
+import java.util.List;
 import java.util.Set;
 
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 
 public class MazeTest {
@@ -32,4 +34,73 @@ public class MazeTest {
     Assert.assertTrue(maze.isBlocked(new Square(0, 6)));
     Assert.assertTrue(maze.isBlocked(new Square(7, 0)));
   }
+
+  @Test
+  public void testBitset() {
+    // 3x70 maze, so that the obstacles span more than one word
+    long[] obstacles = new long[4];
+    int[][] blocked = { { 0, 63 }, { 0, 64 }, { 1, 0 }, { 2, 69 } };
+    for (int[] square : blocked) {
+      int cell = square[0] * 70 + square[1];
+      obstacles[cell / 64] |= 1L << (cell % 64);
+    }
+    Maze maze = new Maze(3, 70, new Square(0, 0), new Square(2, 68), obstacles);
+    Assert.assertEquals(3, maze.getRows());
+    Assert.assertEquals(70, maze.getColumns());
+    for (int row = 0; row < 3; ++row) {
+      for (int column = 0; column < 70; ++column) {
+        boolean expected = false;
+        for (int[] square : blocked) {
+          expected |= square[0] == row && square[1] == column;
+        }
+        Assert.assertEquals(expected, maze.isBlocked(row, column));
+        Assert.assertEquals(expected, maze.isBlocked(new Square(row, column)));
+      }
+    }
+    Assert.assertTrue(maze.isBlocked(-1, 0));
+    Assert.assertTrue(maze.isBlocked(3, 0));
+    Assert.assertTrue(maze.isBlocked(0, 70));
+
+    // the same maze built from a set of squares
+    Set<Square> squares = Sets.newHashSet();
+    for (int[] square : blocked) {
+      squares.add(new Square(square[0], square[1]));
+    }
+    Maze fromSet = new Maze(3, 70, new Square(0, 0), new Square(2, 68), squares);
+    Assert.assertEquals(maze.toString(), fromSet.toString());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBlockedStart() {
+    long[] obstacles = { 1L };
+    new Maze(2, 2, new Square(0, 0), new Square(1, 1), obstacles);
+  }
+
+  @Test
+  public void testBlockAndUnblock() {
+    Maze maze = new Maze(3, 5, new Square(2, 1), new Square(0, 4), Sets.<Square> newHashSet());
+    final List<String> changes = Lists.newArrayList();
+    maze.addListener(new MazeListener() {
+      @Override
+      public void squareChanged(Maze changed, int row, int column, boolean blocked) {
+        changes.add(row + "," + column + "," + blocked);
+      }
+    });
+    Assert.assertEquals(0, maze.getVersion());
+    Assert.assertTrue(maze.block(new Square(1, 2)));
+    Assert.assertTrue(maze.isBlocked(1, 2));
+    Assert.assertFalse(maze.block(new Square(1, 2)));
+    Assert.assertEquals(1, maze.getVersion());
+    Assert.assertTrue(maze.unblock(new Square(1, 2)));
+    Assert.assertFalse(maze.isBlocked(1, 2));
+    Assert.assertFalse(maze.unblock(new Square(0, 0)));
+    Assert.assertEquals(2, maze.getVersion());
+    Assert.assertEquals(Lists.newArrayList("1,2,true", "1,2,false"), changes);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBlockGoal() {
+    Maze maze = new Maze(3, 5, new Square(2, 1), new Square(0, 4), Sets.<Square> newHashSet());
+    maze.block(new Square(0, 4));
+  }
 }
@@ -0,0 +1,148 @@
+package edu.uab.cis.search.maze;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class MemoryBoundedEngineTest {
+
+  @Test(timeout = 10000)
+  public void testIdaStarFindsShortestPaths() {
+    Random random = new Random(3);
+    for (int trial = 0; trial < 100; ++trial) {
+      Maze maze = MazeGenerator.random(8 + random.nextInt(8), 8 + random.nextInt(8), 0.25, trial);
+      AStarEngine astar = new AStarEngine(maze);
+      IdaStarEngine ida = new IdaStarEngine(maze);
+      Square start = new Square(random.nextInt(maze.getRows()), random.nextInt(maze.getColumns()));
+      Square goal = new Square(random.nextInt(maze.getRows()), random.nextInt(maze.getColumns()));
+      Assert.assertEquals(astar.search(start, goal), ida.search(start, goal));
+      Assert.assertEquals(astar.getPathLength(), ida.getPathLength());
+      if (ida.getPathLength() > 0) {
+        JumpPointEngineTest.assertValidPath(maze, start, goal, ida.getPathFromStartToGoal());
+      }
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testSmaStarFindsShortestPaths() {
+    Random random = new Random(4);
+    for (int trial = 0; trial < 100; ++trial) {
+      Maze maze = MazeGenerator.random(10 + random.nextInt(20), 10 + random.nextInt(20), 0.25, trial);
+      AStarEngine astar = new AStarEngine(maze);
+      Square start = new Square(random.nextInt(maze.getRows()), random.nextInt(maze.getColumns()));
+      Square goal = new Square(random.nextInt(maze.getRows()), random.nextInt(maze.getColumns()));
+      if (!astar.search(start, goal)) {
+        SmaStarEngine sma = new SmaStarEngine(maze, 5);
+        Assert.assertFalse(sma.search(start, goal));
+        Assert.assertEquals(0, sma.getExpansions());
+        continue;
+      }
+      // a budget well below the squares A* explored, but enough for the path
+      int budget = Math.max(astar.getPathLength() + 8, astar.getExploredCount() / 4);
+      SmaStarEngine sma = new SmaStarEngine(maze, budget);
+      Assert.assertTrue(sma.search(start, goal));
+      Assert.assertFalse(sma.isBudgetExceeded());
+      Assert.assertTrue(sma.getPeakNodes() <= budget);
+      Assert.assertEquals(astar.getPathLength(), sma.getPathLength());
+      JumpPointEngineTest.assertValidPath(maze, start, goal, sma.getPathFromStartToGoal());
+    }
+  }
+
+  @Test
+  public void testSmaStarBudgetTooSmall() {
+    Maze maze = MazeGenerator.corridor(9, 9);
+    SmaStarEngine sma = new SmaStarEngine(maze, 10);
+    Assert.assertFalse(sma.search(maze.getStart(), maze.getGoal()));
+    Assert.assertTrue(sma.isBudgetExceeded());
+    Assert.assertEquals(0, sma.getPathLength());
+  }
+
+  @Test
+  public void testNoPath() {
+    Maze maze = MazeGenerator.noPath(5, 6, 0, 1);
+    IdaStarEngine ida = new IdaStarEngine(maze);
+    Assert.assertFalse(ida.search(maze.getStart(), maze.getGoal()));
+    SmaStarEngine sma = new SmaStarEngine(maze, 1000);
+    Assert.assertFalse(sma.search(maze.getStart(), maze.getGoal()));
+    Assert.assertFalse(sma.isBudgetExceeded());
+  }
+
+  @Test(timeout = 10000)
+  public void testNoPathWithoutSearching() {
+    for (int seed = 0; seed < 20; ++seed) {
+      Maze maze = MazeGenerator.noPath(25, 25, 0.2, seed);
+      IdaStarEngine ida = new IdaStarEngine(maze);
+      Assert.assertFalse(ida.search(maze.getStart(), maze.getGoal()));
+      Assert.assertEquals(0, ida.getExpansions());
+      SmaStarEngine sma = new SmaStarEngine(maze, 110);
+      Assert.assertFalse(sma.search(maze.getStart(), maze.getGoal()));
+      Assert.assertEquals(0, sma.getExpansions());
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testExpansionLimit() {
+    Maze maze = MazeGenerator.random(64, 64, 0.2, 42);
+    IdaStarEngine ida = new IdaStarEngine(maze);
+    ida.setMaxExpansions(100000);
+    Assert.assertFalse(ida.search(maze.getStart(), maze.getGoal()));
+    Assert.assertTrue(ida.isAbandoned());
+    Assert.assertEquals(100000, ida.getExpansions());
+    Assert.assertEquals(0, ida.getPathLength());
+
+    // a budget just too small for the frontier, which keeps regenerating it
+    maze = MazeGenerator.random(30, 30, 0.3, 7);
+    SmaStarEngine sma = new SmaStarEngine(maze, 77);
+    sma.setMaxExpansions(100000);
+    Assert.assertFalse(sma.search(maze.getStart(), maze.getGoal()));
+    Assert.assertTrue(sma.isExpansionLimitReached());
+    Assert.assertTrue(sma.isAbandoned());
+    Assert.assertFalse(sma.isBudgetExceeded());
+    Assert.assertEquals(100000, sma.getExpansions());
+
+    sma.setMaxExpansions(SmaStarEngine.DEFAULT_MAX_EXPANSIONS);
+    Assert.assertTrue(sma.search(new Square(0, 0), new Square(0, 0)));
+    Assert.assertFalse(sma.isExpansionLimitReached());
+    Assert.assertFalse(sma.isAbandoned());
+  }
+
+  @Test(timeout = 20000)
+  public void testSolverReportsAbandonedSearch() {
+    Maze maze = MazeGenerator.random(50, 50, 0.3, 1);
+    Solver expected = new Solver(maze);
+    Assert.assertEquals(103, expected.getPathFromStartToGoal().size());
+    Assert.assertFalse(expected.isSearchAbandoned());
+    Solver sma = new Solver(maze, Solver.Mode.SMA_STAR);
+    Assert.assertEquals(103, sma.getPathFromStartToGoal().size());
+    Assert.assertFalse(sma.isSearchAbandoned());
+    // IDA* gives up on this maze at its default limit, which is not "no path"
+    Solver ida = new Solver(maze, Solver.Mode.IDA_STAR);
+    Assert.assertTrue(ida.isSearchAbandoned());
+    Assert.assertTrue(ida.getPathFromStartToGoal().isEmpty());
+
+    BatchSolver batch = new BatchSolver(maze, Solver.Mode.IDA_STAR, 1);
+    try {
+      List<List<Square>> paths = batch.solve(Lists.newArrayList(new PathQuery(maze.getStart(), maze.getGoal()),
+          new PathQuery(maze.getStart(), maze.getStart())));
+      Assert.assertNull(paths.get(0));
+      Assert.assertEquals(1, paths.get(1).size());
+    } finally {
+      batch.shutdown();
+    }
+  }
+
+  @Test
+  public void testSolverModes() {
+    Maze maze = MazeGenerator.random(20, 20, 0.2, 2);
+    Solver expected = new Solver(maze);
+    for (Solver.Mode mode : new Solver.Mode[] { Solver.Mode.IDA_STAR, Solver.Mode.SMA_STAR }) {
+      Solver solver = new Solver(maze, mode);
+      Assert.assertEquals(expected.getPathFromStartToGoal().size(), solver.getPathFromStartToGoal().size());
+      Assert.assertTrue(solver.getExploredSquares().isEmpty());
+    }
+  }
+}
@@ -0,0 +1,77 @@
+package edu.uab.cis.search.maze;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParallelAStarEngineTest {
+
+  @Test(timeout = 10000)
+  public void testFindsShortestPaths() {
+    Random random = new Random(5);
+    for (int threads = 1; threads <= 4; ++threads) {
+      for (int trial = 0; trial < 30; ++trial) {
+        Maze maze = MazeGenerator.random(10 + random.nextInt(40), 10 + random.nextInt(40), 0.3, trial);
+        AStarEngine astar = new AStarEngine(maze);
+        ParallelAStarEngine parallel = new ParallelAStarEngine(maze, threads);
+        Square start = new Square(random.nextInt(maze.getRows()), random.nextInt(maze.getColumns()));
+        Square goal = new Square(random.nextInt(maze.getRows()), random.nextInt(maze.getColumns()));
+        Assert.assertEquals(astar.search(start, goal), parallel.search(start, goal));
+        Assert.assertEquals(astar.getPathLength(), parallel.getPathLength());
+        if (parallel.isPathFound()) {
+          JumpPointEngineTest.assertValidPath(maze, start, goal, parallel.getPathFromStartToGoal());
+        }
+      }
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testReuse() {
+    Maze maze = MazeGenerator.random(60, 60, 0.2, 8);
+    AStarEngine astar = new AStarEngine(maze);
+    ParallelAStarEngine parallel = new ParallelAStarEngine(maze, 3);
+    Random random = new Random(8);
+    for (int query = 0; query < 50; ++query) {
+      Square start = new Square(random.nextInt(60), random.nextInt(60));
+      Square goal = new Square(random.nextInt(60), random.nextInt(60));
+      astar.search(start, goal);
+      parallel.search(start, goal);
+      Assert.assertEquals(astar.getPathLength(), parallel.getPathLength());
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testNoPath() {
+    Maze maze = MazeGenerator.noPath(30, 30, 0.1, 3);
+    ParallelAStarEngine parallel = new ParallelAStarEngine(maze, 4);
+    Assert.assertFalse(parallel.search(maze.getStart(), maze.getGoal()));
+    Assert.assertEquals(0, parallel.getPathLength());
+    Assert.assertTrue(parallel.getExploredCount() > 0);
+    Assert.assertFalse(parallel.search(maze.getStart(), new Square(-1, 0)));
+  }
+
+  @Test
+  public void testStartIsGoal() {
+    Maze maze = MazeGenerator.random(10, 10, 0, 1);
+    ParallelAStarEngine parallel = new ParallelAStarEngine(maze, 2);
+    Square square = new Square(4, 4);
+    Assert.assertTrue(parallel.search(square, square));
+    Assert.assertEquals(1, parallel.getPathLength());
+    Assert.assertEquals(1, parallel.getExploredCount());
+  }
+
+  @Test(timeout = 10000)
+  public void testSolverMode() {
+    Maze maze = MazeGenerator.random(50, 50, 0.2, 2);
+    Solver expected = new Solver(maze);
+    Solver solver = new Solver(maze, Solver.Mode.PARALLEL_A_STAR);
+    Assert.assertEquals(expected.getPathFromStartToGoal().size(), solver.getPathFromStartToGoal().size());
+    Assert.assertTrue(solver.getExploredSquares().containsAll(solver.getPathFromStartToGoal()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoThreads() {
+    new ParallelAStarEngine(MazeGenerator.random(10, 10, 0, 1), 0);
+  }
+}
@@ -0,0 +1,52 @@
+package edu.uab.cis.search.maze;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Sets;
+
+public class PathCacheTest {
+
+  @Test
+  public void testHitsMissesAndEvictions() {
+    Maze maze = new Maze(5, 5, new Square(0, 0), new Square(4, 4), Sets.<Square> newHashSet());
+    PathCache cache = new PathCache(maze, 2);
+    Square a = new Square(0, 0);
+    Square b = new Square(4, 4);
+    Square c = new Square(2, 2);
+    List<Square> ab = cache.getPath(a, b);
+    Assert.assertEquals(9, ab.size());
+    Assert.assertSame(ab, cache.getPath(a, b));
+    cache.getPath(a, c);
+    // touch a->b so that a->c is the least recently used
+    cache.getPath(a, b);
+    cache.getPath(b, c);
+    Assert.assertEquals(2, cache.size());
+    Assert.assertEquals(1, cache.getEvictions());
+    Assert.assertSame(ab, cache.getPath(a, b));
+    cache.getPath(a, c);
+    Assert.assertEquals(3, cache.getHits());
+    Assert.assertEquals(4, cache.getMisses());
+    Assert.assertEquals(2, cache.getEvictions());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testImmutable() {
+    Maze maze = new Maze(5, 5, new Square(0, 0), new Square(4, 4), Sets.<Square> newHashSet());
+    new PathCache(maze, 2).getPath(maze.getStart(), maze.getGoal()).clear();
+  }
+
+  @Test
+  public void testMazeEditInvalidates() {
+    Maze maze = new Maze(3, 3, new Square(0, 0), new Square(0, 2), Sets.<Square> newHashSet());
+    PathCache cache = new PathCache(maze, 10);
+    Assert.assertEquals(3, cache.getPath(maze.getStart(), maze.getGoal()).size());
+    maze.block(new Square(0, 1));
+    Assert.assertEquals(5, cache.getPath(maze.getStart(), maze.getGoal()).size());
+    Assert.assertEquals(0, cache.getHits());
+    Assert.assertEquals(2, cache.getMisses());
+    Assert.assertEquals(0, cache.getEvictions());
+  }
+}
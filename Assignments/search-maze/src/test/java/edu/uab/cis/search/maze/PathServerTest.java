@@ -0,0 +1,181 @@
+package edu.uab.cis.search.maze;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class PathServerTest {
+
+  private Maze maze = MazeGenerator.random(60, 80, 0.3, 9);
+  private PathServer server;
+
+  @Before
+  public void setUp() throws IOException {
+    this.server = new PathServer(0, 2);
+    this.server.addMaze("test", this.maze, 2);
+    this.server.start();
+  }
+
+  @After
+  public void tearDown() {
+    this.server.stop();
+  }
+
+  @Test(timeout = 20000)
+  public void testPathsUnderLoad() throws Exception {
+    Random random = new Random(3);
+    List<PathQuery> queries = Lists.newArrayList();
+    for (int index = 0; index < 400; ++index) {
+      queries.add(new PathQuery(new Square(random.nextInt(60), random.nextInt(80)),
+          new Square(random.nextInt(60), random.nextInt(80))));
+    }
+    PathLoadGenerator.Result result = PathLoadGenerator.run(this.server.getPort(), "test", queries, 16);
+    Assert.assertEquals(400, result.getRequests());
+    Assert.assertEquals(0, result.getErrors());
+    Assert.assertTrue(result.getLatencyPercentile(50) <= result.getLatencyPercentile(99));
+
+    AStarEngine engine = new AStarEngine(this.maze);
+    for (PathQuery query : queries.subList(0, 50)) {
+      List<Square> path = PathLoadGenerator.query(this.server.getPort(), "test", query);
+      engine.search(query.getStart(), query.getGoal());
+      Assert.assertEquals(engine.getPathLength(), path.size());
+      if (!path.isEmpty()) {
+        JumpPointEngineTest.assertValidPath(this.maze, query.getStart(), query.getGoal(), path);
+      }
+    }
+    Assert.assertEquals(450, this.server.getRequests());
+    Assert.assertEquals(0, this.server.getErrors());
+    Assert.assertTrue(this.server.getBatches() <= 450);
+    Assert.assertTrue(this.server.getMaxBatch() >= 1);
+    Assert.assertEquals(0, this.server.getQueueDepth());
+    Assert.assertTrue(this.server.getLatencyPercentile(50) > 0);
+    Assert.assertTrue(this.server.getLatencyPercentile(50) <= this.server.getLatencyPercentile(99));
+  }
+
+  @Test(timeout = 10000)
+  public void testRejectedQueries() throws Exception {
+    PathQuery query = new PathQuery(new Square(0, 0), new Square(1, 1));
+    try {
+      PathLoadGenerator.query(this.server.getPort(), "other", query);
+      Assert.fail("Expected an unknown maze to be rejected");
+    } catch (IOException e) {
+      Assert.assertTrue(e.getMessage().contains("404"));
+    }
+    try {
+      PathLoadGenerator.query(this.server.getPort(), "test", new PathQuery(new Square(0, 0), new Square(60, 0)));
+      Assert.fail("Expected a square outside the maze to be rejected");
+    } catch (IOException e) {
+      Assert.assertTrue(e.getMessage().contains("400"));
+    }
+    Assert.assertEquals(2, this.server.getErrors());
+  }
+
+  @Test(timeout = 20000)
+  public void testAbandonedSearch() throws Exception {
+    Maze maze = MazeGenerator.random(50, 50, 0.3, 1);
+    this.server.addMaze("hard", maze, Solver.Mode.IDA_STAR, 1);
+    try {
+      PathLoadGenerator.query(this.server.getPort(), "hard", new PathQuery(maze.getStart(), maze.getGoal()));
+      Assert.fail("Expected an abandoned search not to be answered as no path");
+    } catch (IOException e) {
+      Assert.assertTrue(e.getMessage().contains("500"));
+    }
+    Assert.assertEquals(1, this.server.getErrors());
+  }
+
+  @Test(timeout = 10000)
+  public void testFailedBatch() throws Exception {
+    // only the top-left tile can be read, so searches leaving it fail
+    TileStore store = new TileStore() {
+      @Override
+      public long[] load(int tileRow, int tileColumn, int words) throws IOException {
+        if (tileRow > 0 || tileColumn > 0) {
+          throw new IOException("Tile " + tileRow + "," + tileColumn + " is unavailable");
+        }
+        return null;
+      }
+
+      @Override
+      public void save(int tileRow, int tileColumn, long[] bits) {
+      }
+    };
+    TiledMaze maze = new TiledMaze(64, 64, new Square(0, 0), new Square(0, 1), store, 32, 4096);
+    this.server.addMaze("broken", maze, 1);
+    try {
+      PathLoadGenerator.query(this.server.getPort(), "broken", new PathQuery(new Square(0, 0), new Square(40, 40)));
+      Assert.fail("Expected a failed search to be answered with an error");
+    } catch (IOException e) {
+      Assert.assertTrue(e.getMessage().contains("500"));
+    }
+    Assert.assertEquals(1, this.server.getErrors());
+    // the maze is still served
+    List<Square> path = PathLoadGenerator.query(this.server.getPort(), "broken",
+        new PathQuery(new Square(0, 0), new Square(2, 3)));
+    Assert.assertEquals(6, path.size());
+    Assert.assertEquals(0, this.server.getQueueDepth());
+  }
+
+  @Test(timeout = 20000)
+  public void testWaitingQueriesAnsweredOnStop() throws Exception {
+    final Maze hard = MazeGenerator.random(50, 50, 0.3, 1);
+    final PathServer server = new PathServer(0, 2);
+    server.addMaze("hard", hard, Solver.Mode.IDA_STAR, 1);
+    server.start();
+    final String[] outcomes = new String[2];
+    Thread[] clients = new Thread[2];
+    for (int client = 0; client < 2; ++client) {
+      final int index = client;
+      clients[client] = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            PathLoadGenerator.query(server.getPort(), "hard", new PathQuery(hard.getStart(), hard.getGoal()));
+            outcomes[index] = "answered";
+          } catch (IOException e) {
+            outcomes[index] = String.valueOf(e.getMessage());
+          }
+        }
+      });
+    }
+    // the first query keeps the thread of the maze busy, so the second waits
+    clients[0].start();
+    while (server.getRequests() < 1) {
+      Thread.sleep(10);
+    }
+    Thread.sleep(200);
+    clients[1].start();
+    while (server.getQueueDepth() < 1) {
+      Thread.sleep(10);
+    }
+    server.stop();
+    clients[1].join();
+    Assert.assertTrue(outcomes[1], outcomes[1].contains("503"));
+    clients[0].join();
+  }
+
+  @Test(timeout = 10000)
+  public void testStats() throws Exception {
+    PathLoadGenerator.query(this.server.getPort(), "test", new PathQuery(new Square(0, 0), new Square(0, 0)));
+    URL url = new URL("http", "127.0.0.1", this.server.getPort(), "/stats");
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    try (InputStream input = connection.getInputStream(); Scanner scanner = new Scanner(input, "UTF-8")) {
+      String json = scanner.useDelimiter("\\A").next();
+      Assert.assertTrue(json, json.startsWith("{\"requests\":1,\"errors\":0,\"batches\":1,"));
+      Assert.assertTrue(json, json.contains("\"queueDepth\":0"));
+      Assert.assertTrue(json, json.contains("\"p99Micros\":"));
+    } finally {
+      connection.disconnect();
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package edu.uab.cis.search.maze;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RsrEngineTest {
+
+  @Test(timeout = 10000)
+  public void testShortestPaths() {
+    Random random = new Random(8);
+    for (double density : new double[] { 0, 0.05, 0.2, 0.35 }) {
+      Maze maze = MazeGenerator.random(50, 70, density, 11);
+      AStarEngine astar = new AStarEngine(maze);
+      RsrEngine rsr = new RsrEngine(maze);
+      for (int query = 0; query < 200; ++query) {
+        Square start = new Square(random.nextInt(50), random.nextInt(70));
+        Square goal = new Square(random.nextInt(50), random.nextInt(70));
+        Assert.assertEquals(astar.search(start, goal), rsr.search(start, goal));
+        Assert.assertEquals(astar.getPathLength(), rsr.getPathLength());
+        if (rsr.getPathLength() > 0) {
+          JumpPointEngineTest.assertValidPath(maze, start, goal, rsr.getPathFromStartToGoal());
+        }
+      }
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testRoomsExploreFewerSquares() {
+    Maze maze = MazeGenerator.rooms(299, 299, 29, 5);
+    Solver astar = new Solver(maze);
+    Solver rsr = new Solver(maze, Solver.Mode.RSR);
+    List<Square> path = rsr.getPathFromStartToGoal();
+    Assert.assertEquals(astar.getPathFromStartToGoal().size(), path.size());
+    JumpPointEngineTest.assertValidPath(maze, maze.getStart(), maze.getGoal(), path);
+    Assert.assertTrue(rsr.getExploredSquares().size() * 5 < astar.getExploredSquares().size());
+  }
+
+  @Test
+  public void testInsideOneRectangle() {
+    Maze maze = new Maze(10, 10, new Square(2, 3), new Square(7, 8), Collections.<Square> emptySet());
+    RsrEngine engine = new RsrEngine(maze);
+    Assert.assertEquals(1, engine.getRectangles().getRectangleCount());
+    Assert.assertTrue(engine.search(maze.getStart(), maze.getGoal()));
+    Assert.assertEquals(11, engine.getPathLength());
+    JumpPointEngineTest.assertValidPath(maze, maze.getStart(), maze.getGoal(), engine.getPathFromStartToGoal());
+    Assert.assertEquals(2, engine.getExploredCount());
+    Assert.assertTrue(engine.search(maze.getStart(), maze.getStart()));
+    Assert.assertEquals(1, engine.getPathLength());
+  }
+
+  @Test
+  public void testRebuiltAfterChange() {
+    Maze maze = MazeGenerator.rooms(39, 39, 9, 2);
+    RsrEngine engine = new RsrEngine(maze);
+    AStarEngine astar = new AStarEngine(maze);
+    Assert.assertTrue(engine.search(maze.getStart(), maze.getGoal()));
+    List<Square> path = engine.getPathFromStartToGoal();
+    RectangleDecomposition before = engine.getRectangles();
+    maze.block(path.get(path.size() / 2));
+    astar.search(maze.getStart(), maze.getGoal());
+    engine.search(maze.getStart(), maze.getGoal());
+    Assert.assertNotSame(before, engine.getRectangles());
+    Assert.assertEquals(astar.getPathLength(), engine.getPathLength());
+    if (engine.getPathLength() > 0) {
+      JumpPointEngineTest.assertValidPath(maze, maze.getStart(), maze.getGoal(), engine.getPathFromStartToGoal());
+    }
+  }
+
+  @Test
+  public void testDecompositionCoversOpenSquares() {
+    Maze maze = MazeGenerator.random(60, 45, 0.25, 3);
+    RectangleDecomposition rectangles = RectangleDecomposition.build(maze);
+    int[] area = new int[rectangles.getRectangleCount()];
+    for (int row = 0; row < 60; ++row) {
+      for (int column = 0; column < 45; ++column) {
+        int rectangle = rectangles.getRectangle(maze.getCell(row, column));
+        if (maze.isBlocked(row, column)) {
+          Assert.assertEquals(RectangleDecomposition.NONE, rectangle);
+          continue;
+        }
+        Assert.assertTrue(row >= rectangles.getTop(rectangle) && row <= rectangles.getBottom(rectangle));
+        Assert.assertTrue(column >= rectangles.getLeft(rectangle) && column <= rectangles.getRight(rectangle));
+        ++area[rectangle];
+      }
+    }
+    for (int rectangle = 0; rectangle < area.length; ++rectangle) {
+      int height = rectangles.getBottom(rectangle) - rectangles.getTop(rectangle) + 1;
+      int width = rectangles.getRight(rectangle) - rectangles.getLeft(rectangle) + 1;
+      Assert.assertEquals(height * width, area[rectangle]);
+    }
+    Assert.assertTrue(rectangles.isCurrent());
+    Assert.assertTrue(rectangles.getBuildNanos() > 0);
+  }
+}
@@ -0,0 +1,139 @@
+package edu.uab.cis.search.maze;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class SearchMetricsTest {
+
+  @Test
+  public void testCounters() {
+    Maze maze = MazeGenerator.random(1, 3, 0, 1);
+    SearchMetrics metrics = new SearchMetrics();
+    Solver solver = new Solver(maze, Solver.Mode.A_STAR, metrics);
+    Assert.assertEquals(3, solver.getPathFromStartToGoal().size());
+
+    SearchStatistics statistics = metrics.getLargest();
+    Assert.assertEquals(new Square(0, 0), statistics.getStart());
+    Assert.assertEquals(new Square(0, 2), statistics.getGoal());
+    Assert.assertTrue(statistics.isFound());
+    Assert.assertEquals(3, statistics.getPathLength());
+    Assert.assertEquals(3, statistics.getExpanded());
+    // the start, (0, 1) from the start, then (0, 2) and (0, 0) from (0, 1)
+    Assert.assertEquals(4, statistics.getGenerated());
+    Assert.assertEquals(1, statistics.getDuplicatesSkipped());
+    Assert.assertEquals(1, statistics.getPeakOpenSize());
+    Assert.assertEquals(3, statistics.getHeuristicEvaluations());
+    Assert.assertTrue(statistics.getNanos() > 0);
+
+    Assert.assertEquals(1, metrics.getSearches());
+    Assert.assertEquals(1, metrics.getFound());
+    Assert.assertEquals(Long.valueOf(4), metrics.toMap().get("generated"));
+    Assert.assertEquals(Long.valueOf(3), metrics.toMap().get("maxExpanded"));
+  }
+
+  @Test
+  public void testEngineModesReport() {
+    Maze maze = MazeGenerator.random(30, 30, 0.2, 9);
+    for (Solver.Mode mode : new Solver.Mode[] { Solver.Mode.A_STAR, Solver.Mode.JUMP_POINT,
+        Solver.Mode.BIDIRECTIONAL }) {
+      SearchMetrics metrics = new SearchMetrics();
+      Solver solver = new Solver(maze, mode, metrics);
+      SearchStatistics statistics = metrics.getLargest();
+      Assert.assertEquals(1, metrics.getSearches());
+      Assert.assertEquals(solver.getPathFromStartToGoal().size(), statistics.getPathLength());
+      Assert.assertEquals(solver.getExploredSquares().size(), statistics.getExpanded());
+      Assert.assertEquals(statistics.getGenerated() - statistics.getDuplicatesSkipped(),
+          statistics.getHeuristicEvaluations());
+      Assert.assertTrue(statistics.getPeakOpenSize() > 0);
+    }
+  }
+
+  @Test
+  public void testListenerRemoved() {
+    Maze maze = MazeGenerator.corridor(9, 9);
+    SearchMetrics metrics = new SearchMetrics();
+    AStarEngine engine = new AStarEngine(maze);
+    engine.setSearchListener(metrics);
+    engine.search(maze.getStart(), maze.getGoal());
+    engine.setSearchListener(SearchListener.NONE);
+    engine.search(maze.getStart(), maze.getGoal());
+    Assert.assertEquals(1, metrics.getSearches());
+  }
+
+  @Test(timeout = 10000)
+  public void testBatchTotals() {
+    Maze maze = MazeGenerator.random(40, 40, 0.25, 3);
+    Random random = new Random(7);
+    List<PathQuery> queries = Lists.newArrayList();
+    for (int i = 0; i < 200; ++i) {
+      queries.add(new PathQuery(new Square(random.nextInt(40), random.nextInt(40)),
+          new Square(random.nextInt(40), random.nextInt(40))));
+    }
+    SearchMetrics metrics = new SearchMetrics();
+    BatchSolver batch = new BatchSolver(maze, Solver.Mode.A_STAR, 4, metrics);
+    long expanded = 0;
+    long maxExpanded = 0;
+    try {
+      batch.solve(queries);
+      AStarEngine engine = new AStarEngine(maze);
+      for (PathQuery query : queries) {
+        engine.search(query.getStart(), query.getGoal());
+        expanded += engine.getExploredCount();
+        maxExpanded = Math.max(maxExpanded, engine.getExploredCount());
+      }
+    } finally {
+      batch.shutdown();
+    }
+    Assert.assertEquals(queries.size(), metrics.getSearches());
+    Assert.assertEquals(expanded, metrics.getExpanded());
+    Assert.assertEquals(maxExpanded, metrics.getMaxExpanded());
+    Assert.assertEquals(maxExpanded, metrics.getLargest().getExpanded());
+  }
+
+  @Test
+  public void testMemoryBoundedModesReport() {
+    Maze maze = MazeGenerator.random(15, 15, 0.2, 4);
+    int length = new Solver(maze).getPathFromStartToGoal().size();
+    for (Solver.Mode mode : new Solver.Mode[] { Solver.Mode.IDA_STAR, Solver.Mode.SMA_STAR }) {
+      SearchMetrics metrics = new SearchMetrics();
+      Assert.assertEquals(length, new Solver(maze, mode, metrics).getPathFromStartToGoal().size());
+      SearchStatistics statistics = metrics.getLargest();
+      Assert.assertEquals(1, metrics.getSearches());
+      Assert.assertEquals(length, statistics.getPathLength());
+      // every re-expansion is counted
+      Assert.assertTrue(statistics.getExpanded() >= length);
+      Assert.assertEquals(statistics.getGenerated() - statistics.getDuplicatesSkipped(),
+          statistics.getHeuristicEvaluations());
+      Assert.assertTrue(statistics.getPeakOpenSize() > 0);
+    }
+  }
+
+  @Test
+  public void testParallelWorkersSummed() {
+    Maze maze = MazeGenerator.random(30, 30, 0.2, 9);
+    SearchMetrics metrics = new SearchMetrics();
+    Solver solver = new Solver(maze, Solver.Mode.PARALLEL_A_STAR, metrics);
+    SearchStatistics statistics = metrics.getLargest();
+    Assert.assertEquals(1, metrics.getSearches());
+    Assert.assertEquals(new Solver(maze).getPathFromStartToGoal().size(), statistics.getPathLength());
+    Assert.assertEquals(solver.getPathFromStartToGoal().size(), statistics.getPathLength());
+    Assert.assertEquals(solver.getExploredSquares().size(), statistics.getExpanded());
+    Assert.assertTrue(statistics.getGenerated() > statistics.getExpanded());
+    Assert.assertTrue(statistics.getHeuristicEvaluations() > 0);
+    Assert.assertTrue(statistics.getPeakOpenSize() > 0);
+  }
+
+  @Test
+  public void testListenerIgnored() {
+    SearchMetrics metrics = new SearchMetrics();
+    HierarchicalPathfinder pathfinder = new HierarchicalPathfinder(MazeGenerator.corridor(9, 9), 4);
+    pathfinder.setSearchListener(metrics);
+    pathfinder.search(new Square(0, 0), new Square(8, 8));
+    Assert.assertEquals(0, metrics.getSearches());
+  }
+}
@@ -0,0 +1,117 @@
+package edu.uab.cis.search.maze;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TiledMazeTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test(timeout = 10000)
+  public void testSolverMatchesDenseMaze() throws IOException {
+    Maze maze = MazeGenerator.random(300, 250, 0.3, 4);
+    TileStore store = new DirectoryTileStore(this.folder.getRoot().toPath());
+    TiledMaze.saveTiles(maze, store, 16);
+    // room for 20 of the 16 x 16 tiles, of 32 bytes each
+    TiledMaze tiled = new TiledMaze(300, 250, maze.getStart(), maze.getGoal(), store, 16, 20 * 32);
+    for (Solver.Mode mode : new Solver.Mode[] { Solver.Mode.A_STAR, Solver.Mode.JUMP_POINT }) {
+      Solver dense = new Solver(maze, mode);
+      Solver solver = new Solver(tiled, mode);
+      Assert.assertEquals(dense.getPathFromStartToGoal().size(), solver.getPathFromStartToGoal().size());
+      if (!solver.getPathFromStartToGoal().isEmpty()) {
+        JumpPointEngineTest.assertValidPath(maze, maze.getStart(), maze.getGoal(), solver.getPathFromStartToGoal());
+      }
+    }
+    for (int row = -1; row <= 300; ++row) {
+      for (int column = -1; column <= 250; ++column) {
+        Assert.assertEquals(maze.isBlocked(row, column), tiled.isBlocked(row, column));
+      }
+    }
+    Assert.assertTrue(tiled.getTileEvictions() > 0);
+    Assert.assertTrue(tiled.getTileLoads() > 19 * 16);
+    Assert.assertTrue(tiled.getHitRate() > 0.5 && tiled.getHitRate() < 1);
+    Assert.assertEquals(20, tiled.getResidentTiles());
+    Assert.assertEquals(20 * 32, tiled.getMemoryBytes());
+  }
+
+  @Test
+  public void testUniformTilesAreFlags() throws IOException {
+    // a solid block of rock filling the tile from (32, 32) to (63, 63)
+    Maze maze = new Maze(128, 128, new Square(0, 0), new Square(127, 127), Collections.<Square> emptySet());
+    for (int row = 32; row < 64; ++row) {
+      for (int column = 32; column < 64; ++column) {
+        maze.block(new Square(row, column));
+      }
+    }
+    DirectoryTileStore store = new DirectoryTileStore(this.folder.getRoot().toPath());
+    TiledMaze.saveTiles(maze, store, 32);
+    File[] files = this.folder.getRoot().listFiles();
+    Assert.assertEquals(1, files.length);
+    Assert.assertEquals(1, files[0].length());
+
+    TiledMaze tiled = new TiledMaze(128, 128, maze.getStart(), maze.getGoal(), store, 32, 128);
+    for (int row = 0; row < 128; ++row) {
+      for (int column = 0; column < 128; ++column) {
+        Assert.assertEquals(maze.isBlocked(row, column), tiled.isBlocked(row, column));
+      }
+    }
+    Assert.assertEquals(16, tiled.getTileLoads());
+    // the start and the goal are also read when the maze is created
+    Assert.assertEquals(128 * 128 + 2 - 16, tiled.getTileHits());
+    Assert.assertEquals(0, tiled.getResidentTiles());
+    Assert.assertEquals(0, tiled.getMemoryBytes());
+  }
+
+  @Test
+  public void testFreeEdgeTilesAreFlags() throws IOException {
+    Maze maze = new Maze(100, 70, new Square(0, 0), new Square(99, 69), Collections.<Square> emptySet());
+    DirectoryTileStore store = new DirectoryTileStore(this.folder.getRoot().toPath());
+    TiledMaze.saveTiles(maze, store, 32);
+    Assert.assertEquals(0, this.folder.getRoot().listFiles().length);
+
+    TiledMaze tiled = new TiledMaze(100, 70, maze.getStart(), maze.getGoal(), store, 32, 128);
+    Assert.assertFalse(tiled.isBlocked(99, 69));
+    Assert.assertTrue(tiled.isBlocked(100, 69));
+    Assert.assertEquals(0, tiled.getMemoryBytes());
+  }
+
+  @Test
+  public void testChangesAreSavedOnEviction() throws IOException {
+    DirectoryTileStore store = new DirectoryTileStore(this.folder.getRoot().toPath());
+    Square start = new Square(0, 0);
+    Square goal = new Square(63, 63);
+    // room for a single 8 x 8 tile, so each change evicts the tile changed before
+    TiledMaze tiled = new TiledMaze(64, 64, start, goal, store, 8, 8);
+    Assert.assertTrue(tiled.block(new Square(3, 4)));
+    Assert.assertTrue(tiled.block(new Square(20, 30)));
+    Assert.assertTrue(tiled.block(new Square(50, 10)));
+    Assert.assertTrue(tiled.unblock(new Square(20, 30)));
+    Assert.assertFalse(tiled.block(new Square(3, 4)));
+    Assert.assertEquals(4, tiled.getVersion());
+    Assert.assertTrue(tiled.getTileEvictions() >= 3);
+    tiled.flush();
+
+    TiledMaze reloaded = new TiledMaze(64, 64, start, goal, store, 8, 1 << 10);
+    for (int row = 0; row < 64; ++row) {
+      for (int column = 0; column < 64; ++column) {
+        boolean blocked = (row == 3 && column == 4) || (row == 50 && column == 10);
+        Assert.assertEquals(blocked, reloaded.isBlocked(row, column));
+      }
+    }
+    // the tile that was blocked and then opened again is all open, so has no file
+    Assert.assertEquals(2, this.folder.getRoot().listFiles().length);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBudgetTooSmall() throws IOException {
+    DirectoryTileStore store = new DirectoryTileStore(this.folder.getRoot().toPath());
+    new TiledMaze(64, 64, new Square(0, 0), new Square(63, 63), store, 16, 31);
+  }
+}